@@ -0,0 +1,22 @@
+package com.marcouberti.f35watchface.benchmark;
+
+/**
+ * Inputs shared by the benchmarks.
+ */
+final class BenchmarkTimes {
+
+    /**
+     * 2016-01-01T12:00:00Z.
+     */
+    static final long START = 1451649600000L;
+
+    /**
+     * Time between two frames of the chrono.
+     */
+    static final long FRAME_MILLIS = 33;
+
+    static final long DAY_MILLIS = 24L * 60L * 60L * 1000L;
+
+    private BenchmarkTimes() {
+    }
+}
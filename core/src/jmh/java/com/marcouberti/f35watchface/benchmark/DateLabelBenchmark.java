@@ -0,0 +1,54 @@
+package com.marcouberti.f35watchface.benchmark;
+
+import com.marcouberti.f35watchface.utils.time.DateLabelCache;
+import com.marcouberti.f35watchface.utils.time.FrameTime;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The date labels of the complications, formatted again at midnight or on a locale change, and
+ * checked on every frame; plus the clock snapshot taken at the start of each frame.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DateLabelBenchmark {
+
+    private final DateLabelCache labels = new DateLabelCache();
+    private final FrameTime frameTime = new FrameTime();
+    private long now = BenchmarkTimes.START;
+
+    @Benchmark
+    public String format() {
+        now += BenchmarkTimes.DAY_MILLIS;
+        labels.invalidate();
+        labels.update(now);
+        return labels.getMonthExtended();
+    }
+
+    @Benchmark
+    public String cached() {
+        labels.update(BenchmarkTimes.START);
+        return labels.getDayNumber();
+    }
+
+    @Benchmark
+    public int frameTimeCapture() {
+        now += BenchmarkTimes.FRAME_MILLIS;
+        frameTime.capture(now, now * 1000000L);
+        return frameTime.getMinute();
+    }
+}
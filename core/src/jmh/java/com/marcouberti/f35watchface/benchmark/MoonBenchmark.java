@@ -0,0 +1,57 @@
+package com.marcouberti.f35watchface.benchmark;
+
+import com.marcouberti.f35watchface.utils.moon.LegacyMoon;
+import com.marcouberti.f35watchface.utils.moon.MoonEphemeris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Moon phase, illuminated fraction and age, as computed for the moon complication, and the two
+ * models it replaced: the phase angle and the age were computed apart before.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoonBenchmark {
+
+    private final MoonEphemeris.Result result = new MoonEphemeris.Result();
+    private long epochMillis = BenchmarkTimes.START;
+
+    @Benchmark
+    public MoonEphemeris.Result compute() {
+        //one frame later at each call, so the input never folds into a constant
+        epochMillis += BenchmarkTimes.FRAME_MILLIS;
+        return MoonEphemeris.compute(epochMillis, result);
+    }
+
+    @Benchmark
+    public double julianDate() {
+        epochMillis += BenchmarkTimes.FRAME_MILLIS;
+        return MoonEphemeris.toJulianDate(epochMillis);
+    }
+
+    @Benchmark
+    public double legacyPhaseAngle() {
+        epochMillis += BenchmarkTimes.FRAME_MILLIS;
+        return LegacyMoon.getPhaseAngle(epochMillis);
+    }
+
+    @Benchmark
+    public double legacyAge() {
+        epochMillis += BenchmarkTimes.FRAME_MILLIS;
+        return LegacyMoon.getMoonAge(MoonEphemeris.toJulianDate(epochMillis));
+    }
+}
@@ -0,0 +1,122 @@
+package com.marcouberti.f35watchface.benchmark;
+
+import com.marcouberti.f35watchface.utils.sunrisesunset.SolarDayCache;
+import com.marcouberti.f35watchface.utils.sunrisesunset.Zenith;
+import com.marcouberti.f35watchface.utils.sunrisesunset.calculator.BigDecimalSolarEventCalculator;
+import com.marcouberti.f35watchface.utils.sunrisesunset.calculator.SolarEventCalculator;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.Location;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.SolarEvents;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.util.Calendar;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The eight solar events of a day, one week of them, the legacy String API for a single event
+ * and the per-frame check of the sunrise/sunset complication cache. The bigDecimal benchmarks
+ * are the same events with the calculator on BigDecimal it replaced, as the baseline.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SolarEventsBenchmark {
+
+    /**
+     * Milan, and Tromso where some events do not happen around the solstices.
+     */
+    @Param({"45.46", "69.65"})
+    public double latitude;
+
+    private static final double LONGITUDE = 9.19;
+    private static final TimeZone TIME_ZONE = TimeZone.getTimeZone("Europe/Rome");
+
+    private static final Zenith[] ZENITHS = {
+            Zenith.ASTRONOMICAL, Zenith.NAUTICAL, Zenith.CIVIL, Zenith.OFFICIAL};
+
+    private SolarEventCalculator calculator;
+    private BigDecimalSolarEventCalculator bigDecimalCalculator;
+    private final BigDecimal[] bigDecimalEvents = new BigDecimal[SolarEvents.COUNT];
+    private Calendar day;
+    private final SolarEvents events = new SolarEvents();
+    private final SolarEvents[] week = new SolarEvents[7];
+    private final SolarDayCache cache = new SolarDayCache();
+    private long now;
+    private int dayOfYear;
+
+    @Setup
+    public void setUp() {
+        calculator = new SolarEventCalculator(new Location(latitude, LONGITUDE), TIME_ZONE);
+        bigDecimalCalculator = new BigDecimalSolarEventCalculator(new Location(latitude, LONGITUDE), TIME_ZONE);
+        day = Calendar.getInstance(TIME_ZONE);
+        day.setTimeInMillis(BenchmarkTimes.START);
+        for (int i = 0; i < week.length; i++) week[i] = new SolarEvents();
+        now = BenchmarkTimes.START;
+        cache.update(now, latitude, LONGITUDE, TIME_ZONE);
+    }
+
+    /**
+     * Walks through the year, so every season is part of the measure.
+     */
+    private Calendar nextDay() {
+        dayOfYear = dayOfYear % 365 + 1;
+        day.set(Calendar.DAY_OF_YEAR, dayOfYear);
+        return day;
+    }
+
+    @Benchmark
+    public SolarEvents allEvents() {
+        return calculator.computeEvents(nextDay(), events);
+    }
+
+    @Benchmark
+    public SolarEvents[] week() {
+        calculator.computeEvents(nextDay(), week);
+        return week;
+    }
+
+    @Benchmark
+    public String officialSunriseString() {
+        return calculator.computeSunriseTime(Zenith.OFFICIAL, nextDay());
+    }
+
+    @Benchmark
+    public BigDecimal[] bigDecimalAllEvents() {
+        Calendar day = nextDay();
+        for (int i = 0; i < ZENITHS.length; i++) {
+            bigDecimalEvents[i] = bigDecimalCalculator.computeLocalTime(ZENITHS[i], day, true);
+            bigDecimalEvents[SolarEvents.COUNT - 1 - i] = bigDecimalCalculator.computeLocalTime(ZENITHS[i], day, false);
+        }
+        return bigDecimalEvents;
+    }
+
+    @Benchmark
+    public String bigDecimalOfficialSunriseString() {
+        return bigDecimalCalculator.computeSunriseTime(Zenith.OFFICIAL, nextDay());
+    }
+
+    /**
+     * What the complication pays on a frame: the day, cell and zone are unchanged.
+     */
+    @Benchmark
+    public boolean cachedDay() {
+        now += BenchmarkTimes.FRAME_MILLIS;
+        if (now >= cache.getValidUntil()) now = cache.getValidUntil() - BenchmarkTimes.DAY_MILLIS;
+        return cache.update(now, latitude, LONGITUDE, TIME_ZONE);
+    }
+}
@@ -0,0 +1,66 @@
+package com.marcouberti.f35watchface.benchmark;
+
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The chrono work of a frame: one elapsed sample formatted into the reused buffer, and the lap
+ * list rows. Expected to allocate nothing, see the gc.alloc.rate.norm column of -prof gc.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StopWatchBenchmark {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final StopWatch stopWatch = new StopWatch();
+    private final LapBuffer laps = new LapBuffer();
+    private final char[] chars = new char[StopWatch.FORMAT_LENGTH];
+    private final char[] lapChars = new char[StopWatch.LAP_FORMAT_LENGTH];
+    private long nowNanos;
+
+    @Setup
+    public void setUp() {
+        nowNanos = 0;
+        stopWatch.start(nowNanos);
+        for (int i = 1; i <= LapBuffer.CAPACITY + 3; i++) {
+            laps.add(i * 61234L * NANOS_PER_MILLI);
+        }
+    }
+
+    @Benchmark
+    public char[] frame() {
+        nowNanos += BenchmarkTimes.FRAME_MILLIS * NANOS_PER_MILLI;
+        StopWatch.format(stopWatch.getElapsedTime(nowNanos), chars);
+        return chars;
+    }
+
+    /**
+     * The three rows of the lap list.
+     */
+    @Benchmark
+    public char[] lapRows() {
+        int last = laps.getLapCount();
+        for (int number = last; number > last - 3; number--) {
+            StopWatch.formatLap(laps.getLapTime(number) / NANOS_PER_MILLI, lapChars, 0);
+        }
+        return lapChars;
+    }
+}
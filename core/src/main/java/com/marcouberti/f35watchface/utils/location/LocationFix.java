@@ -0,0 +1,81 @@
+package com.marcouberti.f35watchface.utils.location;
+
+/**
+ * A position as the phone sends it to the watch: latitude and longitude in fixed point, 1e-7
+ * degrees (about a centimeter), and the time of the fix.
+ * <p>
+ * On the wire it is {@link #BYTES} bytes, big-endian: latitude, longitude, then the time in
+ * milliseconds since the epoch.
+ */
+public final class LocationFix {
+
+    public static final int BYTES = 4 + 4 + 8;
+    private static final double E7 = 1e7;
+    private static final double EARTH_RADIUS_METERS = 6371008.8;
+
+    public final int latitudeE7;
+    public final int longitudeE7;
+    public final long time;
+
+    public LocationFix(int latitudeE7, int longitudeE7, long time) {
+        this.latitudeE7 = latitudeE7;
+        this.longitudeE7 = longitudeE7;
+        this.time = time;
+    }
+
+    public static LocationFix of(double latitude, double longitude, long time) {
+        return new LocationFix((int) Math.round(latitude * E7), (int) Math.round(longitude * E7), time);
+    }
+
+    public double getLatitude() {
+        return latitudeE7 / E7;
+    }
+
+    public double getLongitude() {
+        return longitudeE7 / E7;
+    }
+
+    /**
+     * @return the great circle distance to {@code other} in meters
+     */
+    public double distanceTo(LocationFix other) {
+        double lat1 = Math.toRadians(getLatitude());
+        double lat2 = Math.toRadians(other.getLatitude());
+        double sinLat = Math.sin((lat2 - lat1) / 2);
+        double sinLon = Math.sin(Math.toRadians(other.getLongitude() - getLongitude()) / 2);
+        double a = sinLat * sinLat + Math.cos(lat1) * Math.cos(lat2) * sinLon * sinLon;
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.min(1, Math.sqrt(a)));
+    }
+
+    public byte[] toBytes() {
+        byte[] data = new byte[BYTES];
+        putInt(data, 0, latitudeE7);
+        putInt(data, 4, longitudeE7);
+        putInt(data, 8, (int) (time >>> 32));
+        putInt(data, 12, (int) time);
+        return data;
+    }
+
+    /**
+     * @return the fix, or null if {@code data} is not {@link #BYTES} long
+     */
+    public static LocationFix fromBytes(byte[] data) {
+        if (data == null || data.length != BYTES) return null;
+        long time = ((long) getInt(data, 8) << 32) | (getInt(data, 12) & 0xffffffffL);
+        return new LocationFix(getInt(data, 0), getInt(data, 4), time);
+    }
+
+    private static void putInt(byte[] data, int offset, int value) {
+        data[offset] = (byte) (value >>> 24);
+        data[offset + 1] = (byte) (value >>> 16);
+        data[offset + 2] = (byte) (value >>> 8);
+        data[offset + 3] = (byte) value;
+    }
+
+    private static int getInt(byte[] data, int offset) {
+        return (data[offset] & 0xff) << 24
+                | (data[offset + 1] & 0xff) << 16
+                | (data[offset + 2] & 0xff) << 8
+                | (data[offset + 3] & 0xff);
+    }
+}
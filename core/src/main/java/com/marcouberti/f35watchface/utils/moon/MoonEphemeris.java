@@ -0,0 +1,134 @@
+package com.marcouberti.f35watchface.utils.moon;
+
+/**
+ * Moon phase and age for a given instant.
+ * <p>
+ * The model is John Walker's "moontool" (from "Practical Astronomy With Your Calculator",
+ * Duffett-Smith), as previously used for the moon age: the Julian date is derived straight from
+ * epoch millis, everything is primitive math and the results are written into a caller owned
+ * {@link Result}, so a computation allocates nothing and shares no state.
+ */
+public final class MoonEphemeris {
+
+    /**
+     * Synodic month (new Moon to new Moon), in days.
+     */
+    public static final double SYNODIC_MONTH = 29.53058868;
+
+    private static final double MILLIS_PER_DAY = 86400000.0;
+    private static final double JULIAN_DATE_UNIX_EPOCH = 2440587.5;
+
+    private static final double EPOCH = 2444238.5;                       /* 1980 January 0.0. */
+    private static final double SUN_ELONG_EPOCH = 278.833540;            /* Ecliptic longitude of the Sun at epoch 1980.0. */
+    private static final double SUN_ELONG_PERIGEE = 282.596403;          /* Ecliptic longitude of the Sun at perigee. */
+    private static final double ECCENT_EARTH_ORBIT = 0.016718;           /* Eccentricity of Earth's orbit. */
+    private static final double MOON_MEAN_LONGITUDE_EPOCH = 64.975464;   /* Moon's mean longitude at the epoch. */
+    private static final double MOON_MEAN_LONGITUDE_PERIGEE = 349.383063;/* Mean longitude of the perigee at the epoch. */
+    private static final double KEPLER_EPSILON = 1E-6;                   /* Accuracy of the Kepler equation. */
+    private static final double ECCENT_FACTOR =
+            Math.sqrt((1.0 + ECCENT_EARTH_ORBIT) / (1.0 - ECCENT_EARTH_ORBIT));
+
+    /**
+     * Moon state at an instant. Instances are meant to be reused across computations.
+     */
+    public static final class Result {
+        /**
+         * Astronomical Julian date (UT) the values refer to.
+         */
+        public double julianDate;
+        /**
+         * Angle sun-moon-earth in radians, 0 at full moon and PI at new moon.
+         */
+        public double phaseAngle;
+        /**
+         * Illuminated fraction of the disc, from 0 (new) to 1 (full).
+         */
+        public double illuminatedFraction;
+        /**
+         * Days since the last new moon, from 0 to {@link #SYNODIC_MONTH}.
+         */
+        public double ageDays;
+        /**
+         * Phase as an index from 0 to 7: new, waxing crescent, first quarter, waxing gibbous,
+         * full, waning gibbous, third quarter, waning crescent.
+         */
+        public int phaseIndex;
+        public boolean waxing;
+    }
+
+    private MoonEphemeris() {
+    }
+
+    public static double toJulianDate(long epochMillis) {
+        return epochMillis / MILLIS_PER_DAY + JULIAN_DATE_UNIX_EPOCH;
+    }
+
+    /**
+     * Computes the moon state at {@code epochMillis} into {@code out}.
+     *
+     * @return {@code out}
+     */
+    public static Result compute(long epochMillis, Result out) {
+        return computeJulian(toJulianDate(epochMillis), out);
+    }
+
+    /**
+     * Computes the moon state at the given Julian date (UT) into {@code out}.
+     *
+     * @return {@code out}
+     */
+    public static Result computeJulian(double julianDate, Result out) {
+        //Sun's position
+        double day = julianDate - EPOCH;
+        double sunMeanAnomaly = fixAngle((360.0 / 365.2422) * day);
+        double sunPerigeeToEpoch = fixAngle(sunMeanAnomaly + SUN_ELONG_EPOCH - SUN_ELONG_PERIGEE);
+        double sunEccent = ECCENT_FACTOR * Math.tan(kepler(sunPerigeeToEpoch) / 2.0);
+        sunEccent = 2.0 * Math.toDegrees(Math.atan(sunEccent));
+        double sunGeocentricElong = fixAngle(sunEccent + SUN_ELONG_PERIGEE);
+
+        //Moon's position
+        double moonMeanLongitude = fixAngle(13.1763966 * day + MOON_MEAN_LONGITUDE_EPOCH);
+        double moonMeanAnomaly = fixAngle(moonMeanLongitude - 0.1114041 * day - MOON_MEAN_LONGITUDE_PERIGEE);
+        double evection = 1.2739 * Math.sin(Math.toRadians(2.0 * (moonMeanLongitude - sunGeocentricElong) - moonMeanAnomaly));
+        double sinSunAnomaly = Math.sin(Math.toRadians(sunPerigeeToEpoch));
+        double annualEquation = 0.1858 * sinSunAnomaly;
+        double correction1 = 0.37 * sinSunAnomaly;
+        double correctedAnomaly = moonMeanAnomaly + evection - annualEquation - correction1;
+        double equationOfCenter = 6.2886 * Math.sin(Math.toRadians(correctedAnomaly));
+        double correction2 = 0.214 * Math.sin(Math.toRadians(2.0 * correctedAnomaly));
+        double correctedLongitude = moonMeanLongitude + evection + equationOfCenter
+                - annualEquation + correction2;
+        double variation = 0.6583 * Math.sin(Math.toRadians(2.0 * (correctedLongitude - sunGeocentricElong)));
+
+        //elongation of the moon from the sun, 0 at new moon
+        double trueLongitude = correctedLongitude + variation;
+        double age = fixAngle(trueLongitude - sunGeocentricElong);
+        double ageRadians = Math.toRadians(age);
+
+        out.julianDate = julianDate;
+        out.phaseAngle = Math.toRadians(fixAngle(180.0 - age));
+        out.illuminatedFraction = (1.0 - Math.cos(ageRadians)) / 2.0;
+        out.ageDays = SYNODIC_MONTH * (age / 360.0);
+        out.phaseIndex = ((int) Math.floor(age / 45.0 + 0.5)) & 7;
+        out.waxing = age < 180.0;
+        return out;
+    }
+
+    private static double fixAngle(double a) {
+        return a - 360.0 * Math.floor(a / 360.0);
+    }
+
+    /**
+     * Solves the equation of Kepler for the mean anomaly {@code m} in degrees.
+     */
+    private static double kepler(double m) {
+        double e;
+        double delta;
+        e = m = Math.toRadians(m);
+        do {
+            delta = e - ECCENT_EARTH_ORBIT * Math.sin(e) - m;
+            e -= delta / (1.0 - ECCENT_EARTH_ORBIT * Math.cos(e));
+        } while (Math.abs(delta) - KEPLER_EPSILON > 0.0);
+        return e;
+    }
+}
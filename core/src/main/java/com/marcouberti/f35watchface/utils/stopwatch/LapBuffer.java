@@ -0,0 +1,102 @@
+package com.marcouberti.f35watchface.utils.stopwatch;
+
+/**
+ * The last {@link #CAPACITY} laps of a stopwatch run, as elapsed nanoseconds at each lap tap
+ * (the split times) in a ring of primitives: recording a lap never allocates and the oldest
+ * laps are overwritten once the ring is full. Laps are numbered from 1 since the start of the
+ * run, overwritten ones included.
+ */
+public class LapBuffer {
+
+    public static final int CAPACITY = 64;
+
+    private final long[] splits = new long[CAPACITY];
+    //index the next split is written at
+    private int head;
+    private int size;
+    //laps overwritten since the start of the run, and the split of the last one
+    private int dropped;
+    private long droppedSplit;
+
+    /**
+     * Records a lap.
+     *
+     * @param splitNanos elapsed time of the run at the lap tap
+     */
+    public void add(long splitNanos) {
+        if (size == CAPACITY) {
+            droppedSplit = splits[head];
+            dropped++;
+        } else {
+            size++;
+        }
+        splits[head] = splitNanos;
+        head = (head + 1) % CAPACITY;
+    }
+
+    public void clear() {
+        head = 0;
+        size = 0;
+        dropped = 0;
+        droppedSplit = 0;
+    }
+
+    /**
+     * Sets the laps overwritten before the ones about to be added, when restoring an empty buffer.
+     */
+    public void setDropped(int count, long lastSplitNanos) {
+        dropped = count;
+        droppedSplit = lastSplitNanos;
+    }
+
+    /**
+     * @return the number of laps held
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of laps recorded since the start of the run, overwritten ones included
+     */
+    public int getLapCount() {
+        return dropped + size;
+    }
+
+    /**
+     * @return the number of the oldest lap held
+     */
+    public int getFirstLapNumber() {
+        return dropped + 1;
+    }
+
+    public int getDroppedCount() {
+        return dropped;
+    }
+
+    public long getDroppedSplit() {
+        return droppedSplit;
+    }
+
+    /**
+     * @param number lap number, from {@link #getFirstLapNumber()} to {@link #getLapCount()}
+     * @return elapsed time of the run at the lap, in nanoseconds
+     */
+    public long getSplit(int number) {
+        int index = number - dropped - 1;
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("lap " + number + " not held, laps "
+                    + getFirstLapNumber() + " to " + getLapCount());
+        }
+        return splits[(head - size + index + CAPACITY) % CAPACITY];
+    }
+
+    /**
+     * @param number lap number, from {@link #getFirstLapNumber()} to {@link #getLapCount()}
+     * @return duration of the lap, in nanoseconds
+     */
+    public long getLapTime(int number) {
+        long previous = number == dropped + 1 ? droppedSplit : getSplit(number - 1);
+        return getSplit(number) - previous;
+    }
+}
@@ -0,0 +1,146 @@
+package com.marcouberti.f35watchface.utils.stopwatch;
+
+/**
+ * Created by Marco on 22/11/15.
+ * <p>
+ * Measures on the monotonic clock, {@code SystemClock.elapsedRealtimeNanos()}, which the caller
+ * passes in: setting the wall clock or changing time zone does not move the elapsed time. The
+ * elapsed time is read once per frame with {@link #getElapsedTime(long)} and formatted with
+ * {@link #format(long, char[])}, which does not allocate.
+ */
+public class StopWatch {
+
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Chars written by {@link #format(long, char[])}.
+     */
+    public static final int FORMAT_LENGTH = 12;
+
+    /**
+     * Chars written by {@link #formatLap(long, char[], int)}.
+     */
+    public static final int LAP_FORMAT_LENGTH = 7;
+
+    //monotonic time the elapsed time is counted from, shifted on resume by the paused time
+    private long startNanos = 0;
+    //elapsed time frozen by pause
+    private long pausedNanos = 0;
+    public boolean running = false;
+    public boolean paused = false;
+
+    /**
+     * @param nowNanos monotonic time, as returned by {@code SystemClock.elapsedRealtimeNanos()}
+     */
+    public void start(long nowNanos) {
+        this.startNanos = nowNanos;
+        this.pausedNanos = 0;
+        this.paused = false;
+        this.running = true;
+    }
+
+    public void stop() {
+        this.running = false;
+        this.paused = false;
+        this.pausedNanos = 0;
+    }
+
+    public void pause(long nowNanos) {
+        if (!running) return;
+        pausedNanos = nowNanos - startNanos;
+        this.running = false;
+        this.paused = true;
+    }
+
+    public void resume(long nowNanos) {
+        if (!paused) return;
+        this.startNanos = nowNanos - pausedNanos;
+        this.running = true;
+        this.paused = false;
+    }
+
+    /**
+     * Puts the stopwatch back in a state read from {@code StopWatchLog}.
+     *
+     * @param elapsedNanos elapsed time at {@code nowNanos}
+     */
+    public void restore(boolean running, boolean paused, long elapsedNanos, long nowNanos) {
+        this.running = running;
+        this.paused = !running && paused;
+        this.startNanos = nowNanos - elapsedNanos;
+        this.pausedNanos = this.paused ? elapsedNanos : 0;
+    }
+
+    /**
+     * @param nowNanos monotonic time, as returned by {@code SystemClock.elapsedRealtimeNanos()}
+     * @return total elapsed time in nanoseconds, frozen while paused, 0 when stopped
+     */
+    public long getElapsedNanos(long nowNanos) {
+        if (running) {
+            return nowNanos - startNanos;
+        }
+        if (paused) {
+            return pausedNanos;
+        }
+        return 0;
+    }
+
+    /**
+     * @param nowNanos monotonic time, as returned by {@code SystemClock.elapsedRealtimeNanos()}
+     * @return total elapsed time in milliseconds, frozen while paused, 0 when stopped
+     */
+    public long getElapsedTime(long nowNanos) {
+        return getElapsedNanos(nowNanos) / NANOS_PER_MILLI;
+    }
+
+    /**
+     * Writes {@code elapsedMillis} as HH:MM:SS.mmm into {@code out} without allocating, hours
+     * wrap at 100.
+     *
+     * @param out at least {@link #FORMAT_LENGTH} chars
+     * @return the number of chars written
+     */
+    public static int format(long elapsedMillis, char[] out) {
+        if (elapsedMillis < 0) elapsedMillis = 0;
+        long totalSecs = elapsedMillis / 1000;
+        int millis = (int) (elapsedMillis % 1000);
+        int secs = (int) (totalSecs % 60);
+        int mins = (int) ((totalSecs / 60) % 60);
+        int hours = (int) ((totalSecs / 3600) % 100);
+        out[0] = (char) ('0' + hours / 10);
+        out[1] = (char) ('0' + hours % 10);
+        out[2] = ':';
+        out[3] = (char) ('0' + mins / 10);
+        out[4] = (char) ('0' + mins % 10);
+        out[5] = ':';
+        out[6] = (char) ('0' + secs / 10);
+        out[7] = (char) ('0' + secs % 10);
+        out[8] = '.';
+        out[9] = (char) ('0' + millis / 100);
+        out[10] = (char) ('0' + (millis / 10) % 10);
+        out[11] = (char) ('0' + millis % 10);
+        return FORMAT_LENGTH;
+    }
+
+    /**
+     * Writes a lap time as MM:SS.t into {@code out} at {@code offset} without allocating,
+     * minutes wrap at 100.
+     *
+     * @return the number of chars written
+     */
+    public static int formatLap(long lapMillis, char[] out, int offset) {
+        if (lapMillis < 0) lapMillis = 0;
+        long totalSecs = lapMillis / 1000;
+        int tenths = (int) (lapMillis % 1000) / 100;
+        int secs = (int) (totalSecs % 60);
+        int mins = (int) ((totalSecs / 60) % 100);
+        out[offset] = (char) ('0' + mins / 10);
+        out[offset + 1] = (char) ('0' + mins % 10);
+        out[offset + 2] = ':';
+        out[offset + 3] = (char) ('0' + secs / 10);
+        out[offset + 4] = (char) ('0' + secs % 10);
+        out[offset + 5] = '.';
+        out[offset + 6] = (char) ('0' + tenths);
+        return LAP_FORMAT_LENGTH;
+    }
+}
@@ -0,0 +1,168 @@
+package com.marcouberti.f35watchface.utils.sunrisesunset;
+
+import com.marcouberti.f35watchface.utils.sunrisesunset.calculator.SolarEventCalculator;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.Location;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.SolarEvents;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Today's official sunrise and sunset, ready to be drawn: labels in HH:MM form and the daylight
+ * arc on a 24 hours ring.
+ * <p>
+ * The events are computed once per (day, location cell, time zone) and kept until the next local
+ * midnight, a move to another {@link #CELL_DEGREES} cell or a time zone change, so reading them
+ * while drawing never runs solar math.
+ */
+public class SolarDayCache {
+
+    /**
+     * Size of a location cell, about 11 km of latitude: moving within a cell shifts the events by
+     * less than a minute.
+     */
+    public static final double CELL_DEGREES = 0.1;
+
+    private static final String NO_TIME = "--:--";
+
+    private final SolarEvents events = new SolarEvents();
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+    private long latitudeCell = Long.MIN_VALUE;
+    private long longitudeCell = Long.MIN_VALUE;
+    private String timeZoneId;
+
+    private boolean known;
+    private String sunriseLabel = NO_TIME;
+    private String sunsetLabel = NO_TIME;
+    private float daylightStartAngle;
+    private float daylightSweepAngle;
+
+    /**
+     * Makes sure the cached events describe the day containing {@code now} at the given location,
+     * computing them again only if the day, the location cell or the time zone changed.
+     *
+     * @param latitude degrees, {@link Double#NaN} if the location is unknown
+     * @param longitude degrees, {@link Double#NaN} if the location is unknown
+     * @return true if the events have been computed again
+     */
+    public boolean update(long now, double latitude, double longitude, TimeZone timeZone) {
+        if (Double.isNaN(latitude) || Double.isNaN(longitude)) return false;
+        long latCell = (long) Math.floor(latitude / CELL_DEGREES);
+        long lonCell = (long) Math.floor(longitude / CELL_DEGREES);
+        if (now >= validFrom && now < validUntil && latCell == latitudeCell
+                && lonCell == longitudeCell && timeZone.getID().equals(timeZoneId)) return false;
+
+        latitudeCell = latCell;
+        longitudeCell = lonCell;
+        timeZoneId = timeZone.getID();
+        compute(now, latitude, longitude, timeZone);
+        return true;
+    }
+
+    /**
+     * Drops the cached events, they are computed again on the next {@link #update}.
+     */
+    public void invalidate() {
+        validFrom = Long.MAX_VALUE;
+        validUntil = Long.MIN_VALUE;
+    }
+
+    private void compute(long now, double latitude, double longitude, TimeZone timeZone) {
+        Calendar day = Calendar.getInstance(timeZone);
+        day.setTimeInMillis(now);
+        new SolarEventCalculator(new Location(latitude, longitude), timeZone).computeEvents(day, events);
+
+        int sunrise = events.getLocalMinuteOfDay(SolarEvents.OFFICIAL_SUNRISE);
+        int sunset = events.getLocalMinuteOfDay(SolarEvents.OFFICIAL_SUNSET);
+        sunriseLabel = toLabel(sunrise);
+        sunsetLabel = toLabel(sunset);
+        if (sunrise >= 0 && sunset >= 0) {
+            daylightStartAngle = toAngle(sunrise);
+            int daylight = sunset - sunrise;
+            if (daylight < 0) daylight += 24 * 60;
+            daylightSweepAngle = daylight * 360f / (24 * 60);
+        } else {
+            //polar day or night
+            daylightStartAngle = -90f;
+            daylightSweepAngle = events.isSunAlwaysUp(SolarEvents.OFFICIAL_SUNRISE) ? 360f : 0f;
+        }
+        known = true;
+
+        //valid from the local midnight of today to the next one
+        day.set(Calendar.HOUR_OF_DAY, 0);
+        day.set(Calendar.MINUTE, 0);
+        day.set(Calendar.SECOND, 0);
+        day.set(Calendar.MILLISECOND, 0);
+        validFrom = day.getTimeInMillis();
+        day.add(Calendar.DAY_OF_MONTH, 1);
+        validUntil = day.getTimeInMillis();
+    }
+
+    private static String toLabel(int minuteOfDay) {
+        if (minuteOfDay < 0) return NO_TIME;
+        int hour = minuteOfDay / 60;
+        int minute = minuteOfDay % 60;
+        return new String(new char[]{
+                (char) ('0' + hour / 10), (char) ('0' + hour % 10), ':',
+                (char) ('0' + minute / 10), (char) ('0' + minute % 10)});
+    }
+
+    /**
+     * @return the angle of the minute on a 24 hours ring with midnight at the top, in the
+     *         {@code Canvas.drawArc} convention (0 degrees at three o'clock)
+     */
+    public static float toAngle(int minuteOfDay) {
+        return minuteOfDay * 360f / (24 * 60) - 90f;
+    }
+
+    /**
+     * @return false until the events have been computed for a known location
+     */
+    public boolean isKnown() {
+        return known;
+    }
+
+    public String getSunriseLabel() {
+        return sunriseLabel;
+    }
+
+    public String getSunsetLabel() {
+        return sunsetLabel;
+    }
+
+    /**
+     * @return the start of the daylight arc, see {@link #toAngle(int)}
+     */
+    public float getDaylightStartAngle() {
+        return daylightStartAngle;
+    }
+
+    /**
+     * @return the length of the daylight arc in degrees, 360 during polar day and 0 during polar
+     *         night
+     */
+    public float getDaylightSweepAngle() {
+        return daylightSweepAngle;
+    }
+
+    public SolarEvents getEvents() {
+        return events;
+    }
+
+    /**
+     * @return true if the events of a day are cached, false while the location is unknown or
+     *         after {@link #invalidate()}
+     */
+    public boolean hasEvents() {
+        return validUntil != Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the first instant after the cached day, {@link Long#MIN_VALUE} if
+     *         {@link #hasEvents()} is false
+     */
+    public long getValidUntil() {
+        return validUntil;
+    }
+}
@@ -18,6 +18,7 @@ package com.marcouberti.f35watchface.utils.sunrisesunset;
 
 import com.marcouberti.f35watchface.utils.sunrisesunset.calculator.SolarEventCalculator;
 import com.marcouberti.f35watchface.utils.sunrisesunset.dto.Location;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.SolarEvents;
 
 import java.util.Calendar;
 import java.util.TimeZone;
@@ -238,6 +239,32 @@ public class SunriseSunsetCalculator {
         return calculator.computeSunsetCalendar(Zenith.OFFICIAL, date);
     }
 
+    /**
+     * Returns the astronomical, nautical, civil and official sunrise and sunset for the given date,
+     * computed in one pass.
+     * 
+     * @param date
+     *            <code>Calendar</code> object containing the date to compute the events for.
+     * @param out
+     *            <code>SolarEvents</code> object receiving the events.
+     * @return <code>out</code>
+     */
+    public SolarEvents getEventsForDate(Calendar date, SolarEvents out) {
+        return calculator.computeEvents(date, out);
+    }
+
+    /**
+     * Returns the solar events of consecutive days.
+     * 
+     * @param firstDay
+     *            <code>Calendar</code> object containing the first date.
+     * @param out
+     *            <code>SolarEvents</code> objects receiving the events, one per day.
+     */
+    public void getEventsForDays(Calendar firstDay, SolarEvents[] out) {
+        calculator.computeEvents(firstDay, out);
+    }
+
     /**
      * Computes the sunrise for an arbitrary declination.
      * 
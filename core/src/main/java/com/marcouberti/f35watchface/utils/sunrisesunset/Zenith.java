@@ -16,8 +16,6 @@
 
 package com.marcouberti.f35watchface.utils.sunrisesunset;
 
-import java.math.BigDecimal;
-
 /**
  * Defines the solar declination used in computing the sunrise/sunset.
  */
@@ -34,13 +32,13 @@ public class Zenith {
     /** Official sunrise/set is when the sun is 50' below the horizon. */
     public static final Zenith OFFICIAL = new Zenith(90.8333);
 
-    private final BigDecimal degrees;
+    private final double degrees;
 
     public Zenith(double degrees) {
-        this.degrees = BigDecimal.valueOf(degrees);
+        this.degrees = degrees;
     }
 
-    public BigDecimal degrees() {
+    public double degrees() {
         return degrees;
     }
 }
@@ -0,0 +1,353 @@
+/*
+ * Copyright 2008-2009 Mike Reedell / LuckyCatLabs.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.marcouberti.f35watchface.utils.sunrisesunset.calculator;
+
+import com.marcouberti.f35watchface.utils.sunrisesunset.Zenith;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.Location;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.SolarEvents;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+
+/**
+ * Parent class of the Sunrise and Sunset calculator classes.
+ * <p>
+ * All the math is done on doubles. The terms that only depend on the day and on whether the sun
+ * rises or sets (longitude hour, mean anomaly, true longitude, right ascension and declination)
+ * are computed once and shared by the four zeniths, see {@link #computeEvents(Calendar, SolarEvents)}.
+ * <p>
+ * The steps are rounded to 4 decimals where the former BigDecimal implementation rounded them,
+ * see {@link #round4(double)}: the times are the ones it gave, so a time shown to the minute does
+ * not move. The rounding weighs up to a couple of minutes at high latitudes, where the hour angle
+ * is steep, which is well within the accuracy of the algorithm itself. Unlike it, the right
+ * ascension stays next to the true longitude at the equinoxes and the solstices too, and the UTC
+ * offset is the one of the zone, see {@link #getLocalOffset(Calendar)}.
+ */
+public class SolarEventCalculator {
+    private static final Zenith[] SUNRISE_ZENITHS = {
+            Zenith.ASTRONOMICAL, Zenith.NAUTICAL, Zenith.CIVIL, Zenith.OFFICIAL };
+    private static final int[] SUNRISE_EVENTS = {
+            SolarEvents.ASTRONOMICAL_SUNRISE, SolarEvents.NAUTICAL_SUNRISE,
+            SolarEvents.CIVIL_SUNRISE, SolarEvents.OFFICIAL_SUNRISE };
+    private static final int[] SUNSET_EVENTS = {
+            SolarEvents.ASTRONOMICAL_SUNSET, SolarEvents.NAUTICAL_SUNSET,
+            SolarEvents.CIVIL_SUNSET, SolarEvents.OFFICIAL_SUNSET };
+
+    private static final double DEG2RAD = Math.PI / 180.0;
+    private static final double RAD2DEG = 180.0 / Math.PI;
+    private static final double MILLIS_PER_HOUR = 3600000.0;
+    private static final double SCALE = 10000.0;
+
+    final private Location location;
+    final private TimeZone timeZone;
+    //depend on the location only
+    final private double baseLongitudeHour;
+    final private double sinLatitude;
+    final private double cosLatitude;
+    //terms shared by the zeniths of a sunrise or a sunset, see computeSunTerms()
+    private double longitudeHour;
+    private double sunTrueLong;
+    private double sinSunDeclination;
+    private double cosSunDeclination;
+    private double rightAscension;
+    //cosine of the hour angle of the last computeLocalTime(), below -1 if the sun never sets
+    private double lastCosineSunLocalHour;
+    //scratch calendar of the range API
+    private Calendar rangeCalendar;
+
+    /**
+     * Constructs a new <code>SolarEventCalculator</code> using the given parameters.
+     *
+     * @param location
+     *            <code>Location</code> of the place where the solar event should be calculated from.
+     * @param timeZoneIdentifier
+     *            time zone identifier of the timezone of the location parameter. For example,
+     *            "America/New_York".
+     */
+    public SolarEventCalculator(Location location, String timeZoneIdentifier) {
+        this(location, TimeZone.getTimeZone(timeZoneIdentifier));
+    }
+
+    /**
+     * Constructs a new <code>SolarEventCalculator</code> using the given parameters.
+     *
+     * @param location
+     *            <code>Location</code> of the place where the solar event should be calculated from.
+     * @param timeZone
+     *            timezone of the location parameter.
+     */
+    public SolarEventCalculator(Location location, TimeZone timeZone) {
+        this.location = location;
+        this.timeZone = timeZone;
+        this.baseLongitudeHour = round4(location.getLongitude() / 15);
+        double latitude = round4(location.getLatitude() * DEG2RAD);
+        this.sinLatitude = Math.sin(latitude);
+        this.cosLatitude = Math.cos(latitude);
+    }
+
+    /**
+     * Computes the sunrise time for the given zenith at the given date.
+     *
+     * @param solarZenith
+     *            <code>Zenith</code> enum corresponding to the type of sunrise to compute.
+     * @param date
+     *            <code>Calendar</code> object representing the date to compute the sunrise for.
+     * @return the sunrise time, in HH:MM format (24-hour clock), 00:00 if the sun does not rise on the given
+     *         date.
+     */
+    public String computeSunriseTime(Zenith solarZenith, Calendar date) {
+        return getLocalTimeAsString(computeSolarEventTime(solarZenith, date, true));
+    }
+
+    /**
+     * Computes the sunrise time for the given zenith at the given date.
+     *
+     * @param solarZenith
+     *            <code>Zenith</code> enum corresponding to the type of sunrise to compute.
+     * @param date
+     *            <code>Calendar</code> object representing the date to compute the sunrise for.
+     * @return the sunrise time as a calendar or null for no sunrise
+     */
+    public Calendar computeSunriseCalendar(Zenith solarZenith, Calendar date) {
+        return getLocalTimeAsCalendar(computeSolarEventTime(solarZenith, date, true), date);
+    }
+
+    /**
+     * Computes the sunset time for the given zenith at the given date.
+     *
+     * @param solarZenith
+     *            <code>Zenith</code> enum corresponding to the type of sunset to compute.
+     * @param date
+     *            <code>Calendar</code> object representing the date to compute the sunset for.
+     * @return the sunset time, in HH:MM format (24-hour clock), 00:00 if the sun does not set on the given
+     *         date.
+     */
+    public String computeSunsetTime(Zenith solarZenith, Calendar date) {
+        return getLocalTimeAsString(computeSolarEventTime(solarZenith, date, false));
+    }
+
+    /**
+     * Computes the sunset time for the given zenith at the given date.
+     *
+     * @param solarZenith
+     *            <code>Zenith</code> enum corresponding to the type of sunset to compute.
+     * @param date
+     *            <code>Calendar</code> object representing the date to compute the sunset for.
+     * @return the sunset time as a Calendar or null for no sunset.
+     */
+    public Calendar computeSunsetCalendar(Zenith solarZenith, Calendar date) {
+        return getLocalTimeAsCalendar(computeSolarEventTime(solarZenith, date, false), date);
+    }
+
+    /**
+     * Computes the eight solar events of the given date in one pass.
+     *
+     * @param date
+     *            <code>Calendar</code> object representing the date to compute the events for, its time zone
+     *            is set to the calculator's one.
+     * @param out
+     *            receives the events.
+     * @return <code>out</code>
+     */
+    public SolarEvents computeEvents(Calendar date, SolarEvents out) {
+        date.setTimeZone(this.timeZone);
+        int dayOfYear = date.get(Calendar.DAY_OF_YEAR);
+        double localOffset = getLocalOffset(date);
+        out.setDate(date.get(Calendar.YEAR), dayOfYear);
+
+        computeSunTerms(dayOfYear, true);
+        for (int i = 0; i < SUNRISE_ZENITHS.length; i++) {
+            double localTime = computeLocalTime(cosZenith(SUNRISE_ZENITHS[i]), true, localOffset);
+            out.set(SUNRISE_EVENTS[i], localTime, lastCosineSunLocalHour < -1.0);
+        }
+        computeSunTerms(dayOfYear, false);
+        for (int i = 0; i < SUNRISE_ZENITHS.length; i++) {
+            double localTime = computeLocalTime(cosZenith(SUNRISE_ZENITHS[i]), false, localOffset);
+            out.set(SUNSET_EVENTS[i], localTime, lastCosineSunLocalHour < -1.0);
+        }
+        return out;
+    }
+
+    /**
+     * Computes the solar events of <code>out.length</code> consecutive days.
+     *
+     * @param firstDay
+     *            <code>Calendar</code> object representing the first date, it is not modified.
+     * @param out
+     *            receives the events, one element per day starting from <code>firstDay</code>.
+     */
+    public void computeEvents(Calendar firstDay, SolarEvents[] out) {
+        if (rangeCalendar == null) {
+            rangeCalendar = Calendar.getInstance(this.timeZone);
+        }
+        Calendar day = rangeCalendar;
+        day.setTimeZone(firstDay.getTimeZone());
+        day.setTimeInMillis(firstDay.getTimeInMillis());
+        for (int i = 0; i < out.length; i++) {
+            computeEvents(day, out[i]);
+            day.add(Calendar.DAY_OF_YEAR, 1);
+        }
+    }
+
+    /**
+     * @return the local time of the event in decimal hours, or NaN if it does not happen.
+     */
+    private double computeSolarEventTime(Zenith solarZenith, Calendar date, boolean isSunrise) {
+        date.setTimeZone(this.timeZone);
+        computeSunTerms(date.get(Calendar.DAY_OF_YEAR), isSunrise);
+        return computeLocalTime(cosZenith(solarZenith), isSunrise, getLocalOffset(date));
+    }
+
+    /**
+     * Computes the terms that only depend on the day and on the kind of event: the longitude hour
+     * t, the suns true longitude L, its declination and its right ascension RA.
+     */
+    private void computeSunTerms(int dayOfYear, boolean isSunrise) {
+        int offset = isSunrise ? 6 : 18;
+        longitudeHour = round4(dayOfYear + round4((offset - baseLongitudeHour) / 24));
+
+        //mean anomaly, M
+        double meanAnomaly = round4(round4(0.9856 * longitudeHour) - 3.289);
+        double meanAnomalyRad = round4(meanAnomaly * DEG2RAD);
+
+        //true longitude, L, adjusted to fit in the range [0-360]
+        double trueLongitude = meanAnomaly + round4(1.916 * Math.sin(meanAnomalyRad))
+                + round4(0.020 * Math.sin(2 * meanAnomalyRad)) + 282.634;
+        if (trueLongitude > 360) {
+            trueLongitude -= 360;
+        }
+        trueLongitude = round4(trueLongitude);
+        sunTrueLong = trueLongitude;
+        double trueLongitudeRad = round4(trueLongitude * DEG2RAD);
+
+        //declination
+        sinSunDeclination = round4(Math.sin(trueLongitudeRad) * 0.39782);
+        cosSunDeclination = round4(Math.cos(Math.asin(sinSunDeclination)));
+
+        //right ascension, RA, turned into hours
+        double tanRa = round4(round4(Math.tan(trueLongitudeRad) * RAD2DEG) * 0.91764);
+        double ra = round4(Math.atan(round4(tanRa * DEG2RAD)) * RAD2DEG);
+        //moved next to L, tan has a period of 180 degrees. Matching the quadrants of L and RA put it
+        //6 hours off when L in radians was rounded across 90 or 270 degrees
+        ra += 180 * Math.rint((trueLongitude - ra) / 180);
+        rightAscension = round4(ra / 15);
+    }
+
+    /**
+     * Computes the local time of the event from the terms of {@link #computeSunTerms(int, boolean)}.
+     *
+     * @return the local time in decimal hours, or NaN if the sun does not reach the zenith.
+     */
+    private double computeLocalTime(double cosZenith, boolean isSunrise, double localOffset) {
+        double cosineSunLocalHour = round4((cosZenith - (sinSunDeclination * sinLatitude))
+                / (cosSunDeclination * cosLatitude));
+        lastCosineSunLocalHour = cosineSunLocalHour;
+        if ((cosineSunLocalHour < -1.0) || (cosineSunLocalHour > 1.0)) {
+            return Double.NaN;
+        }
+
+        double sunLocalHour = round4(round4(Math.acos(cosineSunLocalHour)) * RAD2DEG);
+        if (isSunrise) {
+            sunLocalHour = 360 - sunLocalHour;
+        }
+        sunLocalHour = round4(sunLocalHour / 15);
+
+        double localMeanTime = sunLocalHour + rightAscension - (longitudeHour * 0.06571) - 6.622;
+        if (localMeanTime < 0) {
+            localMeanTime += 24;
+        } else if (localMeanTime > 24) {
+            localMeanTime -= 24;
+        }
+        localMeanTime = round4(localMeanTime);
+
+        double localTime = localMeanTime - baseLongitudeHour + localOffset;
+        if (localTime > 24.0) {
+            localTime -= 24;
+        }
+        return localTime;
+    }
+
+    private static double cosZenith(Zenith zenith) {
+        return Math.cos(round4(zenith.degrees() * DEG2RAD));
+    }
+
+    /**
+     * Rounds half even to 4 decimals, the scale of the steps of the BigDecimal implementation.
+     */
+    private static double round4(double value) {
+        return Math.rint(value * SCALE) / SCALE;
+    }
+
+    /**
+     * @return the UTC offset of the date, daylight saving included, in hours. Both as the zone has
+     *         them, e.g. 5:45 in Kathmandu and half an hour of daylight saving on Lord Howe Island.
+     */
+    private double getLocalOffset(Calendar date) {
+        return (date.get(Calendar.ZONE_OFFSET) + date.get(Calendar.DST_OFFSET)) / MILLIS_PER_HOUR;
+    }
+
+    /**
+     * Returns the local rise/set time in the form HH:MM.
+     *
+     * @param localTime
+     *            local rise/set time in decimal hours, NaN if there is none.
+     * @return <code>String</code> representation of the local rise/set time in HH:MM format.
+     */
+    private String getLocalTimeAsString(double localTime) {
+        if (Double.isNaN(localTime)) {
+            return "99:99";
+        }
+        int minuteOfDay = SolarEvents.toLocalMinuteOfDay(localTime);
+        int hour = minuteOfDay / 60;
+        int minutes = minuteOfDay % 60;
+
+        String minuteString = minutes < 10 ? "0" + minutes : String.valueOf(minutes);
+        String hourString = (hour < 10) ? "0" + hour : String.valueOf(hour);
+        return hourString + ":" + minuteString;
+    }
+
+    /**
+     * Returns the local rise/set time as a calendar.
+     *
+     * @param localTime
+     *            local rise/set time in decimal hours, NaN if there is none.
+     * @return <code>Calendar</code> representation of the local time as a calendar, or null for none.
+     */
+    protected Calendar getLocalTimeAsCalendar(double localTime, Calendar date) {
+        if (Double.isNaN(localTime)) {
+            return null;
+        }
+
+        // Create a clone of the input calendar so we get locale/timezone information.
+        Calendar resultTime = (Calendar) date.clone();
+
+        if (localTime < 0) {
+            resultTime.add(Calendar.HOUR_OF_DAY, -24);
+        }
+        int minuteOfDay = SolarEvents.toLocalMinuteOfDay(localTime);
+
+        // Set the local time
+        resultTime.set(Calendar.HOUR_OF_DAY, minuteOfDay / 60);
+        resultTime.set(Calendar.MINUTE, minuteOfDay % 60);
+        resultTime.set(Calendar.SECOND, 0);
+        resultTime.set(Calendar.MILLISECOND, 0);
+        resultTime.setTimeZone(date.getTimeZone());
+
+        return resultTime;
+    }
+}
@@ -16,14 +16,12 @@
 
 package com.marcouberti.f35watchface.utils.sunrisesunset.dto;
 
-import java.math.BigDecimal;
-
 /**
  * Simple VO class to store latitude/longitude information.
  */
 public class Location {
-    private BigDecimal latitude;
-    private BigDecimal longitude;
+    private double latitude;
+    private double longitude;
 
     /**
      * Creates a new instance of <code>Location</code> with the given parameters.
@@ -34,8 +32,8 @@ public class Location {
      *            the longitude, in degrees of this location. East longitude is positive, west negative.
      */
     public Location(String latitude, String longitude) {
-        this.latitude = new BigDecimal(latitude);
-        this.longitude = new BigDecimal(longitude);
+        this.latitude = Double.parseDouble(latitude);
+        this.longitude = Double.parseDouble(longitude);
     }
 
     /**
@@ -47,21 +45,21 @@ public class Location {
      *            the longitude, in degrees, of this location. East longitude is positive, east negative.
      */
     public Location(double latitude, double longitude) {
-        this.latitude = new BigDecimal(latitude);
-        this.longitude = new BigDecimal(longitude);
+        this.latitude = latitude;
+        this.longitude = longitude;
     }
 
     /**
      * @return the latitude
      */
-    public BigDecimal getLatitude() {
+    public double getLatitude() {
         return latitude;
     }
 
     /**
      * @return the longitude
      */
-    public BigDecimal getLongitude() {
+    public double getLongitude() {
         return longitude;
     }
 
@@ -74,8 +72,8 @@ public class Location {
      *            the longitude, in degrees, of this location. East longitude is positive, east negative.
      */
     public void setLocation(String latitude, String longitude) {
-        this.latitude = new BigDecimal(latitude);
-        this.longitude = new BigDecimal(longitude);
+        this.latitude = Double.parseDouble(latitude);
+        this.longitude = Double.parseDouble(longitude);
     }
 
     /**
@@ -87,7 +85,7 @@ public class Location {
      *            the longitude, in degrees, of this location. East longitude is positive, east negative.
      */
     public void setLocation(double latitude, double longitude) {
-        this.latitude = new BigDecimal(latitude);
-        this.longitude = new BigDecimal(longitude);
+        this.latitude = latitude;
+        this.longitude = longitude;
     }
 }
@@ -0,0 +1,86 @@
+package com.marcouberti.f35watchface.utils.sunrisesunset.dto;
+
+/**
+ * The eight solar events of a day (astronomical, nautical, civil and official sunrise and
+ * sunset), as local times in decimal hours. Instances are meant to be reused, they are filled by
+ * {@code SolarEventCalculator#computeEvents}.
+ */
+public class SolarEvents {
+
+    public static final int ASTRONOMICAL_SUNRISE = 0;
+    public static final int NAUTICAL_SUNRISE = 1;
+    public static final int CIVIL_SUNRISE = 2;
+    public static final int OFFICIAL_SUNRISE = 3;
+    public static final int OFFICIAL_SUNSET = 4;
+    public static final int CIVIL_SUNSET = 5;
+    public static final int NAUTICAL_SUNSET = 6;
+    public static final int ASTRONOMICAL_SUNSET = 7;
+    public static final int COUNT = 8;
+
+    private final double[] localTimes = new double[COUNT];
+    private final boolean[] sunAlwaysUp = new boolean[COUNT];
+    private int year;
+    private int dayOfYear;
+
+    /**
+     * @param event one of the event constants
+     * @return the local time of the event in decimal hours, negative if it falls on the previous
+     *         day, or {@link Double#NaN} if the event does not happen on this day
+     */
+    public double getLocalTime(int event) {
+        return localTimes[event];
+    }
+
+    /**
+     * @return false if the sun does not reach the event's zenith on this day
+     */
+    public boolean hasEvent(int event) {
+        return !Double.isNaN(localTimes[event]);
+    }
+
+    /**
+     * @return true if the event does not happen because the sun stays above its zenith all day
+     *         long, false if it happens or the sun stays below
+     */
+    public boolean isSunAlwaysUp(int event) {
+        return sunAlwaysUp[event];
+    }
+
+    /**
+     * @return the minutes since local midnight of the event rounded to the minute, as shown in
+     *         HH:MM form, or -1 if the event does not happen
+     */
+    public int getLocalMinuteOfDay(int event) {
+        return toLocalMinuteOfDay(localTimes[event]);
+    }
+
+    /**
+     * @param localTime local time in decimal hours, negative if it falls on the previous day
+     * @return the minutes since local midnight rounded half even to the minute, or -1 for NaN
+     */
+    public static int toLocalMinuteOfDay(double localTime) {
+        if (Double.isNaN(localTime)) return -1;
+        if (localTime < 0) localTime += 24;
+        //to a ten thousandth first: the times have 4 decimals, a half minute must stay a tie
+        double minutes = Math.rint(localTime * 600000) / 10000;
+        return (int) Math.rint(minutes) % (24 * 60);
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    public int getDayOfYear() {
+        return dayOfYear;
+    }
+
+    public void set(int event, double localTime, boolean sunAlwaysUp) {
+        localTimes[event] = localTime;
+        this.sunAlwaysUp[event] = sunAlwaysUp;
+    }
+
+    public void setDate(int year, int dayOfYear) {
+        this.year = year;
+        this.dayOfYear = dayOfYear;
+    }
+}
@@ -0,0 +1,110 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import java.text.DateFormatSymbols;
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Uppercase, localized date labels shown by the complications.
+ * Labels are formatted once and kept until the next local midnight, so on the draw path they are
+ * plain field reads. Call {@link #invalidate()} when the time, the time zone or the locale change.
+ */
+public final class DateLabelCache {
+
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+    private Locale locale;
+
+    private String year;
+    private String month;
+    private String monthExtended;
+    private String dayNumber;
+    private String weekDay;
+    private String[] weekDaysSymbols;
+
+    /**
+     * Makes sure the labels describe the day containing {@code now}, formatting them again only
+     * if the day or the default locale changed since the last call.
+     */
+    public void update(long now) {
+        if (now >= validFrom && now < validUntil && locale == Locale.getDefault()) return;
+        refresh(now, TimeZone.getDefault(), Locale.getDefault());
+    }
+
+    /**
+     * Drops the current labels, they are formatted again on the next {@link #update(long)}.
+     */
+    public void invalidate() {
+        validFrom = Long.MAX_VALUE;
+        validUntil = Long.MIN_VALUE;
+    }
+
+    private void refresh(long now, TimeZone timeZone, Locale locale) {
+        this.locale = locale;
+        Calendar calendar = Calendar.getInstance(timeZone, locale);
+        calendar.setTimeInMillis(now);
+
+        year = format("yyyy", calendar, timeZone, locale);
+        month = format("MMM", calendar, timeZone, locale);
+        monthExtended = format("MMMM", calendar, timeZone, locale);
+        dayNumber = format("d", calendar, timeZone, locale);
+        weekDay = format("EEE", calendar, timeZone, locale);
+
+        String[] symbols = new DateFormatSymbols(locale).getShortWeekdays();
+        for (int i = 0; i < symbols.length; i++) {
+            if (symbols[i] != null) symbols[i] = symbols[i].toUpperCase(locale);
+        }
+        weekDaysSymbols = symbols;
+
+        //valid from the local midnight of today to the next one, DST included
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        validFrom = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        validUntil = calendar.getTimeInMillis();
+    }
+
+    private static String format(String pattern, Calendar calendar, TimeZone timeZone, Locale locale) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern, locale);
+        format.setTimeZone(timeZone);
+        return format.format(calendar.getTime()).toUpperCase(locale);
+    }
+
+    public String getYear() {
+        return year;
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public String getMonthExtended() {
+        return monthExtended;
+    }
+
+    public String getDayNumber() {
+        return dayNumber;
+    }
+
+    public String getWeekDay() {
+        return weekDay;
+    }
+
+    /**
+     * @return the uppercase short week day names, indexed by {@link Calendar#DAY_OF_WEEK}
+     */
+    public String[] getWeekDaysSymbols() {
+        return weekDaysSymbols;
+    }
+
+    /**
+     * @return the first instant after the cached day, when the labels change
+     */
+    public long getValidUntil() {
+        return validUntil;
+    }
+}
@@ -0,0 +1,125 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+/**
+ * Snapshot of the clock taken once at the beginning of a frame.
+ * The hands, every complication and the stopwatch read the time from here, so the clock is read
+ * and decomposed a single time per frame and all parts of the frame agree on the same instant.
+ * The snapshot only changes through {@link #capture(long, long)}, readers only get values.
+ */
+public final class FrameTime {
+
+    private static final long MILLIS_PER_DAY = 24L * 60L * 60L * 1000L;
+    private static final double JULIAN_DATE_UNIX_EPOCH = 2440587.5;
+
+    private final Calendar calendar = Calendar.getInstance();
+
+    private long epochMillis;
+    private long elapsedRealtimeNanos;
+    private int year;
+    private int month;
+    private int dayOfMonth;
+    private int dayOfWeek;
+    private int dayOfYear;
+    private int hourOfDay;
+    private int hour;
+    private int minute;
+    private int second;
+    private int millisecond;
+
+    /**
+     * Captures a new snapshot.
+     *
+     * @param epochMillis wall clock time, as returned by {@link System#currentTimeMillis()}
+     * @param elapsedRealtimeNanos monotonic time since boot, as returned by
+     *                             {@code SystemClock.elapsedRealtimeNanos()}
+     */
+    public void capture(long epochMillis, long elapsedRealtimeNanos) {
+        this.epochMillis = epochMillis;
+        this.elapsedRealtimeNanos = elapsedRealtimeNanos;
+        calendar.setTimeInMillis(epochMillis);
+        year = calendar.get(Calendar.YEAR);
+        month = calendar.get(Calendar.MONTH);
+        dayOfMonth = calendar.get(Calendar.DAY_OF_MONTH);
+        dayOfWeek = calendar.get(Calendar.DAY_OF_WEEK);
+        dayOfYear = calendar.get(Calendar.DAY_OF_YEAR);
+        hourOfDay = calendar.get(Calendar.HOUR_OF_DAY);
+        hour = calendar.get(Calendar.HOUR);
+        minute = calendar.get(Calendar.MINUTE);
+        second = calendar.get(Calendar.SECOND);
+        millisecond = calendar.get(Calendar.MILLISECOND);
+    }
+
+    /**
+     * Sets the time zone used to decompose the next snapshots.
+     */
+    public void setTimeZone(TimeZone timeZone) {
+        calendar.setTimeZone(timeZone);
+    }
+
+    public long getEpochMillis() {
+        return epochMillis;
+    }
+
+    public long getElapsedRealtimeNanos() {
+        return elapsedRealtimeNanos;
+    }
+
+    /**
+     * @return the astronomical Julian date (UT) of the snapshot
+     */
+    public double getJulianDate() {
+        return epochMillis / (double) MILLIS_PER_DAY + JULIAN_DATE_UNIX_EPOCH;
+    }
+
+    public int getYear() {
+        return year;
+    }
+
+    /**
+     * @return the month, 0 based as in {@link Calendar#MONTH}
+     */
+    public int getMonth() {
+        return month;
+    }
+
+    public int getDayOfMonth() {
+        return dayOfMonth;
+    }
+
+    /**
+     * @return the day of the week, as in {@link Calendar#DAY_OF_WEEK}
+     */
+    public int getDayOfWeek() {
+        return dayOfWeek;
+    }
+
+    public int getDayOfYear() {
+        return dayOfYear;
+    }
+
+    public int getHourOfDay() {
+        return hourOfDay;
+    }
+
+    /**
+     * @return the hour on a 12 hours clock, 0 to 11
+     */
+    public int getHour() {
+        return hour;
+    }
+
+    public int getMinute() {
+        return minute;
+    }
+
+    public int getSecond() {
+        return second;
+    }
+
+    public int getMillisecond() {
+        return millisecond;
+    }
+}
@@ -0,0 +1,119 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import java.util.TimeZone;
+
+/**
+ * UTC offset of a time zone, resolved once and kept until its next transition.
+ * <p>
+ * The zone is looked up only when its id changes and the offset is computed again only once the
+ * time leaves the interval it holds for, so the local time of a frame is {@code now + offset}
+ * with no {@link java.util.Calendar}. The interval ends at the next DST transition or a day later,
+ * whichever comes first: zones never move twice within a day, so checking the offset a day ahead
+ * is enough to find out whether a transition is coming.
+ */
+public final class ZoneOffsetCache {
+
+    private static final long MINUTE_MILLIS = 60000L;
+    private static final long HOUR_MILLIS = 60 * MINUTE_MILLIS;
+    private static final long DAY_MILLIS = 24 * HOUR_MILLIS;
+
+    private String id;
+    private TimeZone timeZone;
+    private int offset;
+    private long validFrom = Long.MAX_VALUE;
+    private long validUntil = Long.MIN_VALUE;
+
+    /**
+     * @param id time zone id, unknown ids fall back to GMT as in {@link TimeZone#getTimeZone}
+     * @return the offset from UTC of the zone at {@code now}, in milliseconds
+     */
+    public int getOffset(String id, long now) {
+        if (timeZone == null || !id.equals(this.id)) {
+            this.id = id;
+            timeZone = TimeZone.getTimeZone(id);
+            invalidate();
+        }
+        if (now < validFrom || now >= validUntil) refresh(now);
+        return offset;
+    }
+
+    /**
+     * @return {@code now} shifted to the wall clock of the zone, see {@link #getMinute(long)} and
+     *         {@link #getHour(long)}
+     */
+    public long toLocal(String id, long now) {
+        return now + getOffset(id, now);
+    }
+
+    /**
+     * Drops the offset, it is computed again on the next call; e.g. after the tz database has been
+     * updated.
+     */
+    public void invalidate() {
+        validFrom = Long.MAX_VALUE;
+        validUntil = Long.MIN_VALUE;
+    }
+
+    /**
+     * @return the zone of the last call, null before the first one
+     */
+    public TimeZone getTimeZone() {
+        return timeZone;
+    }
+
+    /**
+     * @return when the current offset stops being valid
+     */
+    public long getValidUntil() {
+        return validUntil;
+    }
+
+    private void refresh(long now) {
+        offset = timeZone.getOffset(now);
+        validFrom = now;
+        validUntil = getValidUntil(timeZone, now, offset);
+    }
+
+    /**
+     * @param offset the offset of {@code zone} at {@code now}
+     * @return the next transition of {@code zone} if it happens within a day of {@code now},
+     *         otherwise a day later
+     */
+    static long getValidUntil(TimeZone zone, long now, int offset) {
+        long end = now + DAY_MILLIS;
+        if (zone.getOffset(end) == offset) return end;
+        //a transition within the day, bisect down to the millisecond it happens
+        long before = now;
+        long after = end;
+        while (after - before > 1) {
+            long middle = before + (after - before) / 2;
+            if (zone.getOffset(middle) == offset) {
+                before = middle;
+            } else {
+                after = middle;
+            }
+        }
+        return after;
+    }
+
+    /**
+     * @param localMillis a time shifted by {@link #toLocal(String, long)}
+     * @return the minute of the hour, 0 to 59
+     */
+    public static int getMinute(long localMillis) {
+        return (int) (floorMod(localMillis, HOUR_MILLIS) / MINUTE_MILLIS);
+    }
+
+    /**
+     * @param localMillis a time shifted by {@link #toLocal(String, long)}
+     * @return the hour of the day, 0 to 23
+     */
+    public static int getHour(long localMillis) {
+        return (int) (floorMod(localMillis, DAY_MILLIS) / HOUR_MILLIS);
+    }
+
+    private static long floorMod(long value, long modulus) {
+        long mod = value % modulus;
+        return mod < 0 ? mod + modulus : mod;
+    }
+}
@@ -0,0 +1,102 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * UTC offsets of up to {@link #MAX_ZONES} time zones, for the world clock.
+ * <p>
+ * A flat table indexed by zone: the offset and the interval it holds for, as in
+ * {@link ZoneOffsetCache}. A zone is resolved once when the list is set and its offset is
+ * computed again only once the time passes its next transition (or a day, whichever comes
+ * first), so reading the local time of any zone is an array read and an addition.
+ */
+public final class ZoneOffsetTable {
+
+    public static final int MAX_ZONES = 8;
+
+    private final String[] ids = new String[MAX_ZONES];
+    private final String[] labels = new String[MAX_ZONES];
+    private final TimeZone[] zones = new TimeZone[MAX_ZONES];
+    private final int[] offsets = new int[MAX_ZONES];
+    private final long[] validFrom = new long[MAX_ZONES];
+    private final long[] validUntil = new long[MAX_ZONES];
+    private int count;
+
+    /**
+     * Replaces the zones, ids past {@link #MAX_ZONES} are ignored. Unknown ids fall back to GMT
+     * as in {@link TimeZone#getTimeZone}.
+     *
+     * @param ids the zone ids in display order, null for none
+     */
+    public void setZones(String[] ids) {
+        count = ids == null ? 0 : Math.min(ids.length, MAX_ZONES);
+        for (int i = 0; i < MAX_ZONES; i++) {
+            if (i < count) {
+                this.ids[i] = ids[i];
+                labels[i] = toLabel(ids[i]);
+                zones[i] = TimeZone.getTimeZone(ids[i]);
+            } else {
+                this.ids[i] = null;
+                labels[i] = null;
+                zones[i] = null;
+            }
+            validFrom[i] = Long.MAX_VALUE;
+            validUntil[i] = Long.MIN_VALUE;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public String getId(int index) {
+        return ids[index];
+    }
+
+    /**
+     * @return the uppercase city of the zone id, e.g. {@code NEW YORK} for America/New_York
+     */
+    public String getLabel(int index) {
+        return labels[index];
+    }
+
+    /**
+     * @return the offset from UTC of the zone at {@code now}, in milliseconds
+     */
+    public int getOffset(int index, long now) {
+        if (now < validFrom[index] || now >= validUntil[index]) {
+            TimeZone zone = zones[index];
+            int offset = zone.getOffset(now);
+            offsets[index] = offset;
+            validFrom[index] = now;
+            validUntil[index] = ZoneOffsetCache.getValidUntil(zone, now, offset);
+        }
+        return offsets[index];
+    }
+
+    /**
+     * @return {@code now} shifted to the wall clock of the zone, see
+     *         {@link ZoneOffsetCache#getMinute(long)} and {@link ZoneOffsetCache#getHour(long)}
+     */
+    public long toLocal(int index, long now) {
+        return now + getOffset(index, now);
+    }
+
+    /**
+     * @return the earliest instant an offset of the table has to be computed again, or
+     *         {@link Long#MAX_VALUE} when there are no zones
+     */
+    public long getValidUntil() {
+        long until = Long.MAX_VALUE;
+        for (int i = 0; i < count; i++) {
+            if (validUntil[i] < until) until = validUntil[i];
+        }
+        return until;
+    }
+
+    private static String toLabel(String id) {
+        String city = id.substring(id.lastIndexOf('/') + 1);
+        return city.replace('_', ' ').toUpperCase(Locale.US);
+    }
+}
@@ -0,0 +1,57 @@
+package com.marcouberti.f35watchface.utils.location;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link LocationFix} on the wire and its distance.
+ */
+public class LocationFixTest {
+
+    private static final long TIME = 1445700000123L;
+
+    @Test
+    public void roundTrip() {
+        LocationFix fix = LocationFix.of(-33.8688197, 151.2092955, TIME);
+        LocationFix read = LocationFix.fromBytes(fix.toBytes());
+        assertEquals(fix.latitudeE7, read.latitudeE7);
+        assertEquals(fix.longitudeE7, read.longitudeE7);
+        assertEquals(TIME, read.time);
+        assertEquals(-33.8688197, read.getLatitude(), 1e-9);
+        assertEquals(151.2092955, read.getLongitude(), 1e-9);
+    }
+
+    @Test
+    public void bigEndian() {
+        LocationFix fix = new LocationFix(454600000, -91900000, -2);
+        byte[] expected = ByteBuffer.allocate(LocationFix.BYTES)
+                .putInt(454600000).putInt(-91900000).putLong(-2).array();
+        assertArrayEquals(expected, fix.toBytes());
+        assertEquals(-2, LocationFix.fromBytes(expected).time);
+    }
+
+    @Test
+    public void wrongLength() {
+        assertNull(LocationFix.fromBytes(null));
+        assertNull(LocationFix.fromBytes(new byte[LocationFix.BYTES - 1]));
+        assertNull(LocationFix.fromBytes(new byte[LocationFix.BYTES + 1]));
+    }
+
+    @Test
+    public void distance() {
+        LocationFix milan = LocationFix.of(45.4642, 9.19, TIME);
+        LocationFix rome = LocationFix.of(41.9028, 12.4964, TIME);
+        assertEquals(0, milan.distanceTo(milan), 0);
+        assertEquals(477000, milan.distanceTo(rome), 2000);
+        assertEquals(milan.distanceTo(rome), rome.distanceTo(milan), 1e-6);
+        //a hundredth of a degree of latitude
+        assertEquals(1112, milan.distanceTo(LocationFix.of(45.4742, 9.19, TIME)), 1);
+        //antipodes, half the circumference
+        assertEquals(Math.PI * 6371008.8, LocationFix.of(0, 0, TIME).distanceTo(LocationFix.of(0, 180, TIME)), 1);
+    }
+}
@@ -0,0 +1,110 @@
+package com.marcouberti.f35watchface.utils.moon;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link MoonEphemeris} against the models of {@link LegacyMoon}, every hour from 2000 to 2033.
+ * The age comes from the same moontool model and stays the same, to the whole day the complication
+ * shows. The phase angle was the Meeus series before, the two models are up to 4 degrees apart: a
+ * fraction of a pixel on the terminator of the largest moon.
+ */
+public class MoonEphemerisTest {
+
+    private static final long HOUR = 3600000L;
+    //2000-01-01 and 2034-01-01 UTC
+    private static final long START = 946684800000L;
+    private static final long END = 2019686400000L;
+
+    private static final double MAX_AGE_DIFF_DAYS = 1E-6;
+    private static final double MAX_PHASE_ANGLE_DIFF = Math.toRadians(4);
+
+    private final MoonEphemeris.Result result = new MoonEphemeris.Result();
+    private TimeZone defaultZone;
+
+    @Before
+    public void setUp() {
+        //the Meeus epoch was parsed in the default time zone
+        defaultZone = TimeZone.getDefault();
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+    }
+
+    @Test
+    public void julianDate() {
+        assertEquals(2440587.5, MoonEphemeris.toJulianDate(0), 0);
+        //J2000.0, 2000-01-01 12:00 UTC
+        assertEquals(2451545.0, MoonEphemeris.toJulianDate(946728000000L), 0);
+    }
+
+    @Test
+    public void ageMatchesMoontool() {
+        for (long t = START; t < END; t += HOUR) {
+            MoonEphemeris.compute(t, result);
+            double expected = LegacyMoon.getMoonAge(MoonEphemeris.toJulianDate(t));
+            double diff = Math.abs(expected - result.ageDays);
+            //across the new moon one is at the end of the month, the other at the start
+            diff = Math.min(diff, MoonEphemeris.SYNODIC_MONTH - diff);
+            assertTrue("at " + t + ": " + expected + " and " + result.ageDays, diff <= MAX_AGE_DIFF_DAYS);
+            if (diff == Math.abs(expected - result.ageDays)) {
+                assertEquals("days at " + t, (int) expected, (int) result.ageDays);
+            }
+        }
+    }
+
+    @Test
+    public void phaseAngleCloseToMeeus() {
+        for (long t = START; t < END; t += HOUR) {
+            MoonEphemeris.compute(t, result);
+            double expected = LegacyMoon.getPhaseAngle(t);
+            double diff = Math.abs(expected - result.phaseAngle);
+            diff = Math.min(diff, 2 * Math.PI - diff);
+            assertTrue("at " + t + ": " + expected + " and " + result.phaseAngle, diff <= MAX_PHASE_ANGLE_DIFF);
+        }
+    }
+
+    @Test
+    public void newAndFullMoon() {
+        //new moon 2015-10-13 00:06 UTC
+        MoonEphemeris.compute(1444694760000L, result);
+        assertEquals(0, result.phaseIndex);
+        assertEquals(0, result.illuminatedFraction, .01);
+        assertEquals(Math.PI, result.phaseAngle, Math.toRadians(6));
+
+        //full moon 2015-10-27 12:05 UTC
+        MoonEphemeris.compute(1445947500000L, result);
+        assertEquals(4, result.phaseIndex);
+        assertEquals(1, result.illuminatedFraction, .01);
+        assertEquals(0, Math.sin(result.phaseAngle), Math.sin(Math.toRadians(6)));
+    }
+
+    @Test
+    public void waxingUntilFull() {
+        //first quarter 2015-10-20 20:31 UTC, third quarter 2015-11-03 12:24 UTC
+        MoonEphemeris.compute(1445373060000L, result);
+        assertTrue(result.waxing);
+        assertEquals(2, result.phaseIndex);
+        MoonEphemeris.compute(1446553440000L, result);
+        assertFalse(result.waxing);
+        assertEquals(6, result.phaseIndex);
+    }
+
+    @Test
+    public void resultIsReused() {
+        assertSame(result, MoonEphemeris.compute(START, result));
+        assertSame(result, MoonEphemeris.computeJulian(2451545.0, result));
+        assertEquals(2451545.0, result.julianDate, 0);
+    }
+}
@@ -0,0 +1,76 @@
+package com.marcouberti.f35watchface.utils.stopwatch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+/**
+ * {@link LapBuffer} keeps the last {@link LapBuffer#CAPACITY} laps, numbered since the start of
+ * the run, with the lap times right across the overwritten ones.
+ */
+public class LapBufferTest {
+
+    private static final long SECOND = 1000000000L;
+
+    private final LapBuffer laps = new LapBuffer();
+
+    @Test
+    public void lapTimes() {
+        laps.add(10 * SECOND);
+        laps.add(25 * SECOND);
+        laps.add(27 * SECOND);
+        assertEquals(3, laps.size());
+        assertEquals(3, laps.getLapCount());
+        assertEquals(1, laps.getFirstLapNumber());
+        assertEquals(10 * SECOND, laps.getLapTime(1));
+        assertEquals(15 * SECOND, laps.getLapTime(2));
+        assertEquals(2 * SECOND, laps.getLapTime(3));
+        assertEquals(27 * SECOND, laps.getSplit(3));
+    }
+
+    @Test
+    public void overwritesTheOldest() {
+        int count = LapBuffer.CAPACITY + 5;
+        for (int i = 1; i <= count; i++) laps.add(i * SECOND);
+        assertEquals(LapBuffer.CAPACITY, laps.size());
+        assertEquals(count, laps.getLapCount());
+        assertEquals(6, laps.getFirstLapNumber());
+        assertEquals(5, laps.getDroppedCount());
+        assertEquals(5 * SECOND, laps.getDroppedSplit());
+        for (int number = 6; number <= count; number++) {
+            assertEquals(number * SECOND, laps.getSplit(number));
+            assertEquals(SECOND, laps.getLapTime(number));
+        }
+        assertNotHeld(5);
+        assertNotHeld(count + 1);
+    }
+
+    @Test
+    public void restoredDropped() {
+        laps.setDropped(70, 700 * SECOND);
+        laps.add(710 * SECOND);
+        assertEquals(71, laps.getFirstLapNumber());
+        assertEquals(71, laps.getLapCount());
+        assertEquals(10 * SECOND, laps.getLapTime(71));
+    }
+
+    @Test
+    public void clear() {
+        for (int i = 1; i <= LapBuffer.CAPACITY + 1; i++) laps.add(i * SECOND);
+        laps.clear();
+        assertEquals(0, laps.size());
+        assertEquals(0, laps.getLapCount());
+        assertEquals(1, laps.getFirstLapNumber());
+        laps.add(3 * SECOND);
+        assertEquals(3 * SECOND, laps.getLapTime(1));
+    }
+
+    private void assertNotHeld(int number) {
+        try {
+            laps.getSplit(number);
+            fail("lap " + number + " held");
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.marcouberti.f35watchface.utils.stopwatch;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link StopWatch} on a fake monotonic clock. The wall clock is not an input: setting it or
+ * changing time zone, even backwards in the middle of a run or a pause, is invisible to the
+ * elapsed time, which only moves with the monotonic nanos.
+ */
+public class StopWatchTest {
+
+    private static final long SECOND = 1000000000L;
+    //monotonic time at boot plus a while
+    private static final long BOOT = 12345 * SECOND;
+
+    private final StopWatch stopWatch = new StopWatch();
+    private final char[] chars = new char[StopWatch.FORMAT_LENGTH];
+
+    @Test
+    public void countsMonotonicTime() {
+        stopWatch.start(BOOT);
+        assertEquals(0, stopWatch.getElapsedTime(BOOT));
+        assertEquals(90000, stopWatch.getElapsedTime(BOOT + 90 * SECOND));
+        assertEquals(90500, stopWatch.getElapsedTime(BOOT + 90 * SECOND + SECOND / 2));
+    }
+
+    @Test
+    public void pauseFreezesAndResumeContinues() {
+        stopWatch.start(BOOT);
+        stopWatch.pause(BOOT + 10 * SECOND);
+        assertFalse(stopWatch.running);
+        assertTrue(stopWatch.paused);
+        //an hour paused, across any wall clock change
+        assertEquals(10000, stopWatch.getElapsedTime(BOOT + 3600 * SECOND));
+        stopWatch.resume(BOOT + 3600 * SECOND);
+        assertTrue(stopWatch.running);
+        assertEquals(15000, stopWatch.getElapsedTime(BOOT + 3605 * SECOND));
+    }
+
+    @Test
+    public void pauseAndResumeOnlyFromTheirStates() {
+        stopWatch.resume(BOOT);
+        assertFalse(stopWatch.running);
+        stopWatch.pause(BOOT);
+        assertFalse(stopWatch.paused);
+        stopWatch.start(BOOT);
+        stopWatch.resume(BOOT + SECOND);
+        assertEquals(2000, stopWatch.getElapsedTime(BOOT + 2 * SECOND));
+    }
+
+    @Test
+    public void stopResets() {
+        stopWatch.start(BOOT);
+        stopWatch.pause(BOOT + SECOND);
+        stopWatch.stop();
+        assertFalse(stopWatch.running);
+        assertFalse(stopWatch.paused);
+        assertEquals(0, stopWatch.getElapsedTime(BOOT + 2 * SECOND));
+    }
+
+    @Test
+    public void restore() {
+        //the service restarted, the log says 42 seconds elapsed now
+        stopWatch.restore(true, false, 42 * SECOND, BOOT);
+        assertEquals(50 * SECOND, stopWatch.getElapsedNanos(BOOT + 8 * SECOND));
+
+        stopWatch.restore(false, true, 42 * SECOND, BOOT);
+        assertTrue(stopWatch.paused);
+        assertEquals(42 * SECOND, stopWatch.getElapsedNanos(BOOT + 8 * SECOND));
+        stopWatch.resume(BOOT + 8 * SECOND);
+        assertEquals(43 * SECOND, stopWatch.getElapsedNanos(BOOT + 9 * SECOND));
+
+        //running wins over paused
+        stopWatch.restore(true, true, 42 * SECOND, BOOT);
+        assertFalse(stopWatch.paused);
+    }
+
+    @Test
+    public void format() {
+        assertEquals(StopWatch.FORMAT_LENGTH, StopWatch.format(0, chars));
+        assertEquals("00:00:00.000", new String(chars));
+        StopWatch.format(((1 * 60 + 2) * 60 + 3) * 1000L + 45, chars);
+        assertEquals("01:02:03.045", new String(chars));
+        StopWatch.format(100 * 3600 * 1000L + 999, chars);
+        assertEquals("00:00:00.999", new String(chars));
+        StopWatch.format(-5, chars);
+        assertEquals("00:00:00.000", new String(chars));
+    }
+
+    @Test
+    public void formatLap() {
+        char[] row = "#1 ........".toCharArray();
+        assertEquals(StopWatch.LAP_FORMAT_LENGTH, StopWatch.formatLap(61234, row, 3));
+        assertEquals("#1 01:01.2.", new String(row));
+        StopWatch.formatLap(100 * 60 * 1000L + 5999, row, 3);
+        assertEquals("#1 00:05.9.", new String(row));
+    }
+}
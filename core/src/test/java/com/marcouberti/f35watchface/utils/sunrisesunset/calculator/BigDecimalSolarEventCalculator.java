@@ -27,10 +27,15 @@ import java.util.TimeZone;
 
 
 /**
- * Parent class of the Sunrise and Sunset calculator classes.
+ * The calculator on BigDecimal as it was before {@link SolarEventCalculator}, kept as the
+ * reference of the tests and the baseline of the benchmark. Unchanged but for the location and
+ * the zenith, which held BigDecimals and hold doubles now: they are converted the way their
+ * constructors did, and for {@link #computeLocalTime(Zenith, Calendar, boolean)} exposing the
+ * unrounded result.
  */
-public class SolarEventCalculator {
-    final private Location location;
+public class BigDecimalSolarEventCalculator {
+    final private BigDecimal latitude;
+    final private BigDecimal longitude;
     final private TimeZone timeZone;
 
     /**
@@ -42,9 +47,8 @@ public class SolarEventCalculator {
      *            time zone identifier of the timezone of the location parameter. For example,
      *            "America/New_York".
      */
-    public SolarEventCalculator(Location location, String timeZoneIdentifier) {
-        this.location = location;
-        this.timeZone = TimeZone.getTimeZone(timeZoneIdentifier);
+    public BigDecimalSolarEventCalculator(Location location, String timeZoneIdentifier) {
+        this(location, TimeZone.getTimeZone(timeZoneIdentifier));
     }
 
     /**
@@ -55,11 +59,19 @@ public class SolarEventCalculator {
      * @param timeZone
      *            timezone of the location parameter.
      */
-    public SolarEventCalculator(Location location, TimeZone timeZone) {
-        this.location = location;
+    public BigDecimalSolarEventCalculator(Location location, TimeZone timeZone) {
+        this.latitude = new BigDecimal(location.getLatitude());
+        this.longitude = new BigDecimal(location.getLongitude());
         this.timeZone = timeZone;
     }
 
+    /**
+     * @return the local time of the event in decimal hours, null if it does not happen
+     */
+    public BigDecimal computeLocalTime(Zenith solarZenith, Calendar date, boolean isSunrise) {
+        return computeSolarEventTime(solarZenith, date, isSunrise);
+    }
+
     /**
      * Computes the sunrise time for the given zenith at the given date.
      *
@@ -138,7 +150,7 @@ public class SolarEventCalculator {
      *         <code>BigDecimal</code> form.
      */
     private BigDecimal getBaseLongitudeHour() {
-        return divideBy(location.getLongitude(), BigDecimal.valueOf(15));
+        return divideBy(longitude, BigDecimal.valueOf(15));
     }
 
     /**
@@ -226,10 +238,10 @@ public class SolarEventCalculator {
         BigDecimal sinSunDeclination = getSinOfSunDeclination(sunTrueLong);
         BigDecimal cosineSunDeclination = getCosineOfSunDeclination(sinSunDeclination);
 
-        BigDecimal zenithInRads = convertDegreesToRadians(zenith.degrees());
+        BigDecimal zenithInRads = convertDegreesToRadians(BigDecimal.valueOf(zenith.degrees()));
         BigDecimal cosineZenith = BigDecimal.valueOf(Math.cos(zenithInRads.doubleValue()));
-        BigDecimal sinLatitude = BigDecimal.valueOf(Math.sin(convertDegreesToRadians(location.getLatitude()).doubleValue()));
-        BigDecimal cosLatitude = BigDecimal.valueOf(Math.cos(convertDegreesToRadians(location.getLatitude()).doubleValue()));
+        BigDecimal sinLatitude = BigDecimal.valueOf(Math.sin(convertDegreesToRadians(latitude).doubleValue()));
+        BigDecimal cosLatitude = BigDecimal.valueOf(Math.cos(convertDegreesToRadians(latitude).doubleValue()));
 
         BigDecimal sinDeclinationTimesSinLat = sinSunDeclination.multiply(sinLatitude);
         BigDecimal dividend = cosineZenith.subtract(sinDeclinationTimesSinLat);
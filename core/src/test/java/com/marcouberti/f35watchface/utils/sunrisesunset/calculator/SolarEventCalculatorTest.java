@@ -0,0 +1,242 @@
+package com.marcouberti.f35watchface.utils.sunrisesunset.calculator;
+
+import com.marcouberti.f35watchface.utils.sunrisesunset.Zenith;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.Location;
+import com.marcouberti.f35watchface.utils.sunrisesunset.dto.SolarEvents;
+
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.List;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link SolarEventCalculator} against the {@link BigDecimalSolarEventCalculator} it replaced,
+ * every day from 2015 to 2017, all the events, from the equator to the polar circles and around
+ * the date line.
+ * <p>
+ * Two mistakes of the BigDecimal implementation are not carried over, its times are moved by
+ * exactly what they cost: the UTC offset, rounded to 2 significant digits with always an hour of
+ * daylight saving, and the right ascension a quadrant off on the days listed in
+ * {@link #QUADRANT_OFF}. The times of the zones and the days they affect are checked on their own
+ * against the expected local times.
+ */
+public class SolarEventCalculatorTest {
+
+    private static final double MAX_DIFF_SECONDS = 1;
+    private static final double SECONDS_PER_HOUR = 3600;
+
+    /**
+     * Sunrises or sunsets the BigDecimal implementation put 6 hours early, for all the zeniths: it
+     * matched the right ascension to the quadrant of the true longitude of the sun, which its
+     * rounding in radians moved across 90 or 270 degrees at these equinoxes and solstices.
+     */
+    private static final List<String> QUADRANT_OFF = Arrays.asList(
+            "Australia/Adelaide 2015-09-23 set",
+            "Australia/Adelaide 2016-09-22 set",
+            "Australia/Adelaide 2017-09-23 set",
+            "America/Argentina/Ushuaia 2015-03-20 set",
+            "America/Argentina/Ushuaia 2016-03-19 set",
+            "America/Argentina/Ushuaia 2017-03-20 set",
+            "Europe/Oslo 2015-12-22 rise",
+            "Europe/Oslo 2016-12-21 rise",
+            "Europe/Oslo 2017-12-22 rise");
+    /**
+     * All the zeniths of the days above but the official sunrise, Tromso is in its polar night.
+     */
+    private static final int QUADRANT_OFF_EVENTS = 6 * 4 + 3 * 3;
+
+    private static final Object[][] LOCATIONS = {
+            {45.46, 9.19, "Europe/Rome"},
+            {40.71, -74.01, "America/New_York"},
+            {34.05, -118.24, "America/Los_Angeles"},
+            {-33.87, 151.21, "Australia/Sydney"},
+            {1.35, 103.82, "Asia/Singapore"},
+            {-0.18, -78.47, "America/Guayaquil"},
+            {27.72, 85.32, "Asia/Kathmandu"},
+            {-34.93, 138.6, "Australia/Adelaide"},
+            {-31.55, 159.08, "Australia/Lord_Howe"},
+            {64.13, -21.9, "Atlantic/Reykjavik"},
+            {-54.8, -68.3, "America/Argentina/Ushuaia"},
+            {69.65, 18.96, "Europe/Oslo"},
+            {78.22, 15.65, "Arctic/Longyearbyen"},
+            {-13.83, -171.76, "Pacific/Apia"},
+    };
+
+    private static final Zenith[] ZENITHS = {
+            Zenith.ASTRONOMICAL, Zenith.NAUTICAL, Zenith.CIVIL, Zenith.OFFICIAL};
+    private static final int[] SUNRISES = {
+            SolarEvents.ASTRONOMICAL_SUNRISE, SolarEvents.NAUTICAL_SUNRISE,
+            SolarEvents.CIVIL_SUNRISE, SolarEvents.OFFICIAL_SUNRISE};
+    private static final int[] SUNSETS = {
+            SolarEvents.ASTRONOMICAL_SUNSET, SolarEvents.NAUTICAL_SUNSET,
+            SolarEvents.CIVIL_SUNSET, SolarEvents.OFFICIAL_SUNSET};
+
+    @Test
+    public void eventsMatchBigDecimal() {
+        SolarEvents events = new SolarEvents();
+        int compared = 0;
+        int quadrantOff = 0;
+        for (Object[] row : LOCATIONS) {
+            TimeZone timeZone = TimeZone.getTimeZone((String) row[2]);
+            Location location = new Location((Double) row[0], (Double) row[1]);
+            SolarEventCalculator calculator = new SolarEventCalculator(location, timeZone);
+            BigDecimalSolarEventCalculator reference = new BigDecimalSolarEventCalculator(location, timeZone);
+            for (Calendar day = firstDay(timeZone); day.get(Calendar.YEAR) <= 2017; day.add(Calendar.DAY_OF_YEAR, 1)) {
+                calculator.computeEvents(day, events);
+                String at = row[2] + " " + String.format(Locale.US, "%tF", day);
+                double offsetFix = offsetFix(day);
+                double sunriseFix = QUADRANT_OFF.contains(at + " rise") ? offsetFix + 6 : offsetFix;
+                double sunsetFix = QUADRANT_OFF.contains(at + " set") ? offsetFix + 6 : offsetFix;
+                for (int i = 0; i < ZENITHS.length; i++) {
+                    int sunrise = assertEvent(at, events.getLocalTime(SUNRISES[i]),
+                            reference.computeLocalTime(ZENITHS[i], day, true), sunriseFix);
+                    int sunset = assertEvent(at, events.getLocalTime(SUNSETS[i]),
+                            reference.computeLocalTime(ZENITHS[i], day, false), sunsetFix);
+                    compared += sunrise + sunset;
+                    if (sunriseFix != offsetFix) quadrantOff += sunrise;
+                    if (sunsetFix != offsetFix) quadrantOff += sunset;
+                }
+            }
+        }
+        //the polar days and nights leave out a part of the events
+        assertTrue(String.valueOf(compared), compared > LOCATIONS.length * 3 * 365 * 8 * 9 / 10);
+        assertEquals(QUADRANT_OFF_EVENTS, quadrantOff);
+    }
+
+    @Test
+    public void rightAscensionNextToTheTrueLongitude() {
+        //Tromso on the winter solstice, the true longitude is 269.9992 degrees
+        assertEvents("Europe/Oslo", 69.65, 18.96, 2015, Calendar.DECEMBER, 22,
+                "06:29", "07:47", "09:32", null, null, "13:54", "15:38", "16:57");
+        //Ushuaia and Adelaide on the March and September equinoxes
+        assertEvents("America/Argentina/Ushuaia", -54.8, -68.3, 2015, Calendar.MARCH, 20,
+                "05:30", "06:15", "06:58", "07:34", "19:46", "20:22", "21:05", "21:50");
+        assertEvents("Australia/Adelaide", -34.93, 138.6, 2015, Calendar.SEPTEMBER, 23,
+                "04:40", "05:10", "05:40", "06:05", "18:12", "18:37", "19:07", "19:37");
+    }
+
+    @Test
+    public void offsetOfTheZone() {
+        //5:45, not rounded to 5.8 hours
+        assertEvents("Asia/Kathmandu", 27.72, 85.32, 2015, Calendar.MARCH, 1,
+                null, "05:38", null, "06:29", "18:04", null, null, null);
+        //10:30 and half an hour of daylight saving, not 11 hours and a whole one
+        assertEvents("Australia/Lord_Howe", -31.55, 159.08, 2015, Calendar.JUNE, 1,
+                null, "05:48", null, "06:44", "16:58", null, null, null);
+        assertEvents("Australia/Lord_Howe", -31.55, 159.08, 2015, Calendar.JANUARY, 1,
+                null, "04:20", null, "05:22", "19:32", null, null, null);
+    }
+
+    /**
+     * The strings of the days the BigDecimal implementation got right.
+     */
+    @Test
+    public void stringsMatchBigDecimal() {
+        int compared = 0;
+        for (Object[] row : LOCATIONS) {
+            TimeZone timeZone = TimeZone.getTimeZone((String) row[2]);
+            Location location = new Location((Double) row[0], (Double) row[1]);
+            SolarEventCalculator calculator = new SolarEventCalculator(location, timeZone);
+            BigDecimalSolarEventCalculator reference = new BigDecimalSolarEventCalculator(location, timeZone);
+            for (Calendar day = firstDay(timeZone); day.get(Calendar.YEAR) <= 2015; day.add(Calendar.DAY_OF_YEAR, 1)) {
+                String at = row[2] + " " + String.format(Locale.US, "%tF", day);
+                if (offsetFix(day) != 0 || QUADRANT_OFF.contains(at + " rise")
+                        || QUADRANT_OFF.contains(at + " set")) continue;
+                compared++;
+                assertEquals(at, reference.computeSunriseTime(Zenith.OFFICIAL, day),
+                        calculator.computeSunriseTime(Zenith.OFFICIAL, day));
+                assertEquals(at, reference.computeSunsetTime(Zenith.OFFICIAL, day),
+                        calculator.computeSunsetTime(Zenith.OFFICIAL, day));
+                assertEquals(at, reference.computeSunriseTime(Zenith.CIVIL, day),
+                        calculator.computeSunriseTime(Zenith.CIVIL, day));
+            }
+        }
+        //all but Kathmandu, Lord Howe Island and the 3 days a quadrant off in 2015
+        assertEquals((LOCATIONS.length - 2) * 365 - 3, compared);
+    }
+
+    @Test
+    public void batchMatchesSingleDays() {
+        TimeZone timeZone = TimeZone.getTimeZone("Europe/Rome");
+        SolarEventCalculator calculator = new SolarEventCalculator(new Location(45.46, 9.19), timeZone);
+        SolarEvents[] week = new SolarEvents[7];
+        for (int i = 0; i < week.length; i++) week[i] = new SolarEvents();
+        Calendar day = firstDay(timeZone);
+        //across the end of DST
+        day.set(2015, Calendar.OCTOBER, 22);
+        calculator.computeEvents(day, week);
+        assertEquals(22, day.get(Calendar.DAY_OF_MONTH));
+        SolarEvents events = new SolarEvents();
+        for (SolarEvents expected : week) {
+            calculator.computeEvents(day, events);
+            assertEquals(events.getDayOfYear(), expected.getDayOfYear());
+            for (int event = 0; event < SolarEvents.COUNT; event++) {
+                assertEquals(events.getLocalTime(event), expected.getLocalTime(event), 0);
+            }
+            day.add(Calendar.DAY_OF_YEAR, 1);
+        }
+    }
+
+    /**
+     * Checks the eight events of a day against their local times, null for an event that does not
+     * happen.
+     */
+    private static void assertEvents(String zone, double latitude, double longitude,
+                                     int year, int month, int dayOfMonth, String... expected) {
+        TimeZone timeZone = TimeZone.getTimeZone(zone);
+        Calendar day = firstDay(timeZone);
+        day.set(year, month, dayOfMonth);
+        SolarEvents events = new SolarEventCalculator(new Location(latitude, longitude), timeZone)
+                .computeEvents(day, new SolarEvents());
+        for (int event = 0; event < SolarEvents.COUNT; event++) {
+            if (expected[event] == null) continue;
+            assertEquals(zone + " " + event, expected[event], toString(events.getLocalTime(event)));
+        }
+    }
+
+    /**
+     * @param fix hours the event is after the reference
+     * @return 1 if the event was compared, 0 if it does not happen
+     */
+    private static int assertEvent(String at, double localTime, BigDecimal expected, double fix) {
+        if (expected == null) {
+            assertTrue(at + ": " + localTime, Double.isNaN(localTime));
+            return 0;
+        }
+        double diff = (localTime - expected.doubleValue() - fix) * SECONDS_PER_HOUR;
+        //a fix can move the reference across midnight
+        diff -= Math.rint(diff / (24 * SECONDS_PER_HOUR)) * 24 * SECONDS_PER_HOUR;
+        assertTrue(at + ": " + expected + " and " + localTime, Math.abs(diff) <= MAX_DIFF_SECONDS);
+        return 1;
+    }
+
+    /**
+     * @return the UTC offset of the zone minus the one of the BigDecimal implementation, in hours
+     */
+    private static double offsetFix(Calendar day) {
+        int zoneOffset = day.get(Calendar.ZONE_OFFSET);
+        double before = new BigDecimal(zoneOffset).divide(new BigDecimal(3600000), new MathContext(2)).doubleValue();
+        if (day.getTimeZone().inDaylightTime(day.getTime())) before += 1;
+        return (zoneOffset + day.get(Calendar.DST_OFFSET)) / SECONDS_PER_HOUR / 1000 - before;
+    }
+
+    private static String toString(double localTime) {
+        int minuteOfDay = SolarEvents.toLocalMinuteOfDay(localTime);
+        return String.format(Locale.US, "%02d:%02d", minuteOfDay / 60, minuteOfDay % 60);
+    }
+
+    private static Calendar firstDay(TimeZone timeZone) {
+        Calendar day = Calendar.getInstance(timeZone);
+        day.clear();
+        day.set(2015, Calendar.JANUARY, 1, 12, 0);
+        return day;
+    }
+}
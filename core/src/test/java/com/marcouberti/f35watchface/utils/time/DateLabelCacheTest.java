@@ -0,0 +1,133 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link DateLabelCache} driven by a fake clock: the labels change at the local midnight, on
+ * the 23 and 25 hours days as well, and with the default locale, while the default time zone is
+ * only read again after an invalidation, as the face does on the time zone broadcast.
+ */
+public class DateLabelCacheTest {
+
+    private static final long HOUR = 3600000L;
+    private static final TimeZone ROME = TimeZone.getTimeZone("Europe/Rome");
+
+    private final DateLabelCache cache = new DateLabelCache();
+    private TimeZone defaultZone;
+    private Locale defaultLocale;
+
+    @Before
+    public void setUp() {
+        defaultZone = TimeZone.getDefault();
+        defaultLocale = Locale.getDefault();
+        TimeZone.setDefault(ROME);
+        Locale.setDefault(Locale.US);
+    }
+
+    @After
+    public void tearDown() {
+        TimeZone.setDefault(defaultZone);
+        Locale.setDefault(defaultLocale);
+    }
+
+    @Test
+    public void labels() {
+        cache.update(at(ROME, 2015, Calendar.OCTOBER, 24, 15, 30));
+        assertEquals("2015", cache.getYear());
+        assertEquals("OCT", cache.getMonth());
+        assertEquals("OCTOBER", cache.getMonthExtended());
+        assertEquals("24", cache.getDayNumber());
+        assertEquals("SAT", cache.getWeekDay());
+        assertEquals("SUN", cache.getWeekDaysSymbols()[Calendar.SUNDAY]);
+        assertEquals("SAT", cache.getWeekDaysSymbols()[Calendar.SATURDAY]);
+    }
+
+    @Test
+    public void sameLabelsWithinTheDay() {
+        long midnight = at(ROME, 2015, Calendar.OCTOBER, 24, 0, 0);
+        cache.update(midnight);
+        String weekDay = cache.getWeekDay();
+        for (long now = midnight; now < midnight + 24 * HOUR; now += 60000) {
+            cache.update(now);
+            assertSame(weekDay, cache.getWeekDay());
+        }
+        assertEquals(midnight + 24 * HOUR, cache.getValidUntil());
+    }
+
+    @Test
+    public void changesAtMidnight() {
+        long midnight = at(ROME, 2015, Calendar.OCTOBER, 24, 0, 0);
+        cache.update(midnight - 1);
+        assertEquals("23", cache.getDayNumber());
+        assertEquals("FRI", cache.getWeekDay());
+        assertEquals(midnight, cache.getValidUntil());
+        cache.update(midnight);
+        assertEquals("24", cache.getDayNumber());
+        assertEquals("SAT", cache.getWeekDay());
+    }
+
+    @Test
+    public void longDayEndingDaylightSavingTime() {
+        long midnight = at(ROME, 2015, Calendar.OCTOBER, 25, 0, 0);
+        cache.update(midnight + 12 * HOUR);
+        assertEquals("25", cache.getDayNumber());
+        assertEquals(midnight + 25 * HOUR, cache.getValidUntil());
+        cache.update(midnight + 24 * HOUR + 30 * 60000);
+        assertEquals("25", cache.getDayNumber());
+        cache.update(midnight + 25 * HOUR);
+        assertEquals("26", cache.getDayNumber());
+    }
+
+    @Test
+    public void shortDayStartingDaylightSavingTime() {
+        long midnight = at(ROME, 2015, Calendar.MARCH, 29, 0, 0);
+        cache.update(midnight + 12 * HOUR);
+        assertEquals("29", cache.getDayNumber());
+        assertEquals(midnight + 23 * HOUR, cache.getValidUntil());
+        cache.update(midnight + 23 * HOUR);
+        assertEquals("30", cache.getDayNumber());
+    }
+
+    @Test
+    public void followsTheLocale() {
+        long now = at(ROME, 2015, Calendar.OCTOBER, 24, 15, 30);
+        cache.update(now);
+        String[] symbols = cache.getWeekDaysSymbols();
+        Locale.setDefault(Locale.ITALY);
+        cache.update(now);
+        assertEquals("OTTOBRE", cache.getMonthExtended());
+        assertEquals("SAB", cache.getWeekDay());
+        assertNotSame(symbols, cache.getWeekDaysSymbols());
+    }
+
+    @Test
+    public void timeZoneAppliedOnInvalidate() {
+        long now = at(ROME, 2015, Calendar.OCTOBER, 24, 15, 30);
+        cache.update(now);
+        TimeZone.setDefault(TimeZone.getTimeZone("Pacific/Auckland"));
+        cache.update(now);
+        assertEquals("24", cache.getDayNumber());
+        cache.invalidate();
+        cache.update(now);
+        //02:30 of the next day in Auckland
+        assertEquals("25", cache.getDayNumber());
+        assertEquals("SUN", cache.getWeekDay());
+    }
+
+    private static long at(TimeZone zone, int year, int month, int day, int hour, int minute) {
+        Calendar calendar = Calendar.getInstance(zone, Locale.US);
+        calendar.clear();
+        calendar.set(year, month, day, hour, minute);
+        return calendar.getTimeInMillis();
+    }
+}
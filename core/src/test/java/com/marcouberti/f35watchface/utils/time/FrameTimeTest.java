@@ -0,0 +1,58 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * {@link FrameTime} decomposes the captured instant in its time zone and keeps it until the next
+ * capture.
+ */
+public class FrameTimeTest {
+
+    //2015-10-24 15:20:00.250 UTC, a Saturday
+    private static final long NOW = 1445700000250L;
+
+    private final FrameTime frameTime = new FrameTime();
+
+    @Test
+    public void julianDate() {
+        frameTime.capture(0, 0);
+        assertEquals(2440587.5, frameTime.getJulianDate(), 0);
+        frameTime.capture(946728000000L, 0);
+        assertEquals(2451545.0, frameTime.getJulianDate(), 0);
+    }
+
+    @Test
+    public void fields() {
+        frameTime.setTimeZone(TimeZone.getTimeZone("Europe/Rome"));
+        frameTime.capture(NOW, 123456789L);
+        assertEquals(NOW, frameTime.getEpochMillis());
+        assertEquals(123456789L, frameTime.getElapsedRealtimeNanos());
+        assertEquals(2015, frameTime.getYear());
+        assertEquals(Calendar.OCTOBER, frameTime.getMonth());
+        assertEquals(24, frameTime.getDayOfMonth());
+        assertEquals(Calendar.SATURDAY, frameTime.getDayOfWeek());
+        assertEquals(297, frameTime.getDayOfYear());
+        assertEquals(17, frameTime.getHourOfDay());
+        assertEquals(5, frameTime.getHour());
+        assertEquals(20, frameTime.getMinute());
+        assertEquals(0, frameTime.getSecond());
+        assertEquals(250, frameTime.getMillisecond());
+    }
+
+    @Test
+    public void timeZoneAppliesFromTheNextCapture() {
+        frameTime.setTimeZone(TimeZone.getTimeZone("Europe/Rome"));
+        frameTime.capture(NOW, 0);
+        frameTime.setTimeZone(TimeZone.getTimeZone("Pacific/Auckland"));
+        assertEquals(17, frameTime.getHourOfDay());
+        frameTime.capture(NOW, 0);
+        assertEquals(4, frameTime.getHourOfDay());
+        assertEquals(25, frameTime.getDayOfMonth());
+        assertEquals(Calendar.SUNDAY, frameTime.getDayOfWeek());
+    }
+}
@@ -0,0 +1,79 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import org.junit.Test;
+
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * {@link ZoneOffsetCache} gives the offset of {@link TimeZone#getOffset(long)} across the DST
+ * transitions, and holds it until the transition to the millisecond.
+ */
+public class ZoneOffsetCacheTest {
+
+    private static final long MINUTE = 60000L;
+    private static final long HOUR = 60 * MINUTE;
+    private static final String NEW_YORK = "America/New_York";
+    //2015-11-01 06:00 UTC, 2:00 EDT back to 1:00 EST
+    private static final long FALL_BACK = 1446357600000L;
+
+    private final ZoneOffsetCache cache = new ZoneOffsetCache();
+
+    @Test
+    public void matchesTheZoneAcrossTransitions() {
+        TimeZone zone = TimeZone.getTimeZone(NEW_YORK);
+        //a year by 7 minutes, both transitions in
+        long start = 1420070400000L;
+        for (long now = start; now < start + 366 * 24 * HOUR; now += 7 * MINUTE) {
+            assertEquals("at " + now, zone.getOffset(now), cache.getOffset(NEW_YORK, now));
+        }
+    }
+
+    @Test
+    public void validUntilTheTransition() {
+        assertEquals(-4 * HOUR, cache.getOffset(NEW_YORK, FALL_BACK - 3 * HOUR));
+        assertEquals(FALL_BACK, cache.getValidUntil());
+        assertEquals(-4 * HOUR, cache.getOffset(NEW_YORK, FALL_BACK - 1));
+        assertEquals(-5 * HOUR, cache.getOffset(NEW_YORK, FALL_BACK));
+        //no transition in the day, a day later
+        assertEquals(FALL_BACK + 24 * HOUR, cache.getValidUntil());
+    }
+
+    @Test
+    public void zoneChange() {
+        assertNull(cache.getTimeZone());
+        long now = FALL_BACK + 24 * HOUR;
+        assertEquals(-5 * HOUR, cache.getOffset(NEW_YORK, now));
+        TimeZone zone = cache.getTimeZone();
+        assertEquals(NEW_YORK, zone.getID());
+        cache.getOffset(NEW_YORK, now + HOUR);
+        assertSame(zone, cache.getTimeZone());
+        assertEquals(5 * HOUR + 45 * MINUTE, cache.getOffset("Asia/Kathmandu", now));
+        assertEquals(0, cache.getOffset("Not/AZone", now));
+    }
+
+    @Test
+    public void localTime() {
+        long local = cache.toLocal(NEW_YORK, FALL_BACK - 30 * MINUTE);
+        assertEquals(1, ZoneOffsetCache.getHour(local));
+        assertEquals(30, ZoneOffsetCache.getMinute(local));
+        //1:30 again, in EST
+        local = cache.toLocal(NEW_YORK, FALL_BACK + 30 * MINUTE);
+        assertEquals(1, ZoneOffsetCache.getHour(local));
+        assertEquals(30, ZoneOffsetCache.getMinute(local));
+    }
+
+    @Test
+    public void localTimeBeforeTheEpoch() {
+        Calendar calendar = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        calendar.clear();
+        calendar.set(1969, Calendar.DECEMBER, 31, 22, 15);
+        long local = calendar.getTimeInMillis();
+        assertEquals(22, ZoneOffsetCache.getHour(local));
+        assertEquals(15, ZoneOffsetCache.getMinute(local));
+    }
+}
@@ -0,0 +1,70 @@
+package com.marcouberti.f35watchface.utils.time;
+
+import org.junit.Test;
+
+import java.util.TimeZone;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ * {@link ZoneOffsetTable} holds the offset of each zone until its own next transition.
+ */
+public class ZoneOffsetTableTest {
+
+    private static final long HOUR = 3600000L;
+    private static final String[] IDS = {"America/New_York", "Europe/Rome", "Asia/Tokyo"};
+    //2015-10-25 01:00 UTC, Rome back to CET; New York a week later
+    private static final long ROME_FALL_BACK = 1445734800000L;
+
+    private final ZoneOffsetTable table = new ZoneOffsetTable();
+
+    @Test
+    public void labels() {
+        table.setZones(new String[]{"America/New_York", "America/Argentina/Buenos_Aires", "UTC"});
+        assertEquals(3, table.getCount());
+        assertEquals("NEW YORK", table.getLabel(0));
+        assertEquals("BUENOS AIRES", table.getLabel(1));
+        assertEquals("UTC", table.getLabel(2));
+        assertEquals("America/New_York", table.getId(0));
+    }
+
+    @Test
+    public void atMostMaxZones() {
+        String[] ids = new String[ZoneOffsetTable.MAX_ZONES + 2];
+        for (int i = 0; i < ids.length; i++) ids[i] = "Etc/GMT-" + i;
+        table.setZones(ids);
+        assertEquals(ZoneOffsetTable.MAX_ZONES, table.getCount());
+
+        table.setZones(IDS);
+        assertEquals(IDS.length, table.getCount());
+        assertNull(table.getId(IDS.length));
+
+        table.setZones(null);
+        assertEquals(0, table.getCount());
+        assertEquals(Long.MAX_VALUE, table.getValidUntil());
+    }
+
+    @Test
+    public void offsetsAcrossTransitions() {
+        table.setZones(IDS);
+        for (long now = ROME_FALL_BACK - 48 * HOUR; now < ROME_FALL_BACK + 10 * 24 * HOUR; now += 13 * 60000L) {
+            for (int i = 0; i < IDS.length; i++) {
+                assertEquals(IDS[i] + " at " + now, TimeZone.getTimeZone(IDS[i]).getOffset(now),
+                        table.getOffset(i, now));
+            }
+        }
+    }
+
+    @Test
+    public void validUntilTheFirstTransition() {
+        table.setZones(IDS);
+        long now = ROME_FALL_BACK - 2 * HOUR;
+        for (int i = 0; i < IDS.length; i++) table.getOffset(i, now);
+        assertEquals(ROME_FALL_BACK, table.getValidUntil());
+        assertEquals(2 * HOUR, table.getOffset(1, ROME_FALL_BACK - 1));
+        assertEquals(HOUR, table.getOffset(1, ROME_FALL_BACK));
+        //New York and Tokyo hold for a day from their computation
+        assertEquals(now + 24 * HOUR, table.getValidUntil());
+    }
+}
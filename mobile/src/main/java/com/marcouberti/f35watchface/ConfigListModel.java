@@ -15,6 +15,7 @@ public class ConfigListModel implements Serializable{
     public static int TYPE_SECOND_TIMEZONE = 3;
     public static int TYPE_RATE_THIS_ASPP = 4;
     public static int TYPE_FOOTER = 5;
+    public static int TYPE_WORLD_CLOCK = 6;
 
     private ArrayList<Item> items= new ArrayList<>();
 
@@ -41,6 +42,8 @@ public class ConfigListModel implements Serializable{
                     return TYPE_ACCENT_COLOR;
                 } else if (item instanceof SecondTimezoneItem) {
                     return TYPE_SECOND_TIMEZONE;
+                } else if (item instanceof WorldClockItem) {
+                    return TYPE_WORLD_CLOCK;
                 }else if (item instanceof RateAppItem) {
                     return TYPE_RATE_THIS_ASPP;
                 }else if (item instanceof FooterItem) {
@@ -131,5 +134,14 @@ public class ConfigListModel implements Serializable{
             super();
         }
     }
+
+    /**
+     * World clock zones item
+     */
+    public static class WorldClockItem extends Item {
+        public WorldClockItem() {
+            super();
+        }
+    }
     //endregion
 }
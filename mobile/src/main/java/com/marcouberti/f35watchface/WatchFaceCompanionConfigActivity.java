@@ -12,6 +12,7 @@ import android.support.v7.widget.LinearLayoutManager;
 import android.support.v7.widget.RecyclerView;
 import android.support.v7.widget.Toolbar;
 import android.support.wearable.companion.WatchFaceCompanion;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -19,6 +20,7 @@ import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
 import android.widget.RelativeLayout;
 import android.widget.TextView;
+import android.widget.Toast;
 
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
@@ -34,6 +36,8 @@ import com.google.android.gms.wearable.DataMapItem;
 import com.google.android.gms.wearable.Wearable;
 import com.marcouberti.f35watchface.utils.TimeZoneUtils;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 
 /**
@@ -58,6 +62,10 @@ public class WatchFaceCompanionConfigActivity extends Activity
 
     ConfigListModel listModel = new ConfigListModel();
     private String secondTimezoneId;
+    /**
+     * World clock zone ids in display order.
+     */
+    private ArrayList<String> worldClockZoneIds = new ArrayList<>();
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -88,6 +96,7 @@ public class WatchFaceCompanionConfigActivity extends Activity
         //CREATE LIST MODEL
         listModel.addItem(new ConfigListModel.GroupItem(R.string.other_configs));
         listModel.addItem(new ConfigListModel.SecondTimezoneItem());
+        listModel.addItem(new ConfigListModel.WorldClockItem());
         listModel.addItem(new ConfigListModel.GroupItem(R.string.accent_color));
         String[] availableColors = getResources().getStringArray(R.array.gradients_face_array);
         for (String colorName : availableColors) {
@@ -215,6 +224,20 @@ public class WatchFaceCompanionConfigActivity extends Activity
         }
     }
 
+    private void sendConfigUpdateMessage(String configKey, String[] values) {
+        if (mPeerId != null) {
+            DataMap config = new DataMap();
+            config.putStringArray(configKey, values);
+            byte[] rawData = config.toByteArray();
+            Wearable.MessageApi.sendMessage(mGoogleApiClient, mPeerId, WatchFaceUtil.PATH_WITH_FEATURE, rawData);
+
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Sent watch face config message: " + configKey + " -> "
+                        + Arrays.toString(values));
+            }
+        }
+    }
+
     private void updateUiForConfigDataMap(final DataMap config) {
         boolean uiUpdated = false;
         for (String configKey : config.keySet()) {
@@ -237,6 +260,14 @@ public class WatchFaceCompanionConfigActivity extends Activity
                     uiUpdated = true;
                 }
             }
+            else if(configKey.equalsIgnoreCase(WatchFaceUtil.KEY_WORLD_CLOCK_ZONES)) {
+                String[] zoneIds = config.getStringArray(configKey);
+                Log.d(TAG, "Found watch face config key: " + configKey + " -> " + Arrays.toString(zoneIds));
+
+                worldClockZoneIds.clear();
+                if (zoneIds != null) worldClockZoneIds.addAll(Arrays.asList(zoneIds));
+                uiUpdated = true;
+            }
         }
         adapter.notifyDataSetChanged();
     }
@@ -309,6 +340,60 @@ public class WatchFaceCompanionConfigActivity extends Activity
         builderSingle.show();
     }
 
+    /**
+     * Picks up to {@link WatchFaceUtil#MAX_WORLD_CLOCK_ZONES} zones, shown by the world clock in
+     * the order they are checked.
+     */
+    public void openWorldClockDialog() {
+        final String[] allZoneIds = TimeZoneUtils.getAllTimezones().toArray(new String[0]);
+        final ArrayList<String> selected = new ArrayList<>(worldClockZoneIds);
+        boolean[] checked = new boolean[allZoneIds.length];
+        for (int i = 0; i < allZoneIds.length; i++) {
+            checked[i] = selected.contains(allZoneIds[i]);
+        }
+
+        AlertDialog.Builder builder = new AlertDialog.Builder(WatchFaceCompanionConfigActivity.this);
+        builder.setTitle(getString(R.string.world_clock));
+        builder.setMultiChoiceItems(allZoneIds, checked, new DialogInterface.OnMultiChoiceClickListener() {
+            @Override
+            public void onClick(DialogInterface dialog, int which, boolean isChecked) {
+                String zoneId = allZoneIds[which];
+                if (!isChecked) {
+                    selected.remove(zoneId);
+                } else if (selected.size() < WatchFaceUtil.MAX_WORLD_CLOCK_ZONES) {
+                    selected.add(zoneId);
+                } else {
+                    ((AlertDialog) dialog).getListView().setItemChecked(which, false);
+                    Toast.makeText(WatchFaceCompanionConfigActivity.this,
+                            getString(R.string.world_clock_max_zones, WatchFaceUtil.MAX_WORLD_CLOCK_ZONES),
+                            Toast.LENGTH_SHORT).show();
+                }
+            }
+        });
+        builder.setNegativeButton(
+                "Cancel",
+                new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        dialog.dismiss();
+                    }
+                });
+        builder.setPositiveButton(
+                "OK",
+                new DialogInterface.OnClickListener() {
+                    @Override
+                    public void onClick(DialogInterface dialog, int which) {
+                        Log.d(TAG, "world clock zones selected = " + selected);
+                        //the whole list in one message, the watch keeps it as a single DataMap array
+                        sendConfigUpdateMessage(WatchFaceUtil.KEY_WORLD_CLOCK_ZONES,
+                                selected.toArray(new String[selected.size()]));
+                        worldClockZoneIds = selected;
+                        adapter.notifyDataSetChanged();
+                    }
+                });
+        builder.show();
+    }
+
     public void rateThisAppClick() {
         Intent intent = new Intent(Intent.ACTION_VIEW);
         intent.setData(Uri.parse("market://details?id=com.marcouberti.f35watchface"));
@@ -388,6 +473,21 @@ public class WatchFaceCompanionConfigActivity extends Activity
             }
         }
 
+        public class WorldClockViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener{
+            public RelativeLayout itemContainer;
+            public TextView zonesView;
+            public WorldClockViewHolder(RelativeLayout v) {
+                super(v);
+                v.setOnClickListener(this);
+                itemContainer = v;
+                zonesView = (TextView)v.findViewById(R.id.zones);
+            }
+            @Override
+            public void onClick(View view) {
+                openWorldClockDialog();
+            }
+        }
+
         public class RateAppViewHolder extends RecyclerView.ViewHolder implements View.OnClickListener{
             // each data item is just a string in this case
             public RelativeLayout itemContainer;
@@ -453,6 +553,11 @@ public class WatchFaceCompanionConfigActivity extends Activity
                         .inflate(R.layout.config_list_secondary_timezone, parent, false);
                 ConfigListAdapter.SecondaryTimezoneViewHolder vh = new ConfigListAdapter.SecondaryTimezoneViewHolder((RelativeLayout) v);
                 return vh;
+            }else if(viewType == ConfigListModel.TYPE_WORLD_CLOCK) {
+                View v = LayoutInflater.from(parent.getContext())
+                        .inflate(R.layout.config_list_world_clock, parent, false);
+                ConfigListAdapter.WorldClockViewHolder vh = new ConfigListAdapter.WorldClockViewHolder((RelativeLayout) v);
+                return vh;
             }else if(viewType == ConfigListModel.TYPE_RATE_THIS_ASPP) {
                 View v = LayoutInflater.from(parent.getContext())
                         .inflate(R.layout.config_list_rate_app, parent, false);
@@ -503,6 +608,13 @@ public class WatchFaceCompanionConfigActivity extends Activity
                 if(secondTimezoneId != null) {
                     holder.timezoneView.setText(secondTimezoneId);
                 }
+            }else if(vh instanceof WorldClockViewHolder) {
+                ConfigListAdapter.WorldClockViewHolder holder = (ConfigListAdapter.WorldClockViewHolder) vh;
+                if(worldClockZoneIds.isEmpty()) {
+                    holder.zonesView.setText(R.string.world_clock_no_zones);
+                }else {
+                    holder.zonesView.setText(TextUtils.join(", ", worldClockZoneIds));
+                }
             }else if(vh instanceof RateAppViewHolder) {
                 //nothing to do
             }else if(vh instanceof FooterViewHolder) {
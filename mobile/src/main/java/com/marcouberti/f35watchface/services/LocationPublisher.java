@@ -0,0 +1,229 @@
+package com.marcouberti.f35watchface.services;
+
+import android.app.AlarmManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.location.Location;
+import android.location.LocationManager;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.PutDataMapRequest;
+import com.google.android.gms.wearable.Wearable;
+import com.marcouberti.f35watchface.R;
+import com.marcouberti.f35watchface.WatchFaceUtil;
+import com.marcouberti.f35watchface.utils.location.LocationFix;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pushes the phone location to the watch as the {@link WatchFaceUtil#PATH_LOCATION} data item.
+ * <p>
+ * Once the watch has asked for the location, the phone listens to the passive provider: it gets
+ * the fixes other apps ask for and never turns a location provider on by itself. A fix is
+ * published only if it is {@code location_push_distance_meters} away from the last one published,
+ * or the last one is older than {@code location_push_max_age_minutes}. While the phone stays put
+ * an alarm pushes the location again every {@code location_push_max_age_minutes}, see
+ * {@link #refreshAsync}: the watch takes the pushes as fresh and does not ask. The subscription
+ * and the alarm are renewed at boot and after an update of the app.
+ */
+public final class LocationPublisher {
+
+    private static final String TAG = "LocationPublisher";
+
+    /**
+     * Broadcast to {@link LocationUpdateReceiver} by the alarm of {@link #refreshAsync}.
+     */
+    static final String ACTION_REFRESH = "com.marcouberti.f35watchface.action.REFRESH_LOCATION";
+
+    private static final String PREFERENCES = "location_publisher";
+    private static final String PREF_SUBSCRIBED = "subscribed";
+    private static final String PREF_LATITUDE_E7 = "latitude_e7";
+    private static final String PREF_LONGITUDE_E7 = "longitude_e7";
+    private static final String PREF_TIME = "time";
+
+    /**
+     * The passive updates are delivered at most this often.
+     */
+    private static final long MIN_UPDATE_INTERVAL_MS = 60000;
+    private static final long CONNECT_TIMEOUT_MS = 5000;
+
+    /**
+     * Publishes one fix at a time, off the main thread.
+     */
+    private static final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    private LocationPublisher() {
+    }
+
+    /**
+     * Starts listening to the passive provider and pushing the location again while it does not
+     * change, again if already listening.
+     */
+    public static void subscribe(Context context) {
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        try {
+            locationManager.requestLocationUpdates(LocationManager.PASSIVE_PROVIDER,
+                    MIN_UPDATE_INTERVAL_MS, 0, getUpdateIntent(context));
+            getPreferences(context).edit().putBoolean(PREF_SUBSCRIBED, true).apply();
+        } catch (SecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "Cannot listen to the passive provider", e);
+            return;
+        }
+        long maxAgeMillis = getMaxAgeMillis(context);
+        AlarmManager alarmManager = (AlarmManager) context.getSystemService(Context.ALARM_SERVICE);
+        //inexact, batched with the other alarms of the phone, the watch allows for it
+        alarmManager.setInexactRepeating(AlarmManager.ELAPSED_REALTIME_WAKEUP,
+                SystemClock.elapsedRealtime() + maxAgeMillis, maxAgeMillis, getRefreshIntent(context));
+    }
+
+    /**
+     * Listens again after a reboot or an update, if the watch has ever asked for the location.
+     */
+    public static void resubscribe(Context context) {
+        if (getPreferences(context).getBoolean(PREF_SUBSCRIBED, false)) subscribe(context);
+    }
+
+    /**
+     * @return the newest location known to the phone, from any provider, or null
+     */
+    public static Location getLastKnownLocation(Context context) {
+        LocationManager locationManager = (LocationManager) context.getSystemService(Context.LOCATION_SERVICE);
+        try {
+            Location location = locationManager.getLastKnownLocation(LocationManager.PASSIVE_PROVIDER);
+            if (location == null) {
+                location = locationManager.getLastKnownLocation(LocationManager.NETWORK_PROVIDER);
+            }
+            return location;
+        } catch (SecurityException | IllegalArgumentException e) {
+            Log.w(TAG, "Cannot read the location", e);
+            return null;
+        }
+    }
+
+    /**
+     * Publishes {@code location} in the background if nothing was published yet, or it moved or
+     * aged enough since the last one published, see {@link #shouldPublish}.
+     *
+     * @param done run once done, published or not, may be null
+     */
+    public static void publishAsync(final Context context, final Location location, final Runnable done) {
+        final Context appContext = context.getApplicationContext();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    LocationFix fix = LocationFix.of(location.getLatitude(), location.getLongitude(), location.getTime());
+                    double distanceMeters = appContext.getResources().getInteger(R.integer.location_push_distance_meters);
+                    if (shouldPublish(getLastPublished(appContext), fix, distanceMeters, getMaxAgeMillis(appContext))) {
+                        publish(appContext, fix);
+                    }
+                } finally {
+                    if (done != null) done.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Pushes the location again in the background, even if it did not move: the newest fix known
+     * to the phone if it is newer than the last one published, that one otherwise. Nothing is
+     * pushed before a first location was published.
+     *
+     * @param done run once done, published or not, may be null
+     */
+    public static void refreshAsync(final Context context, final Runnable done) {
+        final Context appContext = context.getApplicationContext();
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    LocationFix last = getLastPublished(appContext);
+                    if (last == null) return;
+                    Location known = getLastKnownLocation(appContext);
+                    if (known != null && known.getTime() > last.time) {
+                        publish(appContext, LocationFix.of(known.getLatitude(), known.getLongitude(), known.getTime()));
+                    } else {
+                        publish(appContext, last);
+                    }
+                } finally {
+                    if (done != null) done.run();
+                }
+            }
+        });
+    }
+
+    /**
+     * Puts {@code fix} in the data item, stamped with the time it is published, and keeps it as
+     * the last one published.
+     */
+    private static void publish(Context context, LocationFix fix) {
+        GoogleApiClient googleApiClient = new GoogleApiClient.Builder(context)
+                .addApi(Wearable.API)
+                .build();
+        try {
+            if (!googleApiClient.blockingConnect(CONNECT_TIMEOUT_MS, TimeUnit.MILLISECONDS).isSuccess()) {
+                Log.w(TAG, "Cannot connect, location not published");
+                return;
+            }
+            PutDataMapRequest putDataMapRequest = PutDataMapRequest.create(WatchFaceUtil.PATH_LOCATION);
+            DataMap dataMap = putDataMapRequest.getDataMap();
+            dataMap.putInt(WatchFaceUtil.KEY_LATITUDE_E7, fix.latitudeE7);
+            dataMap.putInt(WatchFaceUtil.KEY_LONGITUDE_E7, fix.longitudeE7);
+            dataMap.putLong(WatchFaceUtil.KEY_LOCATION_TIME, fix.time);
+            dataMap.putLong(WatchFaceUtil.KEY_LOCATION_PUBLISHED, System.currentTimeMillis());
+            boolean published = Wearable.DataApi.putDataItem(googleApiClient, putDataMapRequest.asPutDataRequest())
+                    .await().getStatus().isSuccess();
+            if (published) {
+                getPreferences(context).edit()
+                        .putInt(PREF_LATITUDE_E7, fix.latitudeE7)
+                        .putInt(PREF_LONGITUDE_E7, fix.longitudeE7)
+                        .putLong(PREF_TIME, fix.time)
+                        .apply();
+            }
+        } finally {
+            googleApiClient.disconnect();
+        }
+    }
+
+    /**
+     * @return true if {@code fix} is {@code distanceMeters} away from {@code last}, or
+     *         {@code last} is {@code maxAgeMillis} older
+     */
+    static boolean shouldPublish(LocationFix last, LocationFix fix, double distanceMeters, long maxAgeMillis) {
+        if (last == null) return true;
+        if (fix.time - last.time >= maxAgeMillis) return true;
+        return last.distanceTo(fix) >= distanceMeters;
+    }
+
+    private static LocationFix getLastPublished(Context context) {
+        SharedPreferences preferences = getPreferences(context);
+        if (!preferences.contains(PREF_TIME)) return null;
+        return new LocationFix(preferences.getInt(PREF_LATITUDE_E7, 0),
+                preferences.getInt(PREF_LONGITUDE_E7, 0), preferences.getLong(PREF_TIME, 0));
+    }
+
+    private static long getMaxAgeMillis(Context context) {
+        return TimeUnit.MINUTES.toMillis(context.getResources().getInteger(R.integer.location_push_max_age_minutes));
+    }
+
+    private static PendingIntent getRefreshIntent(Context context) {
+        Intent intent = new Intent(context, LocationUpdateReceiver.class).setAction(ACTION_REFRESH);
+        return PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    private static PendingIntent getUpdateIntent(Context context) {
+        Intent intent = new Intent(context, LocationUpdateReceiver.class);
+        return PendingIntent.getBroadcast(context, 0, intent, PendingIntent.FLAG_UPDATE_CURRENT);
+    }
+
+    private static SharedPreferences getPreferences(Context context) {
+        return context.getSharedPreferences(PREFERENCES, Context.MODE_PRIVATE);
+    }
+}
@@ -0,0 +1,40 @@
+package com.marcouberti.f35watchface.services;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.location.Location;
+import android.location.LocationManager;
+
+/**
+ * Receives the passive location updates and the refresh alarm for {@link LocationPublisher}, and
+ * renews the subscription at boot and after an update of the app.
+ */
+public class LocationUpdateReceiver extends BroadcastReceiver {
+
+    @Override
+    public void onReceive(Context context, Intent intent) {
+        String action = intent.getAction();
+        if (Intent.ACTION_BOOT_COMPLETED.equals(action) || Intent.ACTION_MY_PACKAGE_REPLACED.equals(action)) {
+            LocationPublisher.resubscribe(context);
+            return;
+        }
+
+        if (LocationPublisher.ACTION_REFRESH.equals(action)) {
+            LocationPublisher.refreshAsync(context, finishing(goAsync()));
+            return;
+        }
+        Location location = intent.getParcelableExtra(LocationManager.KEY_LOCATION_CHANGED);
+        if (location == null) return;
+        LocationPublisher.publishAsync(context, location, finishing(goAsync()));
+    }
+
+    private static Runnable finishing(final PendingResult result) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                result.finish();
+            }
+        };
+    }
+}
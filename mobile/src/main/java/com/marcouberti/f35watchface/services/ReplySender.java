@@ -0,0 +1,218 @@
+package com.marcouberti.f35watchface.services;
+
+import java.io.PrintWriter;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Answers the requests of the watch on a single background thread, over one connection kept
+ * open between replies.
+ * <p>
+ * A request waiting for its reply absorbs the requests for the same path from the same node, so
+ * a burst costs a single reply built from the latest data. At most {@link #MAX_PENDING} replies
+ * wait at a time, further requests are dropped. The connection is opened by the first reply and
+ * closed after {@link #IDLE_TIMEOUT_MS} without replies.
+ * <p>
+ * Plain Java, the connection is behind {@link Transport}.
+ */
+public class ReplySender {
+
+    private static final int MAX_PENDING = 8;
+    private static final long IDLE_TIMEOUT_MS = 60000;
+    private static final long CONNECT_TIMEOUT_MS = 5000;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    /**
+     * Connection to the watch, used from the sender thread only.
+     */
+    public interface Transport {
+        /**
+         * Connects, waiting up to {@code timeoutMs}.
+         *
+         * @return false if the connection failed
+         */
+        boolean connect(long timeoutMs);
+
+        boolean isConnected();
+
+        /**
+         * Sends a message and waits for it to be delivered.
+         *
+         * @return false if it was not delivered
+         */
+        boolean send(String nodeId, String path, byte[] data);
+
+        void disconnect();
+    }
+
+    /**
+     * Builds the reply, on the sender thread just before sending it.
+     */
+    public interface Payload {
+        /**
+         * @return the data to send, or null to send nothing
+         */
+        byte[] get();
+    }
+
+    private final Transport transport;
+    private final ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1);
+    //node and path of the replies waiting, guarded by itself
+    private final Set<String> pending = new HashSet<>();
+    private ScheduledFuture<?> idleDisconnect;
+
+    private final Runnable disconnect = new Runnable() {
+        @Override
+        public void run() {
+            if (transport.isConnected()) {
+                transport.disconnect();
+                disconnects++;
+            }
+        }
+    };
+
+    //written on the sender thread or under pending, read by the dump
+    private volatile long requests;
+    private volatile long replies;
+    private volatile long coalesced;
+    private volatile long dropped;
+    private volatile long empty;
+    private volatile long failures;
+    private volatile long connects;
+    private volatile long disconnects;
+    private volatile long totalLatencyNanos;
+    private volatile long maxLatencyNanos;
+
+    public ReplySender(Transport transport) {
+        this.transport = transport;
+    }
+
+    /**
+     * Queues the reply to a request of {@code nodeId} on {@code path}, unless one is already
+     * waiting. May be called from any thread.
+     */
+    public void request(final String nodeId, final String path, final Payload payload) {
+        final String key = nodeId + path;
+        final long requestedAt = System.nanoTime();
+        synchronized (pending) {
+            requests++;
+            if (pending.contains(key)) {
+                coalesced++;
+                return;
+            }
+            if (pending.size() >= MAX_PENDING) {
+                dropped++;
+                return;
+            }
+            pending.add(key);
+        }
+        try {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    //from here a new request needs a new reply, it may want newer data
+                    synchronized (pending) {
+                        pending.remove(key);
+                    }
+                    reply(nodeId, path, payload, requestedAt);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            //released
+            synchronized (pending) {
+                pending.remove(key);
+                dropped++;
+            }
+        }
+    }
+
+    /**
+     * Closes the connection once the replies already queued are sent and stops the sender thread,
+     * further requests are dropped.
+     */
+    public void release() {
+        if (executor.isShutdown()) return;
+        executor.execute(new Runnable() {
+            @Override
+            public void run() {
+                //a pending idle disconnect would keep the thread alive until it is due
+                cancelIdleDisconnect();
+                disconnect.run();
+            }
+        });
+        executor.shutdown();
+    }
+
+    /**
+     * Waits for the sender thread to stop after {@link #release()}, for the tests.
+     */
+    boolean awaitTermination(long timeoutMs) throws InterruptedException {
+        return executor.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Prints the counters and the latency from request to delivered reply.
+     */
+    public void dump(PrintWriter writer) {
+        long sent = replies;
+        writer.println("Requests: " + requests
+                + ", replies: " + sent
+                + ", coalesced: " + coalesced
+                + ", dropped: " + dropped
+                + ", nothing to send: " + empty
+                + ", failed: " + failures);
+        writer.println("Connections: " + connects + ", disconnects: " + disconnects);
+        writer.println(String.format("Reply latency: mean %.1f ms, max %.1f ms",
+                sent == 0 ? 0 : totalLatencyNanos / (double) sent / NANOS_PER_MILLI,
+                maxLatencyNanos / (double) NANOS_PER_MILLI));
+    }
+
+    private void reply(String nodeId, String path, Payload payload, long requestedAt) {
+        cancelIdleDisconnect();
+        try {
+            byte[] data = payload.get();
+            if (data == null) {
+                empty++;
+                return;
+            }
+            if (!transport.isConnected()) {
+                if (!transport.connect(CONNECT_TIMEOUT_MS)) {
+                    failures++;
+                    return;
+                }
+                connects++;
+            }
+            if (!transport.send(nodeId, path, data)) {
+                failures++;
+                return;
+            }
+            long latency = System.nanoTime() - requestedAt;
+            replies++;
+            totalLatencyNanos += latency;
+            if (latency > maxLatencyNanos) maxLatencyNanos = latency;
+        } finally {
+            scheduleIdleDisconnect();
+        }
+    }
+
+    private void cancelIdleDisconnect() {
+        if (idleDisconnect != null) {
+            idleDisconnect.cancel(false);
+            idleDisconnect = null;
+            //out of the queue now rather than when it was due
+            executor.purge();
+        }
+    }
+
+    private void scheduleIdleDisconnect() {
+        try {
+            idleDisconnect = executor.schedule(disconnect, IDLE_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            //released, the disconnect is already queued
+        }
+    }
+}
@@ -1,21 +1,17 @@
 package com.marcouberti.f35watchface.services;
 
-import android.content.Context;
-import android.content.Intent;
 import android.location.Location;
-import android.location.LocationManager;
-import android.os.Bundle;
 import android.util.Log;
-import android.widget.Toast;
 
-import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.wearable.MessageEvent;
 import com.google.android.gms.wearable.Node;
 import com.google.android.gms.wearable.Wearable;
 import com.google.android.gms.wearable.WearableListenerService;
+import com.marcouberti.f35watchface.utils.location.LocationFix;
 
-import java.net.URL;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -23,11 +19,63 @@ import java.util.concurrent.TimeUnit;
  */
 public class WatchFaceWearableListenerService extends WearableListenerService {
 
-    private static GoogleApiClient googleApiClient;
-
-    private static final long CONNECTION_TIME_OUT_MS = 100;
+    private static final String TAG = "HANDSET SERVICE";
     private static final String LAST_KNOW_GPS_POSITION = "/gps_position";
-    private String nodeId;
+
+    /**
+     * Replies to the watch over a client kept connected between requests, see {@link ReplySender}.
+     */
+    private ReplySender replySender;
+
+    /**
+     * The last known location as a {@link LocationFix}, also published as the location data item
+     * if there is none yet or it moved or aged enough, like a passive update.
+     */
+    private final ReplySender.Payload lastKnownLocation = new ReplySender.Payload() {
+        @Override
+        public byte[] get() {
+            Location location = LocationPublisher.getLastKnownLocation(WatchFaceWearableListenerService.this);
+            if(location == null) return null;
+            LocationPublisher.publishAsync(WatchFaceWearableListenerService.this, location, null);
+            return LocationFix.of(location.getLatitude(), location.getLongitude(), location.getTime()).toBytes();
+        }
+    };
+
+    @Override
+    public void onCreate() {
+        super.onCreate();
+        final GoogleApiClient googleApiClient = new GoogleApiClient.Builder(getApplicationContext())
+                .addApi(Wearable.API)
+                .build();
+        replySender = new ReplySender(new ReplySender.Transport() {
+            @Override
+            public boolean connect(long timeoutMs) {
+                return googleApiClient.blockingConnect(timeoutMs, TimeUnit.MILLISECONDS).isSuccess();
+            }
+
+            @Override
+            public boolean isConnected() {
+                return googleApiClient.isConnected();
+            }
+
+            @Override
+            public boolean send(String nodeId, String path, byte[] data) {
+                return Wearable.MessageApi.sendMessage(googleApiClient, nodeId, path, data)
+                        .await().getStatus().isSuccess();
+            }
+
+            @Override
+            public void disconnect() {
+                googleApiClient.disconnect();
+            }
+        });
+    }
+
+    @Override
+    public void onDestroy() {
+        replySender.release();
+        super.onDestroy();
+    }
 
     @Override
     public void onPeerConnected(Node peer) {
@@ -42,45 +90,21 @@ public class WatchFaceWearableListenerService extends WearableListenerService {
     @Override
     public void onMessageReceived(MessageEvent messageEvent) {
         super.onMessageReceived(messageEvent);
-        Log.d("WEAR", "Message received: " + messageEvent);
-        nodeId = messageEvent.getSourceNodeId();
+        if (Log.isLoggable(TAG, Log.DEBUG)) {
+            Log.d(TAG, "Message received: " + messageEvent);
+        }
 
-        //Toast.makeText(this, "Command received", Toast.LENGTH_LONG).show();
         if (messageEvent.getPath().contains(LAST_KNOW_GPS_POSITION)) {
-
-            new Thread(){
-                @Override
-                public void run() {
-                    super.run();
-                    try {
-                        LocationManager locationManager = (LocationManager) WatchFaceWearableListenerService.this.getSystemService(Context.LOCATION_SERVICE);
-                        String locationProvider = LocationManager.NETWORK_PROVIDER;
-                        // Or use LocationManager.GPS_PROVIDER
-                        Location lastKnownLocation = locationManager.getLastKnownLocation(locationProvider);
-                        if(lastKnownLocation != null) {
-                            reply(LAST_KNOW_GPS_POSITION, lastKnownLocation.getLatitude() + "_" + lastKnownLocation.getLongitude());
-                        }
-                    }catch (Exception e){e.printStackTrace();}
-                }
-            }.start();
+            //the watch has no pushed location yet, from now on it gets the updates
+            LocationPublisher.subscribe(this);
+            replySender.request(messageEvent.getSourceNodeId(), LAST_KNOW_GPS_POSITION, lastKnownLocation);
         }
     }
 
-    private void reply(final String path, String message) {
-        googleApiClient = new GoogleApiClient.Builder(getApplicationContext())
-                .addApi(Wearable.API)
-                .build();
-
-        if(message == null) message = "{}";
-
-        Log.v("HANDSET SERVICE", "In reply()");
-        Log.v("HANDSET SERVICE", "Path: " + path);
-
-        if (googleApiClient != null && !(googleApiClient.isConnected() || googleApiClient.isConnecting()))
-            googleApiClient.blockingConnect(CONNECTION_TIME_OUT_MS, TimeUnit.MILLISECONDS);
-
-        Wearable.MessageApi.sendMessage(googleApiClient, nodeId, path, message.getBytes()).await();
-        googleApiClient.disconnect();
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(fd, writer, args);
+        ReplySender sender = replySender;
+        if (sender != null) sender.dump(writer);
     }
-
 }
@@ -0,0 +1,226 @@
+package com.marcouberti.f35watchface.services;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * {@link ReplySender} over a fake transport that can hold a reply in flight, so bursts of
+ * requests arrive while the sender thread is busy, as they do while the watch waits for a fix.
+ * The counters are written on the sender thread: the checks wait for the dump to show them.
+ */
+public class ReplySenderTest {
+
+    private static final String NODE = "node";
+    private static final String PATH = "/path";
+    private static final long TIMEOUT_MS = 5000;
+
+    private final FakeTransport transport = new FakeTransport();
+    private final ReplySender sender = new ReplySender(transport);
+    private final AtomicInteger version = new AtomicInteger();
+    //the latest data when the reply is built
+    private final ReplySender.Payload latest = new ReplySender.Payload() {
+        @Override
+        public byte[] get() {
+            return new byte[]{(byte) version.get()};
+        }
+    };
+
+    @After
+    public void tearDown() {
+        transport.release();
+        sender.release();
+    }
+
+    @Test
+    public void burstCostsOneReplyWithTheLatestData() throws InterruptedException {
+        transport.hold();
+        sender.request(NODE, PATH, latest);
+        transport.awaitSending();
+        //the first reply is in flight, the burst waits for the next one
+        for (int i = 1; i <= 100; i++) {
+            version.set(i);
+            sender.request(NODE, PATH, latest);
+        }
+        transport.release();
+        sender.release();
+
+        awaitDump("Requests: 101, replies: 2, coalesced: 99, dropped: 0, nothing to send: 0, failed: 0",
+                "Connections: 1, disconnects: 1");
+        assertEquals(2, transport.sent.size());
+        assertEquals(0, transport.sent.get(0)[0]);
+        assertEquals(100, transport.sent.get(1)[0]);
+    }
+
+    @Test
+    public void connectionKeptBetweenReplies() throws InterruptedException {
+        for (int i = 0; i < 5; i++) {
+            sender.request(NODE + i, PATH, latest);
+            awaitDump("Requests: " + (i + 1) + ", replies: " + (i + 1)
+                            + ", coalesced: 0, dropped: 0, nothing to send: 0, failed: 0",
+                    "Connections: 1, disconnects: 0");
+        }
+        sender.release();
+
+        awaitDump("Requests: 5, replies: 5, coalesced: 0, dropped: 0, nothing to send: 0, failed: 0",
+                "Connections: 1, disconnects: 1");
+        assertEquals(1, transport.connects.get());
+        assertEquals(1, transport.disconnects.get());
+    }
+
+    @Test
+    public void atMostMaxPending() throws InterruptedException {
+        transport.hold();
+        sender.request(NODE, PATH, latest);
+        transport.awaitSending();
+        //one in flight, 8 waiting
+        for (int i = 0; i < 10; i++) sender.request(NODE + i, PATH, latest);
+        transport.release();
+        sender.release();
+
+        awaitDump("Requests: 11, replies: 9, coalesced: 0, dropped: 2, nothing to send: 0, failed: 0",
+                "Connections: 1, disconnects: 1");
+        assertEquals(9, transport.sent.size());
+    }
+
+    @Test
+    public void connectsAgainAfterAFailure() throws InterruptedException {
+        transport.failConnect = true;
+        sender.request(NODE, PATH, latest);
+        awaitDump("Requests: 1, replies: 0, coalesced: 0, dropped: 0, nothing to send: 0, failed: 1",
+                "Connections: 0, disconnects: 0");
+        transport.failConnect = false;
+        sender.request(NODE, PATH, latest);
+        sender.release();
+
+        awaitDump("Requests: 2, replies: 1, coalesced: 0, dropped: 0, nothing to send: 0, failed: 1",
+                "Connections: 1, disconnects: 1");
+        assertEquals(2, transport.connects.get());
+    }
+
+    @Test
+    public void nothingToSend() throws InterruptedException {
+        sender.request(NODE, PATH, new ReplySender.Payload() {
+            @Override
+            public byte[] get() {
+                return null;
+            }
+        });
+
+        awaitDump("Requests: 1, replies: 0, coalesced: 0, dropped: 0, nothing to send: 1, failed: 0",
+                "Connections: 0, disconnects: 0");
+        assertEquals(0, transport.connects.get());
+    }
+
+    @Test
+    public void releaseStopsTheThreadWithoutWaitingForTheIdleDisconnect() throws InterruptedException {
+        sender.request(NODE, PATH, latest);
+        awaitDump("Requests: 1, replies: 1, coalesced: 0, dropped: 0, nothing to send: 0, failed: 0",
+                "Connections: 1, disconnects: 0");
+        sender.release();
+
+        assertTrue(sender.awaitTermination(TIMEOUT_MS));
+        assertEquals(1, transport.disconnects.get());
+    }
+
+    @Test
+    public void droppedOnceReleased() throws InterruptedException {
+        sender.release();
+        sender.request(NODE, PATH, latest);
+
+        awaitDump("Requests: 1, replies: 0, coalesced: 0, dropped: 1, nothing to send: 0, failed: 0",
+                "Connections: 0, disconnects: 0");
+        assertEquals(0, transport.connects.get());
+    }
+
+    /**
+     * Waits for the first two lines of the dump, up to {@link #TIMEOUT_MS}.
+     */
+    private void awaitDump(String counters, String connections) throws InterruptedException {
+        String expected = counters + "\n" + connections;
+        String dump = dump();
+        long end = System.currentTimeMillis() + TIMEOUT_MS;
+        while (!dump.startsWith(expected) && System.currentTimeMillis() < end) {
+            Thread.sleep(10);
+            dump = dump();
+        }
+        String[] lines = dump.split("\n");
+        assertEquals(counters, lines[0]);
+        assertEquals(connections, lines[1]);
+        assertTrue(lines[2], lines[2].startsWith("Reply latency: mean "));
+    }
+
+    private String dump() {
+        StringWriter out = new StringWriter();
+        PrintWriter writer = new PrintWriter(out);
+        sender.dump(writer);
+        writer.flush();
+        return out.toString().replace(System.getProperty("line.separator"), "\n");
+    }
+
+    private static final class FakeTransport implements ReplySender.Transport {
+        final List<byte[]> sent = Collections.synchronizedList(new ArrayList<byte[]>());
+        final AtomicInteger connects = new AtomicInteger();
+        final AtomicInteger disconnects = new AtomicInteger();
+        volatile boolean failConnect;
+        private volatile boolean connected;
+        private volatile CountDownLatch held = new CountDownLatch(0);
+        private final CountDownLatch sending = new CountDownLatch(1);
+
+        @Override
+        public boolean connect(long timeoutMs) {
+            connects.incrementAndGet();
+            connected = !failConnect;
+            return connected;
+        }
+
+        @Override
+        public boolean isConnected() {
+            return connected;
+        }
+
+        @Override
+        public boolean send(String nodeId, String path, byte[] data) {
+            sending.countDown();
+            try {
+                if (!held.await(TIMEOUT_MS, TimeUnit.MILLISECONDS)) return false;
+            } catch (InterruptedException e) {
+                return false;
+            }
+            sent.add(data);
+            return true;
+        }
+
+        @Override
+        public void disconnect() {
+            connected = false;
+            disconnects.incrementAndGet();
+        }
+
+        /**
+         * Holds the replies in {@link #send} until {@link #release()}.
+         */
+        void hold() {
+            held = new CountDownLatch(1);
+        }
+
+        void release() {
+            held.countDown();
+        }
+
+        void awaitSending() throws InterruptedException {
+            assertTrue(sending.await(TIMEOUT_MS, TimeUnit.MILLISECONDS));
+        }
+    }
+}
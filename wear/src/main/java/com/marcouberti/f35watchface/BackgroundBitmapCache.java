@@ -0,0 +1,290 @@
+package com.marcouberti.f35watchface;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.Process;
+import android.util.Log;
+import android.util.SparseBooleanArray;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Cache of the decoded face backgrounds, keyed by shape, resolution, ambient and night mode.
+ * <p>
+ * Backgrounds are decoded on a background thread and handed back on the main thread through
+ * {@link Callback}, until then the face keeps drawing the previous bitmap. Decoded bitmaps stay
+ * resident, least recently used first out, within a memory budget; an evicted bitmap is kept
+ * aside and its memory reused by the next decode.
+ * <p>
+ * Once {@link #setSurfaceSize(int, int)} is called the backgrounds are resampled a single time to
+ * the surface size, so the face can blit them 1:1 instead of scaling a full screen image.
+ * <p>
+ * All the public methods must be called from the main thread.
+ */
+public class BackgroundBitmapCache {
+
+    private static final String TAG = "BackgroundBitmapCache";
+
+    public static final int ROUND = 1;
+    public static final int LOW_RES = 1 << 1;
+    public static final int AMBIENT = 1 << 2;
+    public static final int NIGHT = 1 << 3;
+
+    /**
+     * Receives the backgrounds decoded in background.
+     */
+    public interface Callback {
+        void onBackgroundReady(int key, Bitmap bitmap);
+    }
+
+    private final Resources resources;
+    private final long maxBytes;
+    private final LinkedHashMap<Integer, Bitmap> cache = new LinkedHashMap<>(16, 0.75f, true);
+    private final SparseBooleanArray pending = new SparseBooleanArray();
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final HandlerThread decodeThread;
+    private final Handler decodeHandler;
+    private Callback callback;
+    private Bitmap reusable;
+    private long currentBytes;
+    private int currentKey = -1;
+    //last bitmap handed to the face, it may still be drawn and is never recycled or reused
+    private Bitmap displayed;
+    private int surfaceWidth;
+    private int surfaceHeight;
+    private int generation;
+
+    //only touched by the decode thread
+    private final Paint scalePaint = new Paint(Paint.FILTER_BITMAP_FLAG | Paint.DITHER_FLAG);
+    private final Rect scaleDst = new Rect();
+    private Bitmap sourceBuffer;
+
+    /**
+     * @param maxBytes memory budget for the resident backgrounds
+     */
+    public BackgroundBitmapCache(Resources resources, long maxBytes) {
+        this.resources = resources;
+        this.maxBytes = maxBytes;
+        decodeThread = new HandlerThread(TAG, Process.THREAD_PRIORITY_BACKGROUND);
+        decodeThread.start();
+        decodeHandler = new Handler(decodeThread.getLooper());
+    }
+
+    public void setCallback(Callback callback) {
+        this.callback = callback;
+    }
+
+    public static int key(boolean round, boolean lowRes, boolean ambient, boolean night) {
+        int key = 0;
+        if (round) key |= ROUND;
+        if (lowRes) key |= LOW_RES;
+        if (ambient) key |= AMBIENT;
+        if (night) key |= NIGHT;
+        return key;
+    }
+
+    /**
+     * Sets the size the backgrounds are resampled to. A new size drops every resident background,
+     * decodes still in flight for the old size are discarded.
+     */
+    public void setSurfaceSize(int width, int height) {
+        if (width == surfaceWidth && height == surfaceHeight) return;
+        surfaceWidth = width;
+        surfaceHeight = height;
+        generation++;
+        clear();
+    }
+
+    /**
+     * Returns the background for {@code key} if it is resident, otherwise schedules its decode
+     * and returns null; the bitmap is then delivered to the {@link Callback}.
+     * Neither the requested background nor the last one handed out are ever evicted.
+     */
+    public Bitmap get(int key) {
+        currentKey = key;
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null) {
+            displayed = bitmap;
+            return bitmap;
+        }
+        decode(key);
+        return null;
+    }
+
+    /**
+     * Decodes the background for {@code key} in advance, if it isn't resident yet.
+     */
+    public void prefetch(int key) {
+        if (!cache.containsKey(key)) decode(key);
+    }
+
+    /**
+     * Stops the decode thread and recycles all the resident bitmaps.
+     */
+    public void release() {
+        generation++;
+        decodeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                if (sourceBuffer != null) {
+                    sourceBuffer.recycle();
+                    sourceBuffer = null;
+                }
+            }
+        });
+        decodeThread.quitSafely();
+        mainHandler.removeCallbacksAndMessages(null);
+        clear();
+        if (displayed != null) {
+            displayed.recycle();
+            displayed = null;
+        }
+    }
+
+    private void clear() {
+        for (Bitmap bitmap : cache.values()) {
+            if (bitmap != displayed) bitmap.recycle();
+        }
+        cache.clear();
+        pending.clear();
+        currentBytes = 0;
+        if (reusable != null) {
+            reusable.recycle();
+            reusable = null;
+        }
+    }
+
+    private void decode(final int key) {
+        if (pending.get(key)) return;
+        pending.put(key, true);
+        final Bitmap inBitmap = reusable;
+        reusable = null;
+        final int resId = resourceFor(key);
+        final int width = surfaceWidth;
+        final int height = surfaceHeight;
+        final int decodeGeneration = generation;
+        decodeHandler.post(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap bitmap = load(resId, width, height, inBitmap);
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDecoded(key, bitmap, decodeGeneration);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Decodes the resource and resamples it to {@code width} x {@code height}. When the resource
+     * already has the surface size it is decoded straight into {@code inBitmap}, otherwise it goes
+     * through a source sized buffer reused across decodes and is then scaled into
+     * {@code inBitmap}.
+     */
+    private Bitmap load(int resId, int width, int height, Bitmap inBitmap) {
+        if (width <= 0 || height <= 0) return decodeResource(resId, inBitmap);
+
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, bounds);
+        if (bounds.outWidth == width && bounds.outHeight == height) {
+            return decodeResource(resId, inBitmap);
+        }
+
+        sourceBuffer = decodeResource(resId, sourceBuffer);
+        if (sourceBuffer == null) return null;
+
+        Bitmap scaled = inBitmap;
+        if (scaled == null || scaled.getWidth() != width || scaled.getHeight() != height) {
+            if (scaled != null) scaled.recycle();
+            scaled = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        } else {
+            scaled.eraseColor(0);
+        }
+        scaleDst.set(0, 0, width, height);
+        new Canvas(scaled).drawBitmap(sourceBuffer, null, scaleDst, scalePaint);
+        return scaled;
+    }
+
+    private Bitmap decodeResource(int resId, Bitmap inBitmap) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        if (inBitmap != null) {
+            options.inBitmap = inBitmap;
+            try {
+                return BitmapFactory.decodeResource(resources, resId, options);
+            } catch (IllegalArgumentException e) {
+                //inBitmap too small for this resource, decode into a fresh bitmap
+                Log.d(TAG, "Can't reuse bitmap memory", e);
+                inBitmap.recycle();
+                options.inBitmap = null;
+            }
+        }
+        return BitmapFactory.decodeResource(resources, resId, options);
+    }
+
+    private void onDecoded(int key, Bitmap bitmap, int decodeGeneration) {
+        if (decodeGeneration != generation) {
+            //decoded for a previous surface size
+            if (bitmap != null) bitmap.recycle();
+            return;
+        }
+        pending.delete(key);
+        if (bitmap == null) return;
+        cache.put(key, bitmap);
+        currentBytes += bitmap.getByteCount();
+        if (key == currentKey) displayed = bitmap;
+        trimToBudget(key);
+        if (callback != null) callback.onBackgroundReady(key, bitmap);
+    }
+
+    private void trimToBudget(int justDecoded) {
+        Iterator<Map.Entry<Integer, Bitmap>> iterator = cache.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<Integer, Bitmap> eldest = iterator.next();
+            int key = eldest.getKey();
+            Bitmap evicted = eldest.getValue();
+            if (key == justDecoded || key == currentKey || evicted == displayed) continue;
+            iterator.remove();
+            currentBytes -= evicted.getByteCount();
+            if (reusable == null) {
+                reusable = evicted;
+            } else {
+                evicted.recycle();
+            }
+        }
+    }
+
+    static int resourceFor(int key) {
+        boolean round = (key & ROUND) != 0;
+        boolean ambient = (key & AMBIENT) != 0;
+        boolean night = (key & NIGHT) != 0;
+        //LOW RES WATCHES <=320px
+        if ((key & LOW_RES) != 0) {
+            if (!ambient) {
+                if (night) return round ? R.drawable.background_night_320 : R.drawable.background_square_night_320;
+                return round ? R.drawable.background_320 : R.drawable.background_square_320;
+            }
+            if (night) return round ? R.drawable.background_ambient_night_320 : R.drawable.background_square_night_ambient_320;
+            return round ? R.drawable.background_ambient_320 : R.drawable.background_square_ambient_320;
+        }
+        //HIGHER RES WATCHES >= 320px
+        if (!ambient) {
+            if (night) return round ? R.drawable.background_night : R.drawable.background_square_night;
+            return round ? R.drawable.background : R.drawable.background_square;
+        }
+        if (night) return round ? R.drawable.background_ambient_night : R.drawable.background_square_night_ambient;
+        return round ? R.drawable.background_ambient : R.drawable.background_square_ambient;
+    }
+}
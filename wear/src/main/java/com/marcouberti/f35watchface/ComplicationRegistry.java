@@ -0,0 +1,73 @@
+package com.marcouberti.f35watchface;
+
+import android.util.SparseArray;
+
+import java.util.ArrayList;
+
+/**
+ * The complications available on each side of the face, in the order a tap cycles through them.
+ */
+public class ComplicationRegistry {
+
+    public static final int SIDE_LEFT = 1;
+    public static final int SIDE_RIGHT = 1 << 1;
+    public static final int SIDE_BOTH = SIDE_LEFT | SIDE_RIGHT;
+
+    private final ArrayList<ComplicationRenderer> renderers = new ArrayList<>();
+    private final ArrayList<Integer> sides = new ArrayList<>();
+    private final SparseArray<ComplicationRenderer> byId = new SparseArray<>();
+
+    /**
+     * Adds a renderer at the end of the cycle of the given sides.
+     *
+     * @param sides {@link #SIDE_LEFT}, {@link #SIDE_RIGHT} or both
+     */
+    public void register(ComplicationRenderer renderer, int sides) {
+        renderers.add(renderer);
+        this.sides.add(sides);
+        byId.put(renderer.getId(), renderer);
+    }
+
+    /**
+     * @return the renderer of the given complication mode, or null if there is none
+     */
+    public ComplicationRenderer get(int id) {
+        return byId.get(id);
+    }
+
+    /**
+     * @return the complication modes of {@code side}, in cycle order
+     */
+    public int[] getModes(int side) {
+        int count = 0;
+        for (int i = 0; i < renderers.size(); i++) {
+            if ((sides.get(i) & side) != 0) count++;
+        }
+        int[] modes = new int[count];
+        count = 0;
+        for (int i = 0; i < renderers.size(); i++) {
+            if ((sides.get(i) & side) != 0) modes[count++] = renderers.get(i).getId();
+        }
+        return modes;
+    }
+
+    /**
+     * @return the complication mode following {@code id} in the cycle of {@code side}, wrapping
+     *         around; the first one of the side if {@code id} is not part of it
+     */
+    public int next(int side, int id) {
+        int size = renderers.size();
+        int start = -1;
+        for (int i = 0; i < size; i++) {
+            if (renderers.get(i).getId() == id) {
+                start = i;
+                break;
+            }
+        }
+        for (int step = 1; step <= size; step++) {
+            int i = (start + step) % size;
+            if ((sides.get(i) & side) != 0) return renderers.get(i).getId();
+        }
+        return id;
+    }
+}
@@ -0,0 +1,51 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Canvas;
+
+/**
+ * Draws one kind of complication and tells when its content changes, so the face only renders it
+ * again when needed, see {@link ComplicationSlot}.
+ */
+public interface ComplicationRenderer {
+
+    /**
+     * Inputs a renderer may depend on, besides time. When one of them changes the slots showing a
+     * renderer that declared it are rendered again.
+     */
+    int INPUT_APPEARANCE = 1;
+    int INPUT_TIME_ZONE = 1 << 1;
+    int INPUT_LOCALE = 1 << 2;
+    int INPUT_BATTERY = 1 << 3;
+    int INPUT_LOCATION = 1 << 4;
+    int INPUT_STOPWATCH = 1 << 5;
+    int INPUT_SECOND_TIMEZONE = 1 << 6;
+    int INPUT_SOLAR_DAY = 1 << 7;
+    int INPUT_WORLD_CLOCK = 1 << 8;
+
+    /**
+     * Never changes with time alone.
+     */
+    long NEVER = Long.MAX_VALUE;
+
+    /**
+     * @return the complication mode, as persisted in the preferences
+     */
+    int getId();
+
+    /**
+     * @return the inputs the content depends on, a combination of the {@code INPUT_} flags;
+     *         {@link #INPUT_APPEARANCE} is implied
+     */
+    int getInputs();
+
+    /**
+     * @return the first instant after {@code now}, in epoch millis, when the content changes with
+     *         time alone, or {@link #NEVER}
+     */
+    long getNextChange(long now);
+
+    /**
+     * Draws the complication centered at ({@code cx}, {@code cy}).
+     */
+    void render(Canvas canvas, float cx, float cy, long now);
+}
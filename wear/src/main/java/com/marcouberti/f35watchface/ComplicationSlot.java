@@ -0,0 +1,120 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+
+/**
+ * One complication position on the face with its own offscreen layer.
+ * <p>
+ * The layer is rendered again only when the renderer changes, when its
+ * {@link ComplicationRenderer#getNextChange next change} time has passed or when one of the
+ * inputs it declared has been invalidated; otherwise drawing the slot is a single blit.
+ */
+public class ComplicationSlot {
+
+    private float centerX;
+    private float centerY;
+    private int originX;
+    private int originY;
+    private int size;
+    private Bitmap layer;
+    private Canvas layerCanvas;
+
+    private ComplicationRenderer renderer;
+    private ComplicationRenderer rendered;
+    private long nextChange;
+    private int dirtyInputs;
+
+    /**
+     * Positions the slot, the layer covers a square of {@code halfSize} around the center.
+     */
+    public void setBounds(float centerX, float centerY, int halfSize) {
+        this.centerX = centerX;
+        this.centerY = centerY;
+        //integer origin, so the layer lands on the same pixels the renderer would draw on
+        originX = (int) Math.floor(centerX) - halfSize;
+        originY = (int) Math.floor(centerY) - halfSize;
+        int newSize = 2 * halfSize + 1;
+        if (layer == null || newSize != size) {
+            release();
+            size = newSize;
+            layer = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            layerCanvas = new Canvas(layer);
+        }
+        rendered = null;
+    }
+
+    public void setRenderer(ComplicationRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    public ComplicationRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Marks the given inputs as changed.
+     */
+    public void invalidate(int inputs) {
+        dirtyInputs |= inputs;
+    }
+
+    /**
+     * Renders the layer again on the next {@link #update} whatever its inputs, e.g. after the
+     * clock has been set and the next change time no longer holds.
+     */
+    public void invalidateAll() {
+        rendered = null;
+    }
+
+    /**
+     * @return true if the current renderer depends on one of the given inputs
+     */
+    public boolean dependsOn(int inputs) {
+        return renderer != null && (renderer.getInputs() & inputs) != 0;
+    }
+
+    /**
+     * Renders the layer again if needed.
+     *
+     * @return true if the layer changed
+     */
+    public boolean update(long now) {
+        if (layer == null || renderer == null) return false;
+        int inputs = renderer.getInputs() | ComplicationRenderer.INPUT_APPEARANCE;
+        if (renderer == rendered && (dirtyInputs & inputs) == 0 && now < nextChange) return false;
+
+        layer.eraseColor(Color.TRANSPARENT);
+        layerCanvas.save();
+        layerCanvas.translate(-originX, -originY);
+        renderer.render(layerCanvas, centerX, centerY, now);
+        layerCanvas.restore();
+
+        rendered = renderer;
+        nextChange = renderer.getNextChange(now);
+        dirtyInputs = 0;
+        return true;
+    }
+
+    public void draw(Canvas canvas) {
+        if (layer == null || rendered == null) return;
+        canvas.drawBitmap(layer, originX, originY, null);
+    }
+
+    /**
+     * @return when the layer has to be rendered again with time alone
+     */
+    public long getNextChange() {
+        return nextChange;
+    }
+
+    public void release() {
+        if (layer != null) {
+            layer.recycle();
+            layer = null;
+            layerCanvas = null;
+        }
+        rendered = null;
+    }
+}
@@ -0,0 +1,95 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+/**
+ * The tick ring of a small analog dial, rasterized once.
+ * <p>
+ * The ticks are drawn into a sprite the first time and each time the center, the radius or the
+ * paint change, then the dial is a single {@code drawBitmap}. The sprite keeps the fractional
+ * part of the center, so it covers exactly the pixels the ticks would; dials whose centers differ
+ * by whole pixels, like the same complication in both slots, share it.
+ */
+public class DialSpriteCache {
+
+    private final int ticks;
+    private Bitmap sprite;
+    private final Canvas spriteCanvas = new Canvas();
+    private int extent;
+
+    //fractional part of the center the sprite was rendered for
+    private float fractionX = Float.NaN;
+    private float fractionY = Float.NaN;
+    private float radius;
+    private float inner;
+    private float outer;
+    private int color;
+    private float strokeWidth;
+
+    /**
+     * @param ticks number of ticks, evenly spaced starting from 12 o'clock
+     */
+    public DialSpriteCache(int ticks) {
+        this.ticks = ticks;
+    }
+
+    /**
+     * Draws the ticks from {@code inner} to {@code outer} times {@code radius} around
+     * ({@code cx}, {@code cy}).
+     */
+    public void draw(Canvas canvas, float cx, float cy, float radius, float inner, float outer, Paint paint) {
+        float originX = (float) Math.floor(cx);
+        float originY = (float) Math.floor(cy);
+        float fx = cx - originX;
+        float fy = cy - originY;
+        if (sprite == null || fx != fractionX || fy != fractionY || radius != this.radius
+                || inner != this.inner || outer != this.outer
+                || paint.getColor() != color || paint.getStrokeWidth() != strokeWidth) {
+            render(fx, fy, radius, inner, outer, paint);
+        }
+        canvas.drawBitmap(sprite, originX - extent, originY - extent, null);
+    }
+
+    public void clear() {
+        if (sprite != null) {
+            spriteCanvas.setBitmap(null);
+            sprite.recycle();
+            sprite = null;
+        }
+    }
+
+    /**
+     * Renders the ticks around the sprite center plus ({@code fx}, {@code fy}).
+     */
+    private void render(float fx, float fy, float radius, float inner, float outer, Paint paint) {
+        extent = (int) Math.ceil(radius * outer + paint.getStrokeWidth()) + 2;
+        int size = 2 * extent + 2;
+        if (sprite == null || sprite.getWidth() != size) {
+            clear();
+            sprite = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            spriteCanvas.setBitmap(sprite);
+        } else {
+            sprite.eraseColor(Color.TRANSPARENT);
+        }
+        Canvas canvas = spriteCanvas;
+        float cx = extent + fx;
+        float cy = extent + fy;
+        float step = 360f / ticks;
+        for (int i = 0; i < ticks; i++) {
+            canvas.save();
+            canvas.rotate(i * step, cx, cy);
+            canvas.drawLine(cx, cy - radius * inner, cx, cy - radius * outer, paint);
+            canvas.restore();
+        }
+        fractionX = fx;
+        fractionY = fy;
+        this.radius = radius;
+        this.inner = inner;
+        this.outer = outer;
+        color = paint.getColor();
+        strokeWidth = paint.getStrokeWidth();
+    }
+}
@@ -4,27 +4,25 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.IntentFilter;
-import android.content.SharedPreferences;
 import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
-import android.graphics.Color;
-import android.graphics.Paint;
-import android.graphics.Path;
 import android.graphics.Rect;
-import android.graphics.RectF;
 import android.graphics.Typeface;
-import android.os.BatteryManager;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
-import android.os.Message;
+import android.os.Looper;
+import android.os.SystemClock;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
+import android.text.TextUtils;
 import android.text.format.Time;
 import android.util.Log;
+import android.view.Display;
 import android.view.SurfaceHolder;
 import android.view.WindowInsets;
+import android.view.WindowManager;
 
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
@@ -37,6 +35,7 @@ import com.google.android.gms.wearable.DataApi;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
 import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataItemBuffer;
 import com.google.android.gms.wearable.DataMap;
 import com.google.android.gms.wearable.DataMapItem;
 import com.google.android.gms.wearable.MessageApi;
@@ -45,16 +44,18 @@ import com.google.android.gms.wearable.Node;
 import com.google.android.gms.wearable.Wearable;
 import com.google.android.gms.wearable.WearableStatusCodes;
 import com.marcouberti.f35watchface.utils.SharedPreferencesHelper;
-import com.marcouberti.f35watchface.utils.moonphase.MoonPhase;
-import com.marcouberti.f35watchface.utils.ScreenUtils;
-import com.marcouberti.f35watchface.utils.moonphase.StarDate;
+import com.marcouberti.f35watchface.utils.battery.BatteryState;
+import com.marcouberti.f35watchface.utils.location.LocationFix;
+import com.marcouberti.f35watchface.utils.location.LocationSync;
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
 import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatchLog;
+import com.marcouberti.f35watchface.utils.sunrisesunset.SolarDayCache;
 
-import java.lang.ref.WeakReference;
-import java.text.DateFormatSymbols;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
-import java.util.Locale;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.PrintWriter;
+import java.util.Arrays;
 import java.util.Set;
 import java.util.TimeZone;
 
@@ -69,34 +70,45 @@ public class F35Face extends CanvasWatchFaceService {
     private static final String RIGHT_COMPLICATION_STATE = "RIGHT_COMPLICATION_STATE";
     private static final String ACCENT_COLOR_STATE = "ACCENT_COLOR_STATE";
     private static final String SECOND_TIMEZONE_STATE = "SECOND_TIMEZONE_STATE";
+    private static final String WORLD_CLOCK_STATE = "WORLD_CLOCK_STATE";
 
     private static final String F35_WEARABLE_CAPABILITY_NAME = "f35_wearable_capability";
     private static final String LAST_KNOW_GPS_POSITION = "/gps_position";
-    private String phoneNodeId = null;
+    private volatile String phoneNodeId = null;
 
-    private static final Typeface NORMAL_TYPEFACE =
-            Typeface.create(Typeface.SANS_SERIF, Typeface.BOLD);
     /**
-     * Update rate in milliseconds for interactive mode. We update once a second to advance the
-     * second hand.
+     * Memory budget of the decoded backgrounds: day and night, interactive and ambient
+     * variants of a 480px face.
      */
-    private static long INTERACTIVE_UPDATE_RATE_MS = 1000;
-    private static final long INTERACTIVE_UPDATE_RATE_MS_NORMAL = 1000;
-    private static final long INTERACTIVE_UPDATE_RATE_MS_STOPWATCH = 30;
+    private static final long BACKGROUND_CACHE_BYTES = 4 * 480 * 480 * 4;
 
     /**
-     * Handler message id for updating the time periodically in interactive mode.
+     * Age after which the last known location is requested again to the phone.
      */
-    private static final int MSG_UPDATE_TIME = 0;
+    private static final long LOCATION_MAX_AGE_MS = 5 * 60000;
+    /**
+     * Age after which a location pushed by the phone is requested again. The phone pushes it again
+     * every 30 minutes while it stays put, location_push_max_age_minutes on the phone, a few
+     * more leave room for the inexact alarm doing it.
+     */
+    private static final long LOCATION_PUSH_MAX_AGE_MS = 45 * 60000;
+
+    private static final int CHRONO = FaceRenderer.CHRONO;
+    private static final int WEEK_DAYS_BATTERY = FaceRenderer.WEEK_DAYS_BATTERY;
+    private static final int MOON = FaceRenderer.MOON;
+    private static final String[] COMPLICATION_NAMES = FaceRenderer.COMPLICATION_NAMES;
+
+    /**
+     * Log tag turning the frame timing on, read when the engine is created:
+     * {@code adb shell setprop log.tag.F35FrameStats VERBOSE}, then
+     * {@code adb shell dumpsys activity service com.marcouberti.f35watchface/.F35Face}.
+     */
+    static final String FRAME_STATS_TAG = "F35FrameStats";
 
-    private static final int CHRONO = 0;
-    private static final int WEEK_DAYS_BATTERY = 1;
-    private static final int COORDINATES = 2;
-    private static final int MONTH_AND_DAY = 3;
-    private static final int MONTH_AND_YEAR = 4;
-    private static final int MOON = 5;
-    private static final int WEAR_BATTERY = 6;
-    private static final int SECONDARY_TIMEZONE = 7;
+    /**
+     * Stopwatch log in the app files dir, see {@link StopWatchLog}.
+     */
+    private static final String STOPWATCH_LOG_FILE = "stopwatch.log";
 
     private static final int NIGHT_MODE_ON = 0;
     private static final int NIGHT_MODE_OFF = 1;
@@ -107,36 +119,70 @@ public class F35Face extends CanvasWatchFaceService {
     private int RIGHT_COMPLICATION_MODE = WEEK_DAYS_BATTERY;
 
     int selectedColorCode;
-    String lastKnowCoordinates = "0.00 / 0.00";
     String secondTimezoneId;
+    /**
+     * World clock zones as set from the phone, null if none.
+     */
+    String[] worldClockZoneIds;
 
     private StopWatch stopWatch = new StopWatch();
+    private final LapBuffer laps = new LapBuffer();
+
+    /**
+     * The current engine, for the dump.
+     */
+    private Engine engine;
 
     @Override
     public Engine onCreateEngine() {
-        return new Engine();
+        engine = new Engine();
+        return engine;
+    }
+
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        super.dump(fd, writer, args);
+        Engine current = engine;
+        if (current != null) current.dump(writer);
     }
 
     private class Engine extends CanvasWatchFaceService.Engine implements DataApi.DataListener,
-            GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener,  MessageApi.MessageListener{
-
-        Bitmap bg;
-        Paint mBackgroundPaint;
-        Paint mSecondsCirclePaint,mDarkSecondsCirclePaint, smallTextPaint;
-        Paint logoTextPaint;
-        Paint blackFillPaint, whiteFillPaint, darkGrayFillPaint;
-        Paint accentFillPaint, chronoPaint, secondTimezoneStrokePaint;
-        Paint complicationArcAccentPaint,complicationArcBatteryPaint;
-        Paint largeTextPaint, mediumTextPaint, normalTextPaint;
+            GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener,  MessageApi.MessageListener,
+            BackgroundBitmapCache.Callback {
+
+        BackgroundBitmapCache mBackgroundCache;
+        int mBackgroundKey = -1;
+        FaceRenderer mRenderer;
         boolean mAmbient;
-        Calendar mCalendar;
+        final BatteryState mBatteryState = new BatteryState();
+        StopWatchLog mStopWatchLog;
+        final Handler mSolarDayHandler = new Handler(Looper.getMainLooper());
+        final Runnable mSolarDayRollover = new Runnable() {
+            @Override
+            public void run() {
+                updateSolarDay();
+            }
+        };
+        /**
+         * Asks the phone for the location while a complication shows it, see
+         * {@link #updateLocationSync()}.
+         */
+        LocationSync mLocationSync;
         Time mTime;
         boolean mIsRound =false;
-        float CR;
-        Typeface logoTypeface = Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/square_sans_serif_7.ttf");
-        Typeface monospacedTypeface = Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/larabiefont.ttf");
+        /**
+         * Layout of the current surface, null until the surface is created.
+         */
+        FaceGeometry mGeometry;
 
-        final Handler mUpdateTimeHandler = new EngineHandler(this);
+        /**
+         * Drives the interactive frames, see {@link #updateFrameScheduler()}.
+         */
+        FrameScheduler mFrameScheduler;
+        /**
+         * Timing of the frame sections, disabled unless {@link #FRAME_STATS_TAG} is loggable.
+         */
+        final FrameStats mFrameStats = new FrameStats(Log.isLoggable(FRAME_STATS_TAG, Log.VERBOSE));
 
         GoogleApiClient mGoogleApiClient = new GoogleApiClient.Builder(F35Face.this)
                 .addConnectionCallbacks(this)
@@ -147,8 +193,17 @@ public class F35Face extends CanvasWatchFaceService {
         final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                mTime.clear(intent.getStringExtra("time-zone"));
-                mTime.setToNow();
+                if(Intent.ACTION_TIMEZONE_CHANGED.equals(intent.getAction())) {
+                    mTime.clear(intent.getStringExtra("time-zone"));
+                    mTime.setToNow();
+                }
+                mRenderer.setTimeZone(TimeZone.getDefault());
+                updateSolarDay();
+                if(Intent.ACTION_TIME_CHANGED.equals(intent.getAction())) {
+                    //the clock jumped, the next change times no longer hold
+                    mRenderer.invalidateAll();
+                }
+                mRenderer.invalidateComplications(ComplicationRenderer.INPUT_TIME_ZONE | ComplicationRenderer.INPUT_LOCALE);
             }
         };
         boolean mRegisteredTimeZoneReceiver = false;
@@ -163,40 +218,40 @@ public class F35Face extends CanvasWatchFaceService {
         public void onApplyWindowInsets(WindowInsets insets) {
             super.onApplyWindowInsets(insets);
             mIsRound = insets.isRound();
-            if(mIsRound) {
-                float smallSize = ScreenUtils.getScreenWidth(getApplicationContext())/28f;
-                float normalSize = ScreenUtils.getScreenWidth(getApplicationContext())/17f;
-                float mediumSize = ScreenUtils.getScreenWidth(getApplicationContext())/15f;
-                float largeSize = ScreenUtils.getScreenWidth(getApplicationContext())/12f;
-                //set round bg images
-                smallTextPaint.setTextSize(smallSize);
-                normalTextPaint.setTextSize(normalSize);
-                mediumTextPaint.setTextSize(mediumSize);
-                largeTextPaint.setTextSize(largeSize);
-                chronoPaint.setTextSize(normalSize);
-                logoTextPaint.setTextSize(normalSize);
-            }else{
-                float smallSize = ScreenUtils.getScreenWidth(getApplicationContext())/28f;
-                float normalSize = ScreenUtils.getScreenWidth(getApplicationContext())/17f;
-                float mediumSize = ScreenUtils.getScreenWidth(getApplicationContext())/15f;
-                float largeSize = ScreenUtils.getScreenWidth(getApplicationContext())/12f;
-                //set round bg images
-                smallTextPaint.setTextSize(smallSize);
-                normalTextPaint.setTextSize(normalSize);
-                mediumTextPaint.setTextSize(mediumSize);
-                largeTextPaint.setTextSize(largeSize);
-                chronoPaint.setTextSize(normalSize);
-                logoTextPaint.setTextSize(normalSize);
+            if(mGeometry != null && mGeometry.round != mIsRound) {
+                updateGeometry(mGeometry.width, mGeometry.height);
             }
         }
 
+        @Override
+        public void onSurfaceChanged(SurfaceHolder holder, int format, int width, int height) {
+            super.onSurfaceChanged(holder, format, width, height);
+            updateGeometry(width, height);
+        }
+
+        /**
+         * Rebuilds the face layout and everything that depends on it.
+         */
+        private void updateGeometry(int width, int height) {
+            mGeometry = new FaceGeometry(width, height, mIsRound,
+                    getResources().getDisplayMetrics().density);
+            mRenderer.setGeometry(mGeometry);
+            //the cache drops the backgrounds of the previous size, before the new one is asked for
+            mBackgroundCache.setSurfaceSize(width, height);
+            updateBackground();
+        }
+
         @Override
         public void onTapCommand(@TapType int tapType, int x, int y, long eventTime) {
             switch (tapType) {
                 case WatchFaceService.TAP_TYPE_TAP:
                     //detect screen area (CENTER_LEFT, CENTER_RIGHT, BOTTOM_CENTER)
                     handleTouch(x,y);
-                    invalidate();
+                    mRenderer.setComplicationModes(LEFT_COMPLICATION_MODE, RIGHT_COMPLICATION_MODE);
+                    updateLocationSync();
+                    mRenderer.invalidateComplications(ComplicationRenderer.INPUT_STOPWATCH);
+                    mRenderer.invalidateStaticLayer();
+                    mFrameScheduler.requestFrame();
                     break;
 
                 case WatchFaceService.TAP_TYPE_TOUCH:
@@ -223,105 +278,90 @@ public class F35Face extends CanvasWatchFaceService {
                             setViewProtectionMode(WatchFaceStyle.PROTECT_STATUS_BAR)
                     .build());
 
-            //bg = BitmapFactory.decodeResource(getResources(), R.drawable.background);
-
-            mBackgroundPaint = new Paint();
-            mBackgroundPaint.setAntiAlias(true);
-
-            mSecondsCirclePaint= new Paint();
-            mSecondsCirclePaint.setAntiAlias(true);
-            mSecondsCirclePaint.setStyle(Paint.Style.FILL);
-            mSecondsCirclePaint.setStrokeWidth(ScreenUtils.convertDpToPixels(getApplicationContext(), 3f));
-
-            mDarkSecondsCirclePaint= new Paint();
-            mDarkSecondsCirclePaint.setAntiAlias(true);
-            mDarkSecondsCirclePaint.setStyle(Paint.Style.FILL);
-            mDarkSecondsCirclePaint.setStrokeWidth(ScreenUtils.convertDpToPixels(getApplicationContext(), 3f));
-
-            smallTextPaint = new Paint();
-            smallTextPaint.setAntiAlias(true);
-            smallTextPaint.setTextAlign(Paint.Align.CENTER);
-            smallTextPaint.setTypeface(Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/Dolce Vita Heavy Bold.ttf"));
-
-            largeTextPaint = new Paint();
-            largeTextPaint.setAntiAlias(true);
-            largeTextPaint.setTextAlign(Paint.Align.CENTER);
-            largeTextPaint.setTypeface(Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/Dolce Vita.ttf"));
-
-            mediumTextPaint = new Paint();
-            mediumTextPaint.setAntiAlias(true);
-            mediumTextPaint.setTextAlign(Paint.Align.CENTER);
-            mediumTextPaint.setTypeface(Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/Dolce Vita.ttf"));
-
-            normalTextPaint = new Paint();
-            normalTextPaint.setAntiAlias(true);
-            normalTextPaint.setTextAlign(Paint.Align.CENTER);
-            normalTextPaint.setTypeface(Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/Dolce Vita.ttf"));
-
-            accentFillPaint= new Paint();
-            accentFillPaint.setAntiAlias(true);
-            accentFillPaint.setTextAlign(Paint.Align.CENTER);
-            accentFillPaint.setStrokeWidth(ScreenUtils.convertDpToPixels(getApplicationContext(), 1.5f));
-
-            secondTimezoneStrokePaint= new Paint();
-            secondTimezoneStrokePaint.setAntiAlias(true);
-            secondTimezoneStrokePaint.setTextAlign(Paint.Align.CENTER);
-            secondTimezoneStrokePaint.setStrokeWidth(ScreenUtils.convertDpToPixels(getApplicationContext(), 3f));
-            secondTimezoneStrokePaint.setStrokeCap(Paint.Cap.ROUND);
-
-            chronoPaint= new Paint();
-            chronoPaint.setAntiAlias(true);
-            chronoPaint.setTextAlign(Paint.Align.CENTER);
-            chronoPaint.setTypeface(Typeface.createFromAsset(getApplicationContext().getAssets(), "fonts/Dolce Vita Heavy Bold.ttf"));
-
-            complicationArcAccentPaint= new Paint();
-            complicationArcAccentPaint.setStyle(Paint.Style.STROKE);
-            complicationArcAccentPaint.setStrokeCap(Paint.Cap.BUTT);
-            complicationArcAccentPaint.setStrokeWidth(ScreenUtils.getScreenWidth(getApplicationContext()) / 50);
-            complicationArcAccentPaint.setAntiAlias(true);
-
-            complicationArcBatteryPaint= new Paint();
-            complicationArcBatteryPaint.setStyle(Paint.Style.STROKE);
-            complicationArcBatteryPaint.setStrokeCap(Paint.Cap.BUTT);
-            complicationArcBatteryPaint.setStrokeWidth(ScreenUtils.getScreenWidth(getApplicationContext()) / 20);
-            complicationArcBatteryPaint.setAntiAlias(true);
-
-            logoTextPaint= new Paint();
-            logoTextPaint.setAntiAlias(true);
-            logoTextPaint.setTextAlign(Paint.Align.CENTER);
-            logoTextPaint.setTypeface(logoTypeface);
-
-            blackFillPaint = new Paint();
-            blackFillPaint.setColor(Color.BLACK);
-            blackFillPaint.setStyle(Paint.Style.FILL);
-            blackFillPaint.setAntiAlias(true);
-
-            whiteFillPaint = new Paint();
-            whiteFillPaint.setColor(Color.WHITE);
-            whiteFillPaint.setStyle(Paint.Style.FILL);
-            whiteFillPaint.setAntiAlias(true);
-            whiteFillPaint.setFilterBitmap(true);
-
-            darkGrayFillPaint = new Paint();
-            darkGrayFillPaint.setColor(Color.DKGRAY);
-            darkGrayFillPaint.setStyle(Paint.Style.FILL);
-            darkGrayFillPaint.setAntiAlias(true);
-            darkGrayFillPaint.setFilterBitmap(true);
+            mRenderer = new FaceRenderer(new FaceRenderer.Fonts() {
+                @Override
+                public Typeface load(String path) {
+                    return Typeface.createFromAsset(getApplicationContext().getAssets(), path);
+                }
+            }, stopWatch, laps);
 
             mTime = new Time();
-            mCalendar = Calendar.getInstance();
 
             selectedColorCode = GradientsUtils.getGradients(getApplicationContext(), -1);
 
+            Display display = ((WindowManager) getSystemService(WINDOW_SERVICE)).getDefaultDisplay();
+            mFrameScheduler = new FrameScheduler(new FrameScheduler.Callback() {
+                @Override
+                public void onFrame() {
+                    invalidate();
+                }
+            }, display.getRefreshRate());
+
+            mBackgroundCache = new BackgroundBitmapCache(getResources(), BACKGROUND_CACHE_BYTES);
+            mBackgroundCache.setCallback(this);
+            mBatteryState.setListener(new BatteryState.Listener() {
+                @Override
+                public void onBatteryLevelChanged(BatteryState.Snapshot snapshot) {
+                    if(mRenderer.setBatteryPercentage(snapshot.getPercentage(50))) {
+                        mFrameScheduler.requestFrame();
+                    }
+                }
+            });
+            mLocationSync = new LocationSync(new LocationSync.Transport() {
+                @Override
+                public boolean requestLocation() {
+                    return fireMessage(LAST_KNOW_GPS_POSITION);
+                }
+            }, new LocationSync.Listener() {
+                @Override
+                public void onLocationChanged(double latitude, double longitude) {
+                    boolean shown = mRenderer.setLocation(latitude, longitude);
+                    updateSolarDay();
+                    if(shown) mFrameScheduler.requestFrame();
+                }
+            }, LOCATION_MAX_AGE_MS, LOCATION_PUSH_MAX_AGE_MS);
+
             updatePaintColors();
             updateBackground();
 
             restoreComplicationsState();
+            restoreStopWatch();
+            mRenderer.setComplicationModes(LEFT_COMPLICATION_MODE, RIGHT_COMPLICATION_MODE);
+            mRenderer.setSecondTimezone(secondTimezoneId);
+            updateWorldClockZones();
+        }
+
+        /**
+         * Picks the stopwatch run and its laps up from the log off the main thread, a run still
+         * going or paused brings the chrono back on the left once read.
+         */
+        private void restoreStopWatch() {
+            mStopWatchLog = new StopWatchLog(new File(getFilesDir(), STOPWATCH_LOG_FILE));
+            mStopWatchLog.restore(stopWatch, laps, SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis(),
+                    new StopWatchLog.Callback() {
+                        @Override
+                        public void onRestored() {
+                            if(stopWatch.running || stopWatch.paused) {
+                                LEFT_COMPLICATION_MODE = CHRONO;
+                                mRenderer.setComplicationModes(LEFT_COMPLICATION_MODE, RIGHT_COMPLICATION_MODE);
+                                updateLocationSync();
+                                updateFrameScheduler();
+                            }
+                            mRenderer.invalidateComplications(ComplicationRenderer.INPUT_STOPWATCH);
+                            mRenderer.invalidateStaticLayer();
+                            mFrameScheduler.requestFrame();
+                        }
+                    });
         }
 
         @Override
         public void onDestroy() {
-            mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mFrameScheduler.release();
+            mLocationSync.setActive(false);
+            mSolarDayHandler.removeCallbacks(mSolarDayRollover);
+            mBackgroundCache.release();
+            mStopWatchLog.release();
+            mRenderer.release();
             super.onDestroy();
         }
 
@@ -334,6 +374,8 @@ public class F35Face extends CanvasWatchFaceService {
         @Override
         public void onTimeTick() {
             super.onTimeTick();
+            //the rollover is posted in uptime, which stands still while the watch sleeps
+            if(System.currentTimeMillis() >= mRenderer.getSolarDay().getValidUntil()) updateSolarDay();
             invalidate();
         }
 
@@ -351,497 +393,63 @@ public class F35Face extends CanvasWatchFaceService {
 
             // Whether the timer should be running depends on whether we're visible (as well as
             // whether we're in ambient mode), so we may need to start or stop the timer.
-            updateTimer();
+            updateFrameScheduler();
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
-            long now = System.currentTimeMillis();
-            mCalendar.setTimeInMillis(now);
-
-            int width = bounds.width();
-            int height = bounds.height();
-            CR = width/8f;
-            /*
-             * These calculations reflect the rotation in degrees per unit of time, e.g.,
-             * 360 / 60 = 6 and 360 / 12 = 30.
-             */
-            float seconds =
-                    (mCalendar.get(Calendar.SECOND) + mCalendar.get(Calendar.MILLISECOND) / 1000f);
-
-            //if chrono change seconds value
-            if(LEFT_COMPLICATION_MODE == CHRONO || RIGHT_COMPLICATION_MODE == CHRONO) {
-                if (stopWatch.running) {
-                    seconds = (float)stopWatch.getElapsedTimeSecs()+ (float)stopWatch.getElapsedTimeMillis() / 1000f;
-                }else if(stopWatch.paused){
-                    seconds = lastStopWatchSecondsValue+lastMillisValue/1000f;
-                }else seconds = 0;
-            }
-
-            final float secondsRotation = seconds * 6f;
-
-            final float minutesRotation = mCalendar.get(Calendar.MINUTE) * 6f;
-
-            final float hourHandOffset = mCalendar.get(Calendar.MINUTE) / 2f;
-            final float hoursRotation = (mCalendar.get(Calendar.HOUR) * 30) + hourHandOffset;
-
-            //BACKGROUND
-            if(bg == null) return;//wait unti bg is ready
-            Rect src = new Rect(0,0, bg.getWidth(), bg.getHeight());
-            canvas.drawBitmap(bg, src, bounds, whiteFillPaint);
-
-            //Accent triangle
-            if(!mAmbient) {
-                drawTopTriangle(canvas, width, height);
-            }
-
-            //LOGO TEXT
-            if(!mAmbient) {
-                float smallSize = ScreenUtils.getScreenWidth(getApplicationContext())/20f;
-                float normalSize = ScreenUtils.getScreenWidth(getApplicationContext())/17f;
-                logoTextPaint.setTypeface(monospacedTypeface);
-                logoTextPaint.setTextSize(normalSize);
-                if (stopWatch.running) {
-                    drawTextLogo(canvas, stopWatch.toString() + "." + String.format("%03d", stopWatch.getElapsedTimeMillis()), width, height);
-                } else if (stopWatch.paused) {
-                    drawTextLogo(canvas, lastStopWatchValue + "." + lastMillisValue, width, height);
-                } else {
-                    logoTextPaint.setTypeface(logoTypeface);
-                    logoTextPaint.setTextSize(smallSize);
-                    drawTextLogo(canvas, "AIRHERO", width, height);
-                }
-            }
-            //END LOGO TEXT
-
-            //COMPLICATIONS
-            if(!mAmbient) {
-                //left bottom
-                drawLeftComplication(canvas, width, height);
-                //right bottom
-                drawRightComplication(canvas, width, height);
-            }
-            //END COMPLICATIONS
-
-            //Hands sizes and round rect readius
-            int RR = ScreenUtils.convertDpToPixels(getApplicationContext(), 10);
-            int RRradius = (int)((width/2f)/30);
-
-            //Minutes hand
-            canvas.save();
-            canvas.rotate(minutesRotation, width / 2, width / 2);
-            canvas.drawRoundRect(width / 2 - RRradius, (height / 2F) * 0.20F, width / 2 + RRradius, (height / 2f) * 0.85F, RR, RR, mSecondsCirclePaint);
-            canvas.drawLine(width / 2, height / 2, width / 2, (height / 2F) * 0.20F, mDarkSecondsCirclePaint);
-            canvas.restore();
-            //END Minutes hands
-
-            //Hours hand
-            canvas.save();
-            canvas.rotate(hoursRotation, width / 2, width / 2);
-            canvas.drawRoundRect(width / 2 - RRradius, (height / 2F) * 0.35F, width / 2 + RRradius, (height / 2f) * 0.85F, RR, RR, mSecondsCirclePaint);
-            canvas.drawLine(width / 2, height / 2, width / 2, (height / 2F) * 0.35F, mDarkSecondsCirclePaint);
-            if (!mAmbient) {
-                canvas.drawCircle(width / 2, (height / 2F) * 0.38F, ScreenUtils.convertDpToPixels(getApplicationContext(), 2.5F), accentFillPaint);
-            }
-            canvas.restore();
-            //END Hours hand
-
-            //Center circle
-            canvas.drawCircle(width / 2, height / 2, ScreenUtils.convertDpToPixels(getApplicationContext(), 6), mDarkSecondsCirclePaint);
-
-            //Seconds hand
-            if(!mAmbient) {
-                canvas.save();
-                canvas.rotate(secondsRotation, width / 2, width / 2);
-                accentFillPaint.setStyle(Paint.Style.STROKE);
-                canvas.drawLine(width / 2, height / 2 + (height / 15) * 2f, width / 2, (height / 25), accentFillPaint);
-                accentFillPaint.setStyle(Paint.Style.FILL);
-                canvas.restore();
-            }
-            //END seconds hand
-
-            //Red center circle
-            if(!mAmbient && NIGHT_MODE == NIGHT_MODE_OFF) {
-                canvas.drawCircle(width / 2, height / 2, ScreenUtils.convertDpToPixels(getApplicationContext(), 3.5f), accentFillPaint);
-            }else if(!mAmbient && NIGHT_MODE == NIGHT_MODE_ON) {
-                canvas.drawCircle(width / 2, height / 2, ScreenUtils.convertDpToPixels(getApplicationContext(), 3.5f), accentFillPaint);
-            }
-            else if(mAmbient && NIGHT_MODE == NIGHT_MODE_OFF){
-                canvas.drawCircle(width / 2, height / 2, ScreenUtils.convertDpToPixels(getApplicationContext(), 3.5f), blackFillPaint);
-            }else if(mAmbient && NIGHT_MODE == NIGHT_MODE_ON){
-                canvas.drawCircle(width / 2, height / 2, ScreenUtils.convertDpToPixels(getApplicationContext(), 3.5f), blackFillPaint);
-            }
-
-        }
-
-        private void drawLeftComplication(Canvas canvas, int width, int height) {
-            float LX = width*0.3530f;
-            float LY = height*0.6220f;
-
-            if(LEFT_COMPLICATION_MODE == CHRONO
-                    || RIGHT_COMPLICATION_MODE == CHRONO) {
-                String text = "START";
-                if(stopWatch.running) text = "PAUSE";
-                else if(stopWatch.paused) text = "RESUME";
-                drawStopWatch(canvas, text, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == MOON) {
-                drawMoonPhase(canvas, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == WEEK_DAYS_BATTERY) {
-                drawWeekDays(canvas, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == COORDINATES) {
-                drawCoordinates(canvas, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == MONTH_AND_DAY) {
-                drawMonthAndDay(canvas, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == MONTH_AND_YEAR) {
-                drawMonthAndYear(canvas, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == WEAR_BATTERY) {
-                drawBatteryWear(canvas, width, height, LX, LY);
-            }else if(LEFT_COMPLICATION_MODE == SECONDARY_TIMEZONE) {
-                drawSecondTimezone(canvas, width, height, LX, LY);
-            }
-        }
-
-        private void drawRightComplication(Canvas canvas, int width, int height) {
-            float RX = height*0.6420f;
-            float RY = height*0.6220f;
-
-            //draw bg circle
-            //canvas.drawCircle(RX,RY,CR,blackFillPaint);
-            if(LEFT_COMPLICATION_MODE == CHRONO
-                    || RIGHT_COMPLICATION_MODE == CHRONO) {
-                String text = "STOP";
-                drawStopWatch(canvas, text, width, height, RX, RY);
-            }
-            else if(RIGHT_COMPLICATION_MODE == MOON) {
-                drawMoonPhase(canvas, width, height, RX, RY);
-            }else if(RIGHT_COMPLICATION_MODE == WEEK_DAYS_BATTERY) {
-                drawWeekDays(canvas, width, height, RX, RY);
-            }else if(RIGHT_COMPLICATION_MODE == COORDINATES) {
-                drawCoordinates(canvas, width, height, RX, RY);
-            }else if(RIGHT_COMPLICATION_MODE == MONTH_AND_DAY) {
-                drawMonthAndDay(canvas, width, height, RX, RY);
-            }else if(RIGHT_COMPLICATION_MODE == MONTH_AND_YEAR) {
-                drawMonthAndYear(canvas, width, height, RX, RY);
-            }else if(RIGHT_COMPLICATION_MODE == WEAR_BATTERY) {
-                drawBatteryWear(canvas, width, height, RX, RY);
-            }else if(RIGHT_COMPLICATION_MODE == SECONDARY_TIMEZONE) {
-                drawSecondTimezone(canvas, width, height, RX, RY);
-            }
+            mFrameScheduler.onFrameDrawn();
+            mRenderer.draw(canvas, bounds, System.currentTimeMillis(), SystemClock.elapsedRealtimeNanos(), mFrameStats);
         }
 
-        private void drawBatteryWear(Canvas canvas, int width, int height,  float CX, float CY) {
-            //Battery level
-            int batteryPercentage = getBatteryLevel();
-            int deg = batteryPercentage * 360 /100;
-            canvas.save();
-            canvas.rotate(-90, CX, CY);
-            complicationArcBatteryPaint.setAlpha(40);
-            float RP = 0.7f;
-            canvas.drawArc(new RectF(CX - CR * RP, CY - CR * RP, CX + CR * RP, CY + CR * RP), 0, 360, false, complicationArcBatteryPaint);
-            complicationArcBatteryPaint.setAlpha(255);
-            canvas.drawArc(new RectF(CX - CR * RP, CY - CR * RP, CX + CR * RP, CY + CR * RP), 0, deg, false, complicationArcBatteryPaint);
-            canvas.restore();
-
-            //Day number
-            String perc = batteryPercentage+"%";
-            Rect bounds = new Rect();
-            int previousColor = normalTextPaint.getColor();
-            normalTextPaint.setColor(whiteFillPaint.getColor());
-            normalTextPaint.getTextBounds(perc, 0, perc.length(), bounds);
-            canvas.drawText(perc, CX, CY + bounds.height() / 2, normalTextPaint);
-            normalTextPaint.setColor(previousColor);
-        }
-
-        private void drawWeekDays(Canvas canvas, int width, int height,  float CX, float CY) {
-
-            String[] days =getWeekDaysSymbols();
-            Path rPath = new Path();
-            rPath.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            for(int i=0; i<days.length; i++) {
-
-                if(days[i] == null || days[i].equalsIgnoreCase("")) continue;
-
-                canvas.save();
-                canvas.rotate(i * 51.4f, CX, CY);
-                int previousColor = smallTextPaint.getColor();
-                if(days[i].toUpperCase().equalsIgnoreCase(getWeekDay())) {
-                    smallTextPaint.setColor(accentFillPaint.getColor());
-                }else {
-                    smallTextPaint.setColor(previousColor);
-                }
-                canvas.drawTextOnPath(days[i].toUpperCase(), rPath, 0, 0, smallTextPaint);
-                smallTextPaint.setColor(previousColor);
-                canvas.restore();
+        /**
+         * Prints the frame rate and, when enabled, the frame timing.
+         */
+        void dump(PrintWriter writer) {
+            writer.println("Complications: left " + COMPLICATION_NAMES[LEFT_COMPLICATION_MODE]
+                    + ", right " + COMPLICATION_NAMES[RIGHT_COMPLICATION_MODE]);
+            FrameScheduler scheduler = mFrameScheduler;
+            if(scheduler != null) {
+                writer.println(String.format("Frame rate: %.1f fps, target %d fps, missed deadlines: %d",
+                        scheduler.getFps(), FrameScheduler.getTargetFps(scheduler.getMode()),
+                        scheduler.getMissedDeadlines()));
+            }
+            LocationSync locationSync = mLocationSync;
+            if(locationSync != null) locationSync.dump(writer);
+            if(mFrameStats.isEnabled()) {
+                mFrameStats.dump(writer, COMPLICATION_NAMES);
+            }else {
+                writer.println("Frame timing disabled, enable with: adb shell setprop log.tag."
+                        + FRAME_STATS_TAG + " VERBOSE, then set the watch face again");
             }
-
-            //Battery level
-            int batteryPercentage = getBatteryLevel();
-            int deg = batteryPercentage * 360 /100;
-            canvas.save();
-            canvas.rotate(-90, CX, CY);
-            canvas.drawArc(new RectF(CX - CR * 0.5f, CY - CR * 0.5f, CX + CR * 0.5f, CY + CR * 0.5f), 0, deg, false, complicationArcAccentPaint);
-            canvas.restore();
-
-            //Day number
-            String dayNumber = getDayNumber();
-            Rect bounds = new Rect();
-            int previousColor = normalTextPaint.getColor();
-            normalTextPaint.setColor(whiteFillPaint.getColor());
-            normalTextPaint.getTextBounds(dayNumber, 0, dayNumber.length(), bounds);
-            canvas.drawText(dayNumber, CX, CY + bounds.height() / 2, normalTextPaint);
-            normalTextPaint.setColor(previousColor);
         }
 
-        long lastLocationTs = -1;
-        private void drawCoordinates(Canvas canvas, int width, int height,  float CX, float CY) {
+        /**
+         * Computes today's sunrise and sunset again if the day, the location cell or the time zone
+         * changed, and schedules the rollover at the next local midnight while visible. Called on
+         * location and time zone changes, never while drawing.
+         */
+        private void updateSolarDay() {
+            mSolarDayHandler.removeCallbacks(mSolarDayRollover);
             long now = System.currentTimeMillis();
-            //phone message only every 5min at least
-            if(lastLocationTs == -1 || now - lastLocationTs > 60000*5) {
-                fireMessage(LAST_KNOW_GPS_POSITION);
-            }
-
-            //draw
-            canvas.save();
-            canvas.rotate(90, CX, CY);
-            Path path = new Path();
-            path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            canvas.drawTextOnPath("LATITUDE AND LONGITUDE", path, 0, 0, smallTextPaint);
-            canvas.restore();
-
-            String coord = lastKnowCoordinates;
-            String[] parts = coord.split("/");
-            String lat = parts[0].trim();
-            String lon = parts[1].trim();
-            Rect bounds = new Rect();
-            int previousColor = normalTextPaint.getColor();
-            normalTextPaint.getTextBounds(lat, 0, lat.length(), bounds);
-            normalTextPaint.setColor(whiteFillPaint.getColor());
-            canvas.drawText(lat, CX, CY, normalTextPaint);
-            canvas.drawText(lon, CX, CY+bounds.height()+4, normalTextPaint);
-            normalTextPaint.setColor(previousColor);
-        }
-
-        private String lastStopWatchValue = "";
-        private int lastMillisValue = 0;
-        private int lastStopWatchSecondsValue = 0;
-        private void drawStopWatch(Canvas canvas, String text, int width, int height,  float CX, float CY) {
-            //draw
-            canvas.save();
-            canvas.rotate(90, CX, CY);
-            Path path = new Path();
-            path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            canvas.drawTextOnPath("CHRONO", path, 0, 0, smallTextPaint);
-            canvas.restore();
-
-            Rect bounds = new Rect();
-            normalTextPaint.getTextBounds(text, 0, text.length(), bounds);
-            canvas.drawText(text, CX, CY + bounds.height() / 2, chronoPaint);
-        }
-
-        private void drawMonthAndDay(Canvas canvas, int width, int height, float CX, float CY) {
-
-            //left bottom
-            //canvas.drawCircle(LX, LY, CR, mSecondsCirclePaint);
-            canvas.save();
-            canvas.rotate(90, CX, CY);
-            Path path = new Path();
-            path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            canvas.drawTextOnPath(getMonthExtended(), path, 0, 0, smallTextPaint);
-            canvas.restore();
-
-            String dayNumber = getDayNumber();
-            Rect bounds = new Rect();
-            int previousColor = largeTextPaint.getColor();
-            largeTextPaint.getTextBounds(dayNumber, 0, dayNumber.length(), bounds);
-            largeTextPaint.setColor(whiteFillPaint.getColor());
-            canvas.drawText(dayNumber, CX, CY + bounds.height() / 2, largeTextPaint);
-            largeTextPaint.setColor(previousColor);
-        }
-
-        private void drawSecondTimezone(Canvas canvas, int width, int height, float CX, float CY) {
-
-            String timezoneID = secondTimezoneId==null?"GMT":secondTimezoneId;
-
-            TimeZone tz = TimeZone.getTimeZone(timezoneID);
-            if(tz == null) tz = TimeZone.getDefault();
-            Calendar tzCalendar = Calendar.getInstance(tz);
-            /* DIGITAL
-            String displayName = tz.getDisplayName(false, TimeZone.LONG, Locale.getDefault());
-            canvas.save();
-            canvas.rotate(90, CX, CY);
-            Path path = new Path();
-            path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            canvas.drawTextOnPath(displayName, path, 0, 0, smallTextPaint);
-            canvas.restore();
-
-
-            Calendar c = Calendar.getInstance(tz);
-            String time = String.format("%02d" , c.get(Calendar.HOUR_OF_DAY))+":"+
-                    String.format("%02d" , c.get(Calendar.MINUTE));
-
-            Rect bounds = new Rect();
-            int previousColor = largeTextPaint.getColor();
-            largeTextPaint.getTextBounds(time, 0, time.length(), bounds);
-            largeTextPaint.setColor(whiteFillPaint.getColor());
-            canvas.drawText(time, CX, CY + bounds.height() / 2, largeTextPaint);
-            largeTextPaint.setColor(previousColor);
-            */
-
-            //ANALOG
-            final float minutesRotation = tzCalendar.get(Calendar.MINUTE) * 6f;
-
-            final float hourHandOffset = tzCalendar.get(Calendar.MINUTE) / 2f;
-            final float hoursRotation = (tzCalendar.get(Calendar.HOUR) * 30) + hourHandOffset;
-
-            //int RR = ScreenUtils.convertDpToPixels(getApplicationContext(), 3);
-            int RRradius = (int)((width/2f)/120);
-            if(RRradius <= 0)RRradius =1;
-
-            //Minutes hand
-            canvas.save();
-            canvas.rotate(minutesRotation, CX, CY);
-            canvas.drawLine(CX, CY, CX, CY-CR*0.8F, secondTimezoneStrokePaint);
-            canvas.restore();
-            //END Minutes hands
-
-            //Hours hand
-            canvas.save();
-            canvas.rotate(hoursRotation, CX, CY);
-            canvas.drawLine(CX, CY, CX, CY-CR*0.6F, secondTimezoneStrokePaint);
-            canvas.restore();
-
-            canvas.drawCircle(CX,CY,RRradius,blackFillPaint);
-
-            //draw ticks
-            for(int i=0; i<360; i+=18) {
-                canvas.save();
-                canvas.rotate(i, CX, CY);
-                canvas.drawLine(CX,CY-CR*0.85f,CX,CY-CR*0.95f,smallTextPaint);
-                canvas.restore();
+            if(mRenderer.updateSolarDay(now, TimeZone.getDefault())) {
+                mFrameScheduler.requestFrame();
             }
-        }
-
-        private void drawMoonPhase(Canvas canvas, int W, int H, float CX, float CY) {
-
-            //left bottom
-            //canvas.drawCircle(LX, LY, CR, mSecondsCirclePaint);
-            canvas.save();
-            canvas.rotate(90, CX, CY);
-            Path path = new Path();
-            path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            canvas.drawTextOnPath("MOON PHASE", path, 0, 0, smallTextPaint);
-            canvas.restore();
-
-            //DRAW MOON
-            // Create new each time so it is update on every redraw.
-            StarDate date = new StarDate();
-
-            int width = (int)CR;
-            int height = (int)CR;
-            double phaseAngle = new MoonPhase().getPhaseAngle(date);
-
-            int xcenter = (int)CX;
-            int ycenter = (int)CY;
-
-            int moonradius= (int) (Math.min(width, height) * .4);
-            // draw the whole moon disk, in moonColor:
-            RectF oval = new RectF();
-            oval.set(xcenter - moonradius, ycenter - moonradius, xcenter
-                    + moonradius, ycenter + moonradius);
-            canvas.drawOval(oval, whiteFillPaint);
-
-
-            /* The phase angle is the angle sun-moon-earth,
-             so 0 = full phase, 180 = new.
-             What we're actually interested in for drawing purposes
-             is the position angle of the sunrise terminator,
-             which runs the opposite direction from the phase angle,
-             so we have to convert. */
-            double positionAngle = Math.PI - phaseAngle;
-            if (positionAngle < 0.)
-                positionAngle += 2. * Math.PI;
-
-            // Okay, now fill in the dark part.
-
-            double cosTerm = Math.cos(positionAngle);
-            //if (cosTerm < 0) cosTerm = -cosTerm;
-            moonradius+=1;//FIX WHITE BEHIND EDGES
-            double rsquared = moonradius * moonradius;
-            int whichQuarter = ((int) (positionAngle * 2. / Math.PI) + 4) % 4;
-            int j;
-
-            for (j = 0; j <= moonradius; ++j) {
-                double rrf = Math.sqrt(rsquared - j * j);
-                int rr = (int) (rrf + .5);
-                int xx = (int) (rrf * cosTerm);
-                int x1 = xcenter - (whichQuarter < 2 ? rr : xx);
-                int w = rr + xx + 1;
-                canvas.drawRect(x1, ycenter - j, w + x1, ycenter - j + 1, darkGrayFillPaint);
-                canvas.drawRect(x1, ycenter + j, w + x1, ycenter + j + 1, darkGrayFillPaint);
+            SolarDayCache solarDay = mRenderer.getSolarDay();
+            if(isVisible() && solarDay.hasEvents()) {
+                mSolarDayHandler.postDelayed(mSolarDayRollover, Math.max(0, solarDay.getValidUntil() - now));
             }
-            //END DRAW MOON
-
-            //Draw moon age
-            com.marcouberti.f35watchface.utils.moonage.MoonPhase moonAge = new com.marcouberti.f35watchface.utils.moonage.MoonPhase(Calendar.getInstance());
-            moonAge.getPhase();
-            String age = moonAge.getMoonAgeAsDays();
-
-            canvas.save();
-            canvas.rotate(-90, CX, CY);
-            Path pathAge = new Path();
-            pathAge.addCircle(CX, CY, CR * 0.9f, Path.Direction.CCW);
-            canvas.drawTextOnPath(age, pathAge, 0, 0, smallTextPaint);
-            canvas.restore();
         }
 
-        private void drawMonthAndYear(Canvas canvas, int width, int height, float CX, float CY) {
-
-            //left bottom
-            //canvas.drawCircle(LX, LY, CR, mSecondsCirclePaint);
-            canvas.save();
-            canvas.rotate(90, CX, CY);
-            Path path = new Path();
-            path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
-            canvas.drawTextOnPath(getMonthExtended(), path, 0, 0, smallTextPaint);
-            canvas.restore();
-
-            String year = getYear();
-            Rect bounds = new Rect();
-            int previousColor = mediumTextPaint.getColor();
-            mediumTextPaint.setColor(whiteFillPaint.getColor());
-            mediumTextPaint.getTextBounds(year, 0, year.length(), bounds);
-            canvas.drawText(year, CX, CY + bounds.height() / 2, mediumTextPaint);
-            mediumTextPaint.setColor(previousColor);
-        }
-
-        private void drawTopTriangle(Canvas canvas, int width, int height) {
-            int TS = ScreenUtils.convertDpToPixels(getApplicationContext(), 5);
-            if(!mIsRound) {
-                TS = ScreenUtils.convertDpToPixels(getApplicationContext(), 3.5f);
+        /**
+         * Loads the configured world clock zones, or the secondary time zone alone when none is.
+         */
+        private void updateWorldClockZones() {
+            if(worldClockZoneIds != null && worldClockZoneIds.length > 0) {
+                mRenderer.setWorldClockZones(worldClockZoneIds);
+            }else {
+                mRenderer.setWorldClockZones(new String[]{secondTimezoneId == null ? "GMT" : secondTimezoneId});
             }
-            Path minutesPath = new Path();
-            minutesPath.moveTo((width / 2), (height / 2) * 0.31f);
-            minutesPath.lineTo((width / 2) - TS, (height / 2) * 0.3f - TS * 1.9F);
-            minutesPath.lineTo((width / 2) + TS, (height / 2) * 0.3f - TS * 1.9F);
-            minutesPath.lineTo((width / 2), (height / 2) * 0.31f);
-            minutesPath.close();
-            int previousColor = accentFillPaint.getColor();
-            if(NIGHT_MODE == NIGHT_MODE_ON) accentFillPaint.setColor(getResources().getColor(R.color.night_mode));
-            canvas.drawPath(minutesPath, accentFillPaint);
-            accentFillPaint.setColor(previousColor);
-        }
-
-        private void drawTextLogo(Canvas canvas, String text, int width, int height) {
-            canvas.drawText(text, width / 2, (height / 2) * 0.80f, logoTextPaint);
-        }
-
-        private String[] getWeekDaysSymbols(){
-            DateFormatSymbols symbols = new DateFormatSymbols();
-            String[] dayNames = symbols.getShortWeekdays();
-            return dayNames;
-        }
-
-        private String getWeekDay() {
-            return new SimpleDateFormat("EEE").format(Calendar.getInstance().getTime()).toUpperCase();
         }
 
         @Override
@@ -861,8 +469,13 @@ public class F35Face extends CanvasWatchFaceService {
                 // Update time zone in case it changed while we weren't visible.
                 mTime.clear(TimeZone.getDefault().getID());
                 mTime.setToNow();
+                mRenderer.setTimeZone(TimeZone.getDefault());
+                updateSolarDay();
+                //the clock or the zone may have changed while the receiver was unregistered
+                mRenderer.invalidateAll();
             } else {
                 unregisterReceiver();
+                mSolarDayHandler.removeCallbacks(mSolarDayRollover);
                 if (mGoogleApiClient != null && mGoogleApiClient.isConnected()) {
                     Wearable.DataApi.removeListener(mGoogleApiClient, this);
                     Wearable.MessageApi.removeListener(mGoogleApiClient, this);
@@ -872,7 +485,8 @@ public class F35Face extends CanvasWatchFaceService {
 
             // Whether the timer should be running depends on whether we're visible (as well as
             // whether we're in ambient mode), so we may need to start or stop the timer.
-            updateTimer();
+            updateFrameScheduler();
+            updateLocationSync();
             updateBackground();
         }
 
@@ -903,6 +517,7 @@ public class F35Face extends CanvasWatchFaceService {
         private void updateTranscriptionCapability(CapabilityInfo capabilityInfo) {
             Set<Node> connectedNodes = capabilityInfo.getNodes();
             phoneNodeId = pickBestNodeId(connectedNodes);
+            if(phoneNodeId != null) mLocationSync.onPhoneReachable();
         }
 
         private String pickBestNodeId(Set<Node> nodes) {
@@ -917,27 +532,33 @@ public class F35Face extends CanvasWatchFaceService {
             return bestNodeId;
         }
 
-        protected void fireMessage(final String command) {
-            if (phoneNodeId == null) {
-                //bad, we cannot send message
-            } else {
-                //fire the message to the first connected node in list
-                Log.d(TAG, "Sending message to Node with ID: " + phoneNodeId);
-
-                PendingResult<MessageApi.SendMessageResult> messageResult = Wearable.MessageApi.sendMessage(mGoogleApiClient, phoneNodeId, command, null);
-                messageResult.setResultCallback(new ResultCallback<MessageApi.SendMessageResult>() {
-                    @Override
-                    public void onResult(MessageApi.SendMessageResult sendMessageResult) {
-                        Status status = sendMessageResult.getStatus();
-                        Log.d(TAG, "Status: " + status.toString());
-                        if (status.getStatusCode() != WearableStatusCodes.SUCCESS) {
-                            Log.e(TAG,"Something go wrong during sending command... "+command);
-                        } else {
-                            Log.d(TAG,"Message sent successfully to node. "+command);
-                        }
-                    }
-                });
+        /**
+         * @return false if no phone is connected, the message was not sent
+         */
+        protected boolean fireMessage(final String command) {
+            String nodeId = phoneNodeId;
+            if (nodeId == null || !mGoogleApiClient.isConnected()) {
+                return false;
             }
+            //fire the message to the first connected node in list
+            if (Log.isLoggable(TAG, Log.DEBUG)) {
+                Log.d(TAG, "Sending message to Node with ID: " + nodeId);
+            }
+
+            PendingResult<MessageApi.SendMessageResult> messageResult = Wearable.MessageApi.sendMessage(mGoogleApiClient, nodeId, command, null);
+            messageResult.setResultCallback(new ResultCallback<MessageApi.SendMessageResult>() {
+                @Override
+                public void onResult(MessageApi.SendMessageResult sendMessageResult) {
+                    Status status = sendMessageResult.getStatus();
+                    if (status.getStatusCode() != WearableStatusCodes.SUCCESS) {
+                        Log.e(TAG,"Something go wrong during sending command... "+command);
+                        if(LAST_KNOW_GPS_POSITION.equals(command)) mLocationSync.onRequestFailed();
+                    } else if (Log.isLoggable(TAG, Log.DEBUG)) {
+                        Log.d(TAG,"Message sent successfully to node. "+command);
+                    }
+                }
+            });
+            return true;
         }
 
         private void registerReceiver() {
@@ -946,7 +567,10 @@ public class F35Face extends CanvasWatchFaceService {
             }
             mRegisteredTimeZoneReceiver = true;
             IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
+            filter.addAction(Intent.ACTION_LOCALE_CHANGED);
             F35Face.this.registerReceiver(mTimeZoneReceiver, filter);
+            mBatteryState.register(F35Face.this);
         }
 
         private void unregisterReceiver() {
@@ -955,38 +579,34 @@ public class F35Face extends CanvasWatchFaceService {
             }
             mRegisteredTimeZoneReceiver = false;
             F35Face.this.unregisterReceiver(mTimeZoneReceiver);
+            mBatteryState.unregister(F35Face.this);
         }
 
         /**
-         * Starts the {@link #mUpdateTimeHandler} timer if it should be running and isn't currently
-         * or stops it if it shouldn't be running but currently is.
+         * Picks the frame rate for what is on screen, and stops the frames altogether unless
+         * visible and interactive.
          */
-        private void updateTimer() {
-            mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
-            if (shouldTimerBeRunning()) {
-                mUpdateTimeHandler.sendEmptyMessage(MSG_UPDATE_TIME);
-            }
+        private void updateFrameScheduler() {
+            mFrameScheduler.setMode(stopWatch.running ? FrameScheduler.MODE_CHRONO : FrameScheduler.MODE_TICK);
+            mFrameScheduler.setActive(isVisible() && !isInAmbientMode());
         }
 
         /**
-         * Returns whether the {@link #mUpdateTimeHandler} timer should be running. The timer should
-         * only run when we're visible and in interactive mode.
+         * Keeps the location in sync with the phone while visible with a complication that shows
+         * it, the chrono hides both.
          */
-        private boolean shouldTimerBeRunning() {
-            return isVisible() && !isInAmbientMode();
+        private void updateLocationSync() {
+            boolean shown = false;
+            if(LEFT_COMPLICATION_MODE != CHRONO && RIGHT_COMPLICATION_MODE != CHRONO) {
+                ComplicationRegistry complications = mRenderer.getComplications();
+                shown = showsLocation(complications.get(LEFT_COMPLICATION_MODE))
+                        || showsLocation(complications.get(RIGHT_COMPLICATION_MODE));
+            }
+            mLocationSync.setActive(isVisible() && shown);
         }
 
-        /**
-         * Handle updating the time periodically in interactive mode.
-         */
-        private void handleUpdateTimeMessage() {
-            invalidate();
-            if (shouldTimerBeRunning()) {
-                long timeMs = System.currentTimeMillis();
-                long delayMs = INTERACTIVE_UPDATE_RATE_MS
-                        - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
-                mUpdateTimeHandler.sendEmptyMessageDelayed(MSG_UPDATE_TIME, delayMs);
-            }
+        private boolean showsLocation(ComplicationRenderer renderer) {
+            return renderer != null && (renderer.getInputs() & ComplicationRenderer.INPUT_LOCATION) != 0;
         }
 
 
@@ -1025,6 +645,10 @@ public class F35Face extends CanvasWatchFaceService {
                 }
 
                 DataItem dataItem = dataEvent.getDataItem();
+                if (dataItem.getUri().getPath().equals(WatchFaceUtil.PATH_LOCATION)) {
+                    onLocationDataItem(dataItem);
+                    continue;
+                }
                 if (!dataItem.getUri().getPath().equals(
                         WatchFaceUtil.PATH_WITH_FEATURE)) {
                     continue;
@@ -1061,10 +685,19 @@ public class F35Face extends CanvasWatchFaceService {
                     if (updateUiForKey(configKey, timeZoneId)) {
                         uiUpdated = true;
                     }
+                }else if(configKey.equalsIgnoreCase(WatchFaceUtil.KEY_WORLD_CLOCK_ZONES)) {
+                    String[] zoneIds = config.getStringArray(configKey);
+                    if (Log.isLoggable(TAG, Log.DEBUG)) {
+                        Log.d(TAG, "Found watch face config key: " + configKey + " -> " + Arrays.toString(zoneIds));
+                    }
+                    worldClockZoneIds = zoneIds;
+                    saveComplicationsState();
+                    updateWorldClockZones();
+                    uiUpdated = true;
                 }
             }
             if (uiUpdated) {
-                invalidate();
+                mFrameScheduler.requestFrame();
             }
         }
 
@@ -1088,6 +721,9 @@ public class F35Face extends CanvasWatchFaceService {
             if (configKey.equals(WatchFaceUtil.KEY_SECOND_TIMEZONE)) {
                 secondTimezoneId = value;
                 saveComplicationsState();
+                mRenderer.setSecondTimezone(value);
+                //stands in for the world clock zones while there are none
+                updateWorldClockZones();
             } else {
                 Log.w(TAG, "Ignoring unknown config key: " + configKey);
                 return false;
@@ -1110,6 +746,55 @@ public class F35Face extends CanvasWatchFaceService {
             }
             Wearable.DataApi.addListener(mGoogleApiClient, Engine.this);
             updateConfigDataItemAndUiOnStartup();
+            fetchLocationDataItem();
+        }
+
+        /**
+         * Picks up the location the phone pushed while the face was not listening, the newest if
+         * more than one phone did.
+         */
+        private void fetchLocationDataItem() {
+            Uri uri = new Uri.Builder()
+                    .scheme("wear")
+                    .path(WatchFaceUtil.PATH_LOCATION)
+                    .build();
+            Wearable.DataApi.getDataItems(mGoogleApiClient, uri).setResultCallback(new ResultCallback<DataItemBuffer>() {
+                @Override
+                public void onResult(DataItemBuffer dataItems) {
+                    try {
+                        DataItem newest = null;
+                        long newestTime = Long.MIN_VALUE;
+                        for (DataItem dataItem : dataItems) {
+                            long time = getPublishedTime(DataMapItem.fromDataItem(dataItem).getDataMap());
+                            if (time > newestTime) {
+                                newest = dataItem;
+                                newestTime = time;
+                            }
+                        }
+                        if (newest != null) onLocationDataItem(newest);
+                    } finally {
+                        dataItems.release();
+                    }
+                }
+            });
+        }
+
+        private void onLocationDataItem(DataItem dataItem) {
+            DataMap location = DataMapItem.fromDataItem(dataItem).getDataMap();
+            LocationFix fix = new LocationFix(location.getInt(WatchFaceUtil.KEY_LATITUDE_E7),
+                    location.getInt(WatchFaceUtil.KEY_LONGITUDE_E7),
+                    location.getLong(WatchFaceUtil.KEY_LOCATION_TIME));
+            mLocationSync.onPushedLocation(fix.getLatitude(), fix.getLongitude(),
+                    System.currentTimeMillis() - getPublishedTime(location));
+        }
+
+        /**
+         * @return when the phone last pushed the location, the time of the fix from a phone app
+         *         that does not push it again
+         */
+        private long getPublishedTime(DataMap location) {
+            return location.getLong(WatchFaceUtil.KEY_LOCATION_PUBLISHED,
+                    location.getLong(WatchFaceUtil.KEY_LOCATION_TIME));
         }
 
         @Override  // GoogleApiClient.ConnectionCallbacks
@@ -1128,32 +813,28 @@ public class F35Face extends CanvasWatchFaceService {
 
         @Override
         public void onMessageReceived(MessageEvent messageEvent) {
-            Log.v("WEAR", "In onMessageReceived()");
-
             if (messageEvent.getPath().contains(LAST_KNOW_GPS_POSITION)) {
                 try {
-                    Log.d(TAG, "Received message " + LAST_KNOW_GPS_POSITION + " " + new String(messageEvent.getData()));
+                    LocationFix fix = LocationFix.fromBytes(messageEvent.getData());
+                    if (fix != null) {
+                        mLocationSync.onLocation(fix.getLatitude(), fix.getLongitude());
+                        return;
+                    }
+                    //"lat_lon" from a phone app older than the watch one
                     String rawData = new String(messageEvent.getData());
+                    if (Log.isLoggable(TAG, Log.DEBUG)) {
+                        Log.d(TAG, "Received message " + LAST_KNOW_GPS_POSITION + " " + rawData);
+                    }
                     String[] parts = rawData.split("_");
-                    lastKnowCoordinates = String.format("%.2f", Double.parseDouble(parts[0])) + " / " + String.format("%.2f", Double.parseDouble(parts[1]));
-                    lastLocationTs = System.currentTimeMillis();
+                    mLocationSync.onLocation(Double.parseDouble(parts[0]), Double.parseDouble(parts[1]));
                 }catch (Exception e) {Log.e(TAG,"Exception",e);}
-            }else {
             }
         }
 
 
         private void handleTouch(int x, int y) {
-            int W = ScreenUtils.getScreenWidth(getApplicationContext());
-            int H = ScreenUtils.getScreenHeight(getApplicationContext());
-            int DELTA_X = (int)(CR*1.5f);
-            int DELTA_Y = (int)(CR*1.5f);
-
-            float LX = W*0.3530f;
-            float LY = H*0.6220f;
-
-            float RX = W*0.6420f;
-            float RY = H*0.6220f;
+            FaceGeometry geometry = mGeometry;
+            if(geometry == null) return;
             //LEFT CENTER
             /*
             if(x <(W/4 + DELTA_X) && x >(W/4 - DELTA_X)) {
@@ -1181,20 +862,16 @@ public class F35Face extends CanvasWatchFaceService {
             }
             */
             //LEFT BOTTOM
-            if(x <(LX + DELTA_X) && x >(LX - DELTA_X)) {
-                if(y >(LY -DELTA_Y) && y <(LY +DELTA_Y)) {
-                    handleTouchLeftBottom();
-                    saveComplicationsState();
-                    return;
-                }
+            if(geometry.isInLeftComplication(x, y)) {
+                handleTouchLeftBottom();
+                saveComplicationsState();
+                return;
             }
             //RIGHT BOTTOM
-            if(x <(RX + DELTA_X) && x >(RX- DELTA_X)) {
-                if(y >(RY -DELTA_Y) && y <(RY +DELTA_Y)) {
-                    handleTouchRightBottom();
-                    saveComplicationsState();
-                    return;
-                }
+            if(geometry.isInRightComplication(x, y)) {
+                handleTouchRightBottom();
+                saveComplicationsState();
+                return;
             }
 
             handleTouchOther();
@@ -1203,10 +880,9 @@ public class F35Face extends CanvasWatchFaceService {
         private void handleTouchOther() {
 
             if(RIGHT_COMPLICATION_MODE == CHRONO || LEFT_COMPLICATION_MODE == CHRONO) {
-                stopWatch.stop();
-                INTERACTIVE_UPDATE_RATE_MS = INTERACTIVE_UPDATE_RATE_MS_NORMAL;
+                stopStopWatch();
                 LEFT_COMPLICATION_MODE =MOON;
-                updateTimer();
+                updateFrameScheduler();
                 return;
             }
 
@@ -1220,115 +896,40 @@ public class F35Face extends CanvasWatchFaceService {
         }
 
         private void updateBackground() {
-            if(bg!=null && !bg.isRecycled()) bg.recycle();
-            //LOW RES WATCHES <=320px
-            if(ScreenUtils.getScreenWidth(getApplicationContext()) <= 320) {
-                if (!mAmbient) {
-                    if (NIGHT_MODE == NIGHT_MODE_ON) {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_night_320);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_night_320);
-                    } else {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_320);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_320);
-                    }
-                } else {
-                    if (NIGHT_MODE == NIGHT_MODE_ON) {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_ambient_night_320);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_night_ambient_320);
-                    } else {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_ambient_320);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_ambient_320);
-                    }
-                }
-            }
-            //HIGHER RES WATCHES >= 320px
-            else {
-                if (!mAmbient) {
-                    if (NIGHT_MODE == NIGHT_MODE_ON) {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_night);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_night);
-                    } else {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square);
-                    }
-                } else {
-                    if (NIGHT_MODE == NIGHT_MODE_ON) {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_ambient_night);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_night_ambient);
-                    } else {
-                        if (mIsRound)
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_ambient);
-                        else
-                            bg = BitmapFactory.decodeResource(getResources(), R.drawable.background_square_ambient);
-                    }
-                }
-            }
-
+            if(mGeometry == null) return;//picked up by onSurfaceChanged
+            boolean lowRes = mGeometry.isLowRes();
+            boolean night = NIGHT_MODE == NIGHT_MODE_ON;
+            mBackgroundKey = BackgroundBitmapCache.key(mIsRound, lowRes, mAmbient, night);
+            //keep drawing the current bg until the new one is decoded
+            Bitmap cached = mBackgroundCache.get(mBackgroundKey);
+            if(cached != null) mRenderer.setBackground(cached);
+            //keep the ambient/interactive counterpart ready for the next mode switch
+            mBackgroundCache.prefetch(mBackgroundKey ^ BackgroundBitmapCache.AMBIENT);
+
+            mRenderer.setMode(mAmbient, night);
             updatePaintColors();
         }
 
+        @Override
+        public void onBackgroundReady(int key, Bitmap bitmap) {
+            if(key != mBackgroundKey) return;//prefetched or stale variant
+            mRenderer.setBackground(bitmap);
+            mFrameScheduler.requestFrame();
+        }
+
         private void updatePaintColors() {
-            if(NIGHT_MODE == NIGHT_MODE_OFF) {
-                //accent colors
-                if(mAmbient) {
-                    accentFillPaint.setColor(Color.WHITE);
-                }else {
-                    accentFillPaint.setColor(GradientsUtils.getGradients(getApplicationContext(), selectedColorCode));
-                }
-                secondTimezoneStrokePaint.setColor(GradientsUtils.getGradients(getApplicationContext(), selectedColorCode));
-                chronoPaint.setColor(GradientsUtils.getGradients(getApplicationContext(), selectedColorCode));
-                complicationArcAccentPaint.setColor(GradientsUtils.getGradients(getApplicationContext(), selectedColorCode));
-                complicationArcBatteryPaint.setColor(GradientsUtils.getGradients(getApplicationContext(), selectedColorCode));
-                //white and gray colors
-                normalTextPaint.setColor(getResources().getColor(R.color.complications_gray));
-                smallTextPaint.setColor(getResources().getColor(R.color.complications_gray));
-                mediumTextPaint.setColor(getResources().getColor(R.color.complications_gray));
-                largeTextPaint.setColor(getResources().getColor(R.color.complications_gray));
-                logoTextPaint.setColor(Color.WHITE);
-                mSecondsCirclePaint.setColor(Color.WHITE);
-                mDarkSecondsCirclePaint.setColor(Color.WHITE);
-                whiteFillPaint.setColor(Color.WHITE);
-                darkGrayFillPaint.setColor(Color.DKGRAY);
-            }else {
-                //accent
-                int nightColor = getResources().getColor(R.color.night_mode);
-                accentFillPaint.setColor(Color.DKGRAY);
-                secondTimezoneStrokePaint.setColor(nightColor);
-                chronoPaint.setColor(nightColor);
-                complicationArcAccentPaint.setColor(Color.DKGRAY);
-                complicationArcBatteryPaint.setColor(Color.DKGRAY);
-                //white and gray colors
-                normalTextPaint.setColor(nightColor);
-                smallTextPaint.setColor(nightColor);
-                mediumTextPaint.setColor(nightColor);
-                largeTextPaint.setColor(nightColor);
-                logoTextPaint.setColor(nightColor);
-                mSecondsCirclePaint.setColor(nightColor);
-                mDarkSecondsCirclePaint.setColor(nightColor);
-                whiteFillPaint.setColor(nightColor);
-                //darkGrayFillPaint.setColor(nightColor);
-            }
+            mRenderer.setColors(GradientsUtils.getGradients(getApplicationContext(), selectedColorCode),
+                    getResources().getColor(R.color.complications_gray),
+                    getResources().getColor(R.color.night_mode));
+        }
 
-            //Ambient mode
-            if(mAmbient) {
-                mSecondsCirclePaint.setShadowLayer(0, 0, 0, Color.BLACK);
-            }else {
-                mSecondsCirclePaint.setShadowLayer(2, 1, 1, Color.BLACK);
-            }
+        /**
+         * Stops the run, its laps stay in the lap list until the next start.
+         */
+        private void stopStopWatch() {
+            if(!stopWatch.running && !stopWatch.paused) return;
+            stopWatch.stop();
+            mStopWatchLog.logStop(SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis());
         }
 
         private void handleTouchBottomCenter() {
@@ -1337,58 +938,46 @@ public class F35Face extends CanvasWatchFaceService {
 
         private void handleTouchRightBottom() {
             if(RIGHT_COMPLICATION_MODE == CHRONO || LEFT_COMPLICATION_MODE == CHRONO) {
-                    stopWatch.stop();
-                    //INTERACTIVE_UPDATE_RATE_MS = INTERACTIVE_UPDATE_RATE_MS_NORMAL;
+                if(stopWatch.running) {
+                    long now = SystemClock.elapsedRealtimeNanos();
+                    long split = stopWatch.getElapsedNanos(now);
+                    laps.add(split);
+                    mStopWatchLog.logLap(split, System.currentTimeMillis());
+                }else {
+                    stopStopWatch();
                     //LEFT_COMPLICATION_MODE =MOON;
-                    updateTimer();
+                    updateFrameScheduler();
+                }
+            }
+            else {
+                RIGHT_COMPLICATION_MODE = mRenderer.getComplications().next(ComplicationRegistry.SIDE_RIGHT, RIGHT_COMPLICATION_MODE);
             }
-            else if(RIGHT_COMPLICATION_MODE == MOON) RIGHT_COMPLICATION_MODE =WEEK_DAYS_BATTERY;
-            else if(RIGHT_COMPLICATION_MODE == WEEK_DAYS_BATTERY) RIGHT_COMPLICATION_MODE =COORDINATES;
-            else if(RIGHT_COMPLICATION_MODE == COORDINATES) RIGHT_COMPLICATION_MODE =MONTH_AND_DAY;
-            else if(RIGHT_COMPLICATION_MODE == MONTH_AND_DAY) RIGHT_COMPLICATION_MODE =MONTH_AND_YEAR;
-            else if(RIGHT_COMPLICATION_MODE == MONTH_AND_YEAR) RIGHT_COMPLICATION_MODE =WEAR_BATTERY;
-            else if(RIGHT_COMPLICATION_MODE == WEAR_BATTERY) RIGHT_COMPLICATION_MODE =SECONDARY_TIMEZONE;
-            else if(RIGHT_COMPLICATION_MODE == SECONDARY_TIMEZONE) RIGHT_COMPLICATION_MODE =MOON;
         }
 
         private void handleTouchLeftBottom() {
-            if(LEFT_COMPLICATION_MODE == MOON) LEFT_COMPLICATION_MODE =WEEK_DAYS_BATTERY;
-            else if(LEFT_COMPLICATION_MODE == WEEK_DAYS_BATTERY) LEFT_COMPLICATION_MODE =COORDINATES;
-            else if(LEFT_COMPLICATION_MODE == COORDINATES) LEFT_COMPLICATION_MODE =MONTH_AND_DAY;
-            else if(LEFT_COMPLICATION_MODE == MONTH_AND_DAY) LEFT_COMPLICATION_MODE =MONTH_AND_YEAR;
-            else if(LEFT_COMPLICATION_MODE == MONTH_AND_YEAR) LEFT_COMPLICATION_MODE =WEAR_BATTERY;
-            else if(LEFT_COMPLICATION_MODE == WEAR_BATTERY) LEFT_COMPLICATION_MODE =SECONDARY_TIMEZONE;
-            else if(LEFT_COMPLICATION_MODE == SECONDARY_TIMEZONE) LEFT_COMPLICATION_MODE =CHRONO;
-            else if(LEFT_COMPLICATION_MODE == CHRONO) {
-
-                String chrono;
-                int millis;
-                if(stopWatch.paused) {
-                    chrono = lastStopWatchValue;
-                    millis = lastMillisValue;
-                }else {
-                    chrono = stopWatch.toString();
-                    millis = (int)stopWatch.getElapsedTimeMillis();
-                    lastStopWatchValue = chrono;
-                    lastMillisValue = millis;
-                    lastStopWatchSecondsValue = (int)stopWatch.getElapsedTimeSecs();
-                }
-
+            if(LEFT_COMPLICATION_MODE == CHRONO) {
                 if(stopWatch.running) {
-                    stopWatch.pause();
-                    INTERACTIVE_UPDATE_RATE_MS = INTERACTIVE_UPDATE_RATE_MS_NORMAL;
-                    updateTimer();
+                    long now = SystemClock.elapsedRealtimeNanos();
+                    stopWatch.pause(now);
+                    mStopWatchLog.logPause(now, System.currentTimeMillis());
+                    updateFrameScheduler();
                 }else if(stopWatch.paused) {
-                    stopWatch.resume();
-                    INTERACTIVE_UPDATE_RATE_MS = INTERACTIVE_UPDATE_RATE_MS_STOPWATCH;
-                    updateTimer();
+                    long now = SystemClock.elapsedRealtimeNanos();
+                    stopWatch.resume(now);
+                    mStopWatchLog.logResume(now, System.currentTimeMillis());
+                    updateFrameScheduler();
                 }
                 else {
-                    stopWatch.start();
-                    INTERACTIVE_UPDATE_RATE_MS = INTERACTIVE_UPDATE_RATE_MS_STOPWATCH;
-                    updateTimer();
+                    long now = SystemClock.elapsedRealtimeNanos();
+                    stopWatch.start(now);
+                    laps.clear();
+                    mStopWatchLog.logStart(now, System.currentTimeMillis());
+                    updateFrameScheduler();
                 }
             }
+            else {
+                LEFT_COMPLICATION_MODE = mRenderer.getComplications().next(ComplicationRegistry.SIDE_LEFT, LEFT_COMPLICATION_MODE);
+            }
         }
 
     }
@@ -1398,6 +987,8 @@ public class F35Face extends CanvasWatchFaceService {
         RIGHT_COMPLICATION_MODE = SharedPreferencesHelper.get(getApplicationContext(),RIGHT_COMPLICATION_STATE,WEEK_DAYS_BATTERY);
         selectedColorCode = SharedPreferencesHelper.get(getApplicationContext(),ACCENT_COLOR_STATE,GradientsUtils.getGradients(getApplicationContext(), -1));
         secondTimezoneId = SharedPreferencesHelper.get(getApplicationContext(),SECOND_TIMEZONE_STATE,null);
+        String zoneIds = SharedPreferencesHelper.get(getApplicationContext(),WORLD_CLOCK_STATE,null);
+        worldClockZoneIds = TextUtils.isEmpty(zoneIds) ? null : TextUtils.split(zoneIds, ",");
     }
 
     private void saveComplicationsState() {
@@ -1407,58 +998,9 @@ public class F35Face extends CanvasWatchFaceService {
         if(secondTimezoneId != null) {
             SharedPreferencesHelper.save(getApplicationContext(), SECOND_TIMEZONE_STATE, secondTimezoneId);
         }
-    }
-
-    private static class EngineHandler extends Handler {
-        private final WeakReference<F35Face.Engine> mWeakReference;
-
-        public EngineHandler(F35Face.Engine reference) {
-            mWeakReference = new WeakReference<>(reference);
-        }
-
-        @Override
-        public void handleMessage(Message msg) {
-            F35Face.Engine engine = mWeakReference.get();
-            if (engine != null) {
-                switch (msg.what) {
-                    case MSG_UPDATE_TIME:
-                        engine.handleUpdateTimeMessage();
-                        break;
-                }
-            }
-        }
-    }
-
-    private String getYear() {
-        return new SimpleDateFormat("yyyy").format(Calendar.getInstance().getTime()).toUpperCase();
-    }
-
-    private String getMonth() {
-        return new SimpleDateFormat("MMM").format(Calendar.getInstance().getTime()).toUpperCase();
-    }
-
-    private String getMonthExtended() {
-        return new SimpleDateFormat("MMMM").format(Calendar.getInstance().getTime()).toUpperCase();
-    }
-
-    private String getDayNumber() {
-        return new SimpleDateFormat("d").format(Calendar.getInstance().getTime()).toUpperCase();
-    }
-
-    private String getWeekDay() {
-        return new SimpleDateFormat("EEE").format(Calendar.getInstance().getTime()).toUpperCase();
-    }
-
-    public int getBatteryLevel() {
-        Intent batteryIntent = registerReceiver(null, new IntentFilter(Intent.ACTION_BATTERY_CHANGED));
-        int level = batteryIntent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
-        int scale = batteryIntent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
-
-        // Error checking that probably isn't needed but I added just in case.
-        if(level == -1 || scale == -1) {
-            return 50;
+        if(worldClockZoneIds != null) {
+            //zone ids never contain a comma
+            SharedPreferencesHelper.save(getApplicationContext(), WORLD_CLOCK_STATE, TextUtils.join(",", worldClockZoneIds));
         }
-
-        return (int)(((float)level / (float)scale) * 100.0f);
     }
 }
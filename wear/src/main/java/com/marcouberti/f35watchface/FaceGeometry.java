@@ -0,0 +1,131 @@
+package com.marcouberti.f35watchface;
+
+/**
+ * Pixel layout of the face for a given surface: positions, radii, stroke widths, text sizes and
+ * tap regions. It is built once when the surface or the window insets change, so drawing and
+ * hit-testing read the very same numbers and no system service is queried while drawing.
+ */
+public final class FaceGeometry {
+
+    public final int width;
+    public final int height;
+    public final boolean round;
+    public final float density;
+
+    public final float centerX;
+    public final float centerY;
+
+    //complications
+    public final float complicationRadius;
+    public final float leftComplicationX;
+    public final float leftComplicationY;
+    public final float rightComplicationX;
+    public final float rightComplicationY;
+    public final float complicationTapHalfSize;
+    public final float secondTimezoneHubRadius;
+
+    //hands
+    public final float handCornerRadius;
+    public final float handHalfWidth;
+    public final float handStrokeWidth;
+    public final float minuteHandTop;
+    public final float hourHandTop;
+    public final float handBottom;
+    public final float hourHandDotY;
+    public final float hourHandDotRadius;
+    public final float secondHandTop;
+    public final float secondHandBottom;
+    public final float centerCircleRadius;
+    public final float centerDotRadius;
+
+    //accent triangle and logo
+    public final float triangleSize;
+    public final float triangleTipY;
+    public final float triangleBaseY;
+    public final float logoY;
+
+    //paints
+    public final float smallTextSize;
+    public final float normalTextSize;
+    public final float mediumTextSize;
+    public final float largeTextSize;
+    public final float logoTextSize;
+    public final float accentStrokeWidth;
+    public final float complicationArcAccentWidth;
+    public final float complicationArcBatteryWidth;
+
+    /**
+     * @param density the display density, as in {@code DisplayMetrics#density}
+     */
+    public FaceGeometry(int width, int height, boolean round, float density) {
+        this.width = width;
+        this.height = height;
+        this.round = round;
+        this.density = density;
+
+        centerX = width / 2f;
+        centerY = height / 2f;
+
+        complicationRadius = width / 8f;
+        leftComplicationX = width * 0.3530f;
+        leftComplicationY = height * 0.6220f;
+        rightComplicationX = width * 0.6420f;
+        rightComplicationY = height * 0.6220f;
+        complicationTapHalfSize = (int) (complicationRadius * 1.5f);
+        secondTimezoneHubRadius = Math.max(1, (int) (centerX / 120));
+
+        handCornerRadius = dp(10);
+        handHalfWidth = (int) (centerX / 30);
+        handStrokeWidth = dp(3f);
+        minuteHandTop = centerY * 0.20f;
+        hourHandTop = centerY * 0.35f;
+        handBottom = centerY * 0.85f;
+        hourHandDotY = centerY * 0.38f;
+        hourHandDotRadius = dp(2.5f);
+        secondHandTop = height / 25;
+        secondHandBottom = centerY + (height / 15) * 2f;
+        centerCircleRadius = dp(6);
+        centerDotRadius = dp(3.5f);
+
+        triangleSize = round ? dp(5) : dp(3.5f);
+        triangleTipY = centerY * 0.31f;
+        triangleBaseY = centerY * 0.3f - triangleSize * 1.9f;
+        logoY = centerY * 0.80f;
+
+        smallTextSize = width / 28f;
+        normalTextSize = width / 17f;
+        mediumTextSize = width / 15f;
+        largeTextSize = width / 12f;
+        logoTextSize = width / 20f;
+        accentStrokeWidth = dp(1.5f);
+        complicationArcAccentWidth = width / 50;
+        complicationArcBatteryWidth = width / 20;
+    }
+
+    /**
+     * @return true if the face should use the low resolution (320px) assets
+     */
+    public boolean isLowRes() {
+        return width <= 320;
+    }
+
+    public boolean isInLeftComplication(int x, int y) {
+        return isInside(x, y, leftComplicationX, leftComplicationY);
+    }
+
+    public boolean isInRightComplication(int x, int y) {
+        return isInside(x, y, rightComplicationX, rightComplicationY);
+    }
+
+    private boolean isInside(int x, int y, float cx, float cy) {
+        float delta = complicationTapHalfSize;
+        return x < cx + delta && x > cx - delta && y > cy - delta && y < cy + delta;
+    }
+
+    /**
+     * Same rounding as {@code ScreenUtils.convertDpToPixels}.
+     */
+    private int dp(float dp) {
+        return (int) (dp * density);
+    }
+}
@@ -0,0 +1,1197 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.RectF;
+import android.graphics.Typeface;
+
+import com.marcouberti.f35watchface.utils.moon.MoonEphemeris;
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+import com.marcouberti.f35watchface.utils.sunrisesunset.SolarDayCache;
+import com.marcouberti.f35watchface.utils.time.DateLabelCache;
+import com.marcouberti.f35watchface.utils.time.FrameTime;
+import com.marcouberti.f35watchface.utils.time.ZoneOffsetCache;
+import com.marcouberti.f35watchface.utils.time.ZoneOffsetTable;
+
+import java.util.TimeZone;
+
+/**
+ * Draws the face from the state it is given, with no tie to the service: the engine feeds it the
+ * surface, the modes and what it hears from the system.
+ * <p>
+ * Must be used on a single thread, the main one for the engine.
+ */
+public class FaceRenderer {
+
+    public static final int CHRONO = 0;
+    public static final int WEEK_DAYS_BATTERY = 1;
+    public static final int COORDINATES = 2;
+    public static final int MONTH_AND_DAY = 3;
+    public static final int MONTH_AND_YEAR = 4;
+    public static final int MOON = 5;
+    public static final int WEAR_BATTERY = 6;
+    public static final int SECONDARY_TIMEZONE = 7;
+    public static final int SUN = 8;
+    public static final int LAPS = 9;
+    public static final int WORLD_CLOCK = 10;
+    /**
+     * Complication modes by id, for the dump.
+     */
+    public static final String[] COMPLICATION_NAMES = {"CHRONO", "WEEK_DAYS_BATTERY", "COORDINATES",
+            "MONTH_AND_DAY", "MONTH_AND_YEAR", "MOON", "WEAR_BATTERY", "SECONDARY_TIMEZONE", "SUN", "LAPS",
+            "WORLD_CLOCK"};
+
+    /*
+     * Fonts, as asset paths.
+     */
+    public static final String FONT_HEAVY = "fonts/Dolce Vita Heavy Bold.ttf";
+    public static final String FONT_REGULAR = "fonts/Dolce Vita.ttf";
+    public static final String FONT_LOGO = "fonts/square_sans_serif_7.ttf";
+    public static final String FONT_MONOSPACED = "fonts/larabiefont.ttf";
+
+    /**
+     * The moon complication is rendered again this often, its disk moves by one sprite step
+     * every few hours and its age label once a day.
+     */
+    private static final long MOON_REFRESH_MS = 15 * 60000;
+
+    /**
+     * Time each zone of the world clock stays on screen.
+     */
+    private static final long WORLD_CLOCK_CYCLE_MS = 5000;
+    private static final String[] WORLD_CLOCK_DEFAULT_ZONES = {"GMT"};
+
+    /**
+     * Laps shown at once by the lap list, newest on top.
+     */
+    private static final int VISIBLE_LAPS = 3;
+
+    /**
+     * Loads the fonts, from the app assets on the watch.
+     */
+    public interface Fonts {
+        Typeface load(String path);
+    }
+
+    private Bitmap bg;
+    /**
+     * Offscreen layer with everything that does not move between two ticks: background,
+     * accent triangle, logo and complications. It is rebuilt only when one of its inputs
+     * changes (colors, night mode, ambient) or a complication slot rendered again, so a
+     * regular frame is a single blit plus the hands.
+     */
+    private Bitmap mStaticLayer;
+    private Canvas mStaticLayerCanvas;
+    private boolean mStaticLayerDirty = true;
+
+    /**
+     * Complication modes in tap order, each slot renders its own layer at the cadence its
+     * renderer declares.
+     */
+    private final ComplicationRegistry mComplications = new ComplicationRegistry();
+    private final ComplicationSlot mLeftSlot = new ComplicationSlot();
+    private final ComplicationSlot mRightSlot = new ComplicationSlot();
+    private ComplicationRenderer mChronoStop;
+
+    /*
+     * Objects reused by the render path, draw() and the complication helpers must not
+     * allocate: every GC pause on the watch shows up as a dropped tick.
+     */
+    private final Rect mBackgroundSrc = new Rect();
+    private final Rect mTextBounds = new Rect();
+    private final RectF mArcRect = new RectF();
+    private final Path mTextPath = new Path();
+    private final Path mTrianglePath = new Path();
+    private final char[] mChronoChars = new char[StopWatch.FORMAT_LENGTH];
+    private final MoonEphemeris.Result mMoon = new MoonEphemeris.Result();
+    private final MoonSpriteCache mMoonSprites = new MoonSpriteCache();
+    private final HandSpriteCache mHandSprites = new HandSpriteCache();
+    private int mMoonAgeLabelDays = -1;
+    private String mMoonAgeLabel;
+    private final char[] mLapChars = new char[StopWatch.LAP_FORMAT_LENGTH];
+    private int mLapsLabelCount = -1;
+    private String mLapsLabel;
+    private final ZoneOffsetCache mSecondTimezoneOffset = new ZoneOffsetCache();
+    private final DialSpriteCache mSecondTimezoneDial = new DialSpriteCache(20);
+    private final ZoneOffsetTable mWorldClock = new ZoneOffsetTable();
+    private final DialSpriteCache mWorldClockDial = new DialSpriteCache(20);
+    private int mBatteryLabelLevel = -1;
+    private String mBatteryLabel;
+    private final Paint mSecondsCirclePaint, mDarkSecondsCirclePaint, smallTextPaint;
+    private final Paint logoTextPaint;
+    private final Paint blackFillPaint, whiteFillPaint, darkGrayFillPaint;
+    private final Paint accentFillPaint, chronoPaint, secondTimezoneStrokePaint;
+    private final Paint complicationArcAccentPaint, complicationArcBatteryPaint;
+    private final Paint largeTextPaint, mediumTextPaint, normalTextPaint;
+    private final Typeface logoTypeface;
+    private final Typeface monospacedTypeface;
+    private final FrameTime mFrameTime = new FrameTime();
+    private final DateLabelCache mDateLabels = new DateLabelCache();
+    private final SolarDayCache mSolarDay = new SolarDayCache();
+
+    /*
+     * What the face shows, set by its owner.
+     */
+    private final StopWatch stopWatch;
+    private final LapBuffer laps;
+    /**
+     * Layout of the current surface, null until the surface is created.
+     */
+    private FaceGeometry mGeometry;
+    private boolean mAmbient;
+    private boolean mNight;
+    private int mLeftMode = MOON;
+    private int mRightMode = WEEK_DAYS_BATTERY;
+    private int mAccentColor = Color.WHITE;
+    private int mBatteryPercentage = 50;
+    private int mGrayColor = Color.GRAY;
+    private int mNightColor = Color.GREEN;
+    private String lastKnowLatitude = "0.00";
+    private String lastKnowLongitude = "0.00";
+    private double lastKnowLatitudeDegrees = Double.NaN;
+    private double lastKnowLongitudeDegrees = Double.NaN;
+    private String secondTimezoneId;
+
+    /**
+     * @param stopWatch the run shown by the chrono, only read
+     * @param laps      its laps, only read
+     */
+    public FaceRenderer(Fonts fonts, StopWatch stopWatch, LapBuffer laps) {
+        this.stopWatch = stopWatch;
+        this.laps = laps;
+        Typeface heavy = fonts.load(FONT_HEAVY);
+        Typeface regular = fonts.load(FONT_REGULAR);
+        logoTypeface = fonts.load(FONT_LOGO);
+        monospacedTypeface = fonts.load(FONT_MONOSPACED);
+
+        mSecondsCirclePaint= new Paint();
+        mSecondsCirclePaint.setAntiAlias(true);
+        mSecondsCirclePaint.setStyle(Paint.Style.FILL);
+
+        mDarkSecondsCirclePaint= new Paint();
+        mDarkSecondsCirclePaint.setAntiAlias(true);
+        mDarkSecondsCirclePaint.setStyle(Paint.Style.FILL);
+
+        smallTextPaint = new Paint();
+        smallTextPaint.setAntiAlias(true);
+        smallTextPaint.setTextAlign(Paint.Align.CENTER);
+        smallTextPaint.setTypeface(heavy);
+
+        largeTextPaint = new Paint();
+        largeTextPaint.setAntiAlias(true);
+        largeTextPaint.setTextAlign(Paint.Align.CENTER);
+        largeTextPaint.setTypeface(regular);
+
+        mediumTextPaint = new Paint();
+        mediumTextPaint.setAntiAlias(true);
+        mediumTextPaint.setTextAlign(Paint.Align.CENTER);
+        mediumTextPaint.setTypeface(regular);
+
+        normalTextPaint = new Paint();
+        normalTextPaint.setAntiAlias(true);
+        normalTextPaint.setTextAlign(Paint.Align.CENTER);
+        normalTextPaint.setTypeface(regular);
+
+        accentFillPaint= new Paint();
+        accentFillPaint.setAntiAlias(true);
+        accentFillPaint.setTextAlign(Paint.Align.CENTER);
+
+        secondTimezoneStrokePaint= new Paint();
+        secondTimezoneStrokePaint.setAntiAlias(true);
+        secondTimezoneStrokePaint.setTextAlign(Paint.Align.CENTER);
+        secondTimezoneStrokePaint.setStrokeCap(Paint.Cap.ROUND);
+
+        chronoPaint= new Paint();
+        chronoPaint.setAntiAlias(true);
+        chronoPaint.setTextAlign(Paint.Align.CENTER);
+        chronoPaint.setTypeface(heavy);
+
+        complicationArcAccentPaint= new Paint();
+        complicationArcAccentPaint.setStyle(Paint.Style.STROKE);
+        complicationArcAccentPaint.setStrokeCap(Paint.Cap.BUTT);
+        complicationArcAccentPaint.setAntiAlias(true);
+
+        complicationArcBatteryPaint= new Paint();
+        complicationArcBatteryPaint.setStyle(Paint.Style.STROKE);
+        complicationArcBatteryPaint.setStrokeCap(Paint.Cap.BUTT);
+        complicationArcBatteryPaint.setAntiAlias(true);
+
+        logoTextPaint= new Paint();
+        logoTextPaint.setAntiAlias(true);
+        logoTextPaint.setTextAlign(Paint.Align.CENTER);
+        logoTextPaint.setTypeface(logoTypeface);
+
+        blackFillPaint = new Paint();
+        blackFillPaint.setColor(Color.BLACK);
+        blackFillPaint.setStyle(Paint.Style.FILL);
+        blackFillPaint.setAntiAlias(true);
+
+        whiteFillPaint = new Paint();
+        whiteFillPaint.setColor(Color.WHITE);
+        whiteFillPaint.setStyle(Paint.Style.FILL);
+        whiteFillPaint.setAntiAlias(true);
+        whiteFillPaint.setFilterBitmap(true);
+
+        darkGrayFillPaint = new Paint();
+        darkGrayFillPaint.setColor(Color.DKGRAY);
+        darkGrayFillPaint.setStyle(Paint.Style.FILL);
+        darkGrayFillPaint.setAntiAlias(true);
+        darkGrayFillPaint.setFilterBitmap(true);
+
+        mWorldClock.setZones(WORLD_CLOCK_DEFAULT_ZONES);
+        registerComplications();
+        updateComplicationRenderers();
+        updatePaintColors();
+    }
+
+    /**
+     * Lays the face out for a new surface and sizes the paints and the complication slots
+     * for it.
+     */
+    public void setGeometry(FaceGeometry geometry) {
+        mGeometry = geometry;
+
+        mSecondsCirclePaint.setStrokeWidth(geometry.handStrokeWidth);
+        mDarkSecondsCirclePaint.setStrokeWidth(geometry.handStrokeWidth);
+        accentFillPaint.setStrokeWidth(geometry.accentStrokeWidth);
+        secondTimezoneStrokePaint.setStrokeWidth(geometry.handStrokeWidth);
+        complicationArcAccentPaint.setStrokeWidth(geometry.complicationArcAccentWidth);
+        complicationArcBatteryPaint.setStrokeWidth(geometry.complicationArcBatteryWidth);
+
+        smallTextPaint.setTextSize(geometry.smallTextSize);
+        normalTextPaint.setTextSize(geometry.normalTextSize);
+        mediumTextPaint.setTextSize(geometry.mediumTextSize);
+        largeTextPaint.setTextSize(geometry.largeTextSize);
+        chronoPaint.setTextSize(geometry.normalTextSize);
+        logoTextPaint.setTextSize(geometry.normalTextSize);
+
+        int halfSize = (int) Math.ceil(geometry.complicationRadius * 1.5f);
+        mLeftSlot.setBounds(geometry.leftComplicationX, geometry.leftComplicationY, halfSize);
+        mRightSlot.setBounds(geometry.rightComplicationX, geometry.rightComplicationY, halfSize);
+        invalidateStaticLayer();
+    }
+
+    public void setBackground(Bitmap background) {
+        bg = background;
+        invalidateStaticLayer();
+    }
+
+    /**
+     * @param accent accent of the day mode
+     * @param gray   complication text of the day mode
+     * @param night  everything but the background in night mode
+     */
+    public void setColors(int accent, int gray, int night) {
+        mAccentColor = accent;
+        mGrayColor = gray;
+        mNightColor = night;
+        updatePaintColors();
+    }
+
+    public void setMode(boolean ambient, boolean night) {
+        mAmbient = ambient;
+        mNight = night;
+        updatePaintColors();
+    }
+
+    public void setComplicationModes(int left, int right) {
+        if(left == mLeftMode && right == mRightMode) return;
+        mLeftMode = left;
+        mRightMode = right;
+        updateComplicationRenderers();
+        invalidateStaticLayer();
+    }
+
+    /**
+     * @return true if a shown complication has to be rendered again
+     */
+    public boolean setBatteryPercentage(int percentage) {
+        if(percentage == mBatteryPercentage) return false;
+        mBatteryPercentage = percentage;
+        return invalidateComplications(ComplicationRenderer.INPUT_BATTERY);
+    }
+
+    /**
+     * @return true if a shown complication has to be rendered again
+     */
+    public boolean setLocation(double latitude, double longitude) {
+        lastKnowLatitude = String.format("%.2f", latitude);
+        lastKnowLongitude = String.format("%.2f", longitude);
+        lastKnowLatitudeDegrees = latitude;
+        lastKnowLongitudeDegrees = longitude;
+        return invalidateComplications(ComplicationRenderer.INPUT_LOCATION);
+    }
+
+    /**
+     * The time zone or the locale may have changed: the next frame is decomposed in the given
+     * time zone, the labels and today's sunrise and sunset are worked out again.
+     */
+    public void setTimeZone(TimeZone timeZone) {
+        mFrameTime.setTimeZone(timeZone);
+        mDateLabels.invalidate();
+        mSolarDay.invalidate();
+    }
+
+    /**
+     * Computes today's sunrise and sunset again if the day, the location cell or the time zone
+     * changed. Never called while drawing.
+     *
+     * @return true if a shown complication has to be rendered again
+     */
+    public boolean updateSolarDay(long now, TimeZone timeZone) {
+        return mSolarDay.update(now, lastKnowLatitudeDegrees, lastKnowLongitudeDegrees, timeZone)
+                && invalidateComplications(ComplicationRenderer.INPUT_SOLAR_DAY);
+    }
+
+    public SolarDayCache getSolarDay() {
+        return mSolarDay;
+    }
+
+    /**
+     * @param id null for GMT
+     */
+    public void setSecondTimezone(String id) {
+        secondTimezoneId = id;
+        invalidateComplications(ComplicationRenderer.INPUT_SECOND_TIMEZONE);
+    }
+
+    /**
+     * @param ids null or empty for GMT
+     */
+    public void setWorldClockZones(String[] ids) {
+        mWorldClock.setZones(ids == null || ids.length == 0 ? WORLD_CLOCK_DEFAULT_ZONES : ids);
+        invalidateComplications(ComplicationRenderer.INPUT_WORLD_CLOCK);
+    }
+
+    public ComplicationRegistry getComplications() {
+        return mComplications;
+    }
+
+    /**
+     * Renders both complication slots and the static layer again on the next frame, e.g. after
+     * the clock jumped and the next change times no longer hold.
+     */
+    public void invalidateAll() {
+        mLeftSlot.invalidateAll();
+        mRightSlot.invalidateAll();
+        invalidateStaticLayer();
+    }
+
+    /**
+     * Draws the face as of the given time, nothing until there are a geometry and a background.
+     *
+     * @param elapsedNanos {@link android.os.SystemClock#elapsedRealtimeNanos()} time, for the chrono
+     */
+    public void draw(Canvas canvas, Rect bounds, long epochMillis, long elapsedNanos, FrameStats stats) {
+        //one clock read per frame, everything below reads from this snapshot
+        mFrameTime.capture(epochMillis, elapsedNanos);
+        drawFace(canvas, bounds, mFrameTime, stats);
+    }
+
+    /**
+     * Draws the face as of {@code frameTime}, frames drawn while waiting for the surface or the
+     * background are not timed.
+     */
+    private void drawFace(Canvas canvas, Rect bounds, FrameTime frameTime, FrameStats stats) {
+        final FaceGeometry geometry = mGeometry;
+        if(geometry == null) return;//wait until the surface is ready
+        if(bg == null) return;//wait unti bg is ready
+        long t = stats.beginFrame();
+        /*
+         * These calculations reflect the rotation in degrees per unit of time, e.g.,
+         * 360 / 60 = 6 and 360 / 12 = 30.
+         */
+        float seconds =
+                (frameTime.getSecond() + frameTime.getMillisecond() / 1000f);
+
+        //if chrono change seconds value
+        long chronoElapsed = stopWatch.getElapsedTime(frameTime.getElapsedRealtimeNanos());
+        if(mLeftMode == CHRONO || mRightMode == CHRONO) {
+            seconds = (chronoElapsed / 1000) % 60 + (chronoElapsed % 1000) / 1000f;
+        }
+
+        final float secondsRotation = seconds * 6f;
+
+        final float minutesRotation = frameTime.getMinute() * 6f;
+
+        final float hourHandOffset = frameTime.getMinute() / 2f;
+        final float hoursRotation = (frameTime.getHour() * 30) + hourHandOffset;
+
+        //BACKGROUND, TRIANGLE, LOGO AND COMPLICATIONS
+        t = updateStaticLayer(bounds, frameTime, stats, stats.restart());
+        canvas.drawBitmap(mStaticLayer, 0, 0, null);
+        t = stats.mark(FrameStats.LAYER, t);
+
+        //CHRONO LOGO TEXT, changes every frame so it stays out of the static layer
+        if(!mAmbient && (stopWatch.running || stopWatch.paused)) {
+            logoTextPaint.setTypeface(monospacedTypeface);
+            logoTextPaint.setTextSize(geometry.normalTextSize);
+            int length = StopWatch.format(chronoElapsed, mChronoChars);
+            canvas.drawText(mChronoChars, 0, length, geometry.centerX, geometry.logoY, logoTextPaint);
+            t = stats.mark(FrameStats.LOGO, t);
+        }
+
+        float cx = geometry.centerX;
+        float cy = geometry.centerY;
+
+        //Minutes and hours hands
+        if(!mAmbient) {
+            //sprites with the shadow baked in, rendered again only on size or color changes
+            mHandSprites.update(geometry, mSecondsCirclePaint, mDarkSecondsCirclePaint, accentFillPaint);
+            mHandSprites.draw(canvas, HandSpriteCache.MINUTE, minutesRotation, cx, cy);
+            mHandSprites.draw(canvas, HandSpriteCache.HOUR, hoursRotation, cx, cy);
+        }else {
+            canvas.save();
+            canvas.rotate(minutesRotation, cx, cy);
+            HandSpriteCache.drawHand(canvas, HandSpriteCache.MINUTE, geometry, mSecondsCirclePaint, mDarkSecondsCirclePaint, null);
+            canvas.restore();
+            canvas.save();
+            canvas.rotate(hoursRotation, cx, cy);
+            HandSpriteCache.drawHand(canvas, HandSpriteCache.HOUR, geometry, mSecondsCirclePaint, mDarkSecondsCirclePaint, null);
+            canvas.restore();
+        }
+        //END Minutes and hours hands
+        t = stats.mark(FrameStats.HANDS, t);
+
+        //Center circle
+        canvas.drawCircle(cx, cy, geometry.centerCircleRadius, mDarkSecondsCirclePaint);
+        t = stats.mark(FrameStats.CENTER, t);
+
+        //Seconds hand
+        if(!mAmbient) {
+            canvas.save();
+            canvas.rotate(secondsRotation, cx, cy);
+            accentFillPaint.setStyle(Paint.Style.STROKE);
+            canvas.drawLine(cx, geometry.secondHandBottom, cx, geometry.secondHandTop, accentFillPaint);
+            accentFillPaint.setStyle(Paint.Style.FILL);
+            canvas.restore();
+        }
+        //END seconds hand
+        t = stats.mark(FrameStats.HANDS, t);
+
+        //Red center circle
+        canvas.drawCircle(cx, cy, geometry.centerDotRadius, mAmbient ? blackFillPaint : accentFillPaint);
+        stats.mark(FrameStats.CENTER, t);
+        stats.endFrame(mLeftMode, mRightMode);
+    }
+
+    /**
+     * Frees the layers and the sprites, the renderer can draw again afterwards.
+     */
+    public void release() {
+        mLeftSlot.release();
+        mRightSlot.release();
+        if(mStaticLayer != null) {
+            mStaticLayer.recycle();
+            mStaticLayer = null;
+            mStaticLayerCanvas = null;
+        }
+        mMoonSprites.clear();
+        mHandSprites.clear();
+        mSecondTimezoneDial.clear();
+        mWorldClockDial.clear();
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * Marks the static layer as stale, it will be rebuilt on the next frame.
+     */
+    public void invalidateStaticLayer() {
+        mStaticLayerDirty = true;
+    }
+
+    /**
+     * Marks the given complication inputs as changed, the slots depending on them are rendered
+     * again on the next frame.
+     *
+     * @return true if one of the shown complications depends on them
+     */
+    public boolean invalidateComplications(int inputs) {
+        mLeftSlot.invalidate(inputs);
+        mRightSlot.invalidate(inputs);
+        return mLeftSlot.dependsOn(inputs) || mRightSlot.dependsOn(inputs);
+    }
+
+    /**
+     * Rebuilds the static layer if the surface size changed, one of its inputs has been
+     * invalidated or one of the complication slots rendered again.
+     *
+     * @param t frame timing mark, see {@link FrameStats#mark(int, long)}
+     * @return the last frame timing mark
+     */
+    private long updateStaticLayer(Rect bounds, FrameTime frameTime, FrameStats stats, long t) {
+        FaceGeometry geometry = mGeometry;
+        int width = bounds.width();
+        int height = bounds.height();
+        if(mStaticLayer == null || mStaticLayer.getWidth() != width || mStaticLayer.getHeight() != height) {
+            if(mStaticLayer != null) mStaticLayer.recycle();
+            mStaticLayer = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mStaticLayerCanvas = new Canvas(mStaticLayer);
+            mStaticLayerDirty = true;
+        }
+
+        boolean complicationsChanged = false;
+        if(!mAmbient) {
+            long now = frameTime.getEpochMillis();
+            mDateLabels.update(now);
+            updateComplicationRenderers();
+            t = stats.restart();
+            //both slots have to catch up
+            complicationsChanged = mLeftSlot.update(now);
+            t = stats.mark(FrameStats.LEFT_COMPLICATION, t);
+            complicationsChanged |= mRightSlot.update(now);
+            t = stats.mark(FrameStats.RIGHT_COMPLICATION, t);
+        }
+        if(!mStaticLayerDirty && !complicationsChanged) return t;
+        mStaticLayerDirty = false;
+
+        Canvas canvas = mStaticLayerCanvas;
+        canvas.drawColor(Color.BLACK);
+
+        //BACKGROUND
+        if(bg.getWidth() == width && bg.getHeight() == height) {
+            //already resampled to the surface size by the cache
+            canvas.drawBitmap(bg, 0, 0, null);
+        }else {
+            //previous surface size, until the resampled one is ready
+            mBackgroundSrc.set(0, 0, bg.getWidth(), bg.getHeight());
+            canvas.drawBitmap(bg, mBackgroundSrc, bounds, whiteFillPaint);
+        }
+        t = stats.mark(FrameStats.BACKGROUND, t);
+
+        //Accent triangle
+        if(!mAmbient) {
+            drawTopTriangle(canvas, geometry);
+            t = stats.mark(FrameStats.TRIANGLE, t);
+        }
+
+        //LOGO TEXT
+        if(!mAmbient && !stopWatch.running && !stopWatch.paused) {
+            logoTextPaint.setTypeface(logoTypeface);
+            logoTextPaint.setTextSize(geometry.logoTextSize);
+            drawTextLogo(canvas, "AIRHERO", geometry);
+            t = stats.mark(FrameStats.LOGO, t);
+        }
+        //END LOGO TEXT
+
+        //COMPLICATIONS
+        if(!mAmbient) {
+            mLeftSlot.draw(canvas);
+            t = stats.mark(FrameStats.LEFT_COMPLICATION, t);
+            mRightSlot.draw(canvas);
+            t = stats.mark(FrameStats.RIGHT_COMPLICATION, t);
+        }
+        //END COMPLICATIONS
+        return t;
+    }
+
+    /**
+     * Points the slots at the renderers of the current modes, the chrono takes both slots
+     * while it is selected on either side.
+     */
+    private void updateComplicationRenderers() {
+        if(mLeftMode == CHRONO || mRightMode == CHRONO) {
+            mLeftSlot.setRenderer(mComplications.get(CHRONO));
+            mRightSlot.setRenderer(mChronoStop);
+        }else {
+            mLeftSlot.setRenderer(mComplications.get(mLeftMode));
+            mRightSlot.setRenderer(mComplications.get(mRightMode));
+        }
+    }
+
+    /**
+     * Base of the face complications: a mode id, the inputs it depends on and no change
+     * with time alone unless overridden.
+     */
+    private abstract class FaceComplication implements ComplicationRenderer {
+        private final int id;
+        private final int inputs;
+
+        FaceComplication(int id, int inputs) {
+            this.id = id;
+            this.inputs = inputs;
+        }
+
+        @Override
+        public int getId() {
+            return id;
+        }
+
+        @Override
+        public int getInputs() {
+            return inputs;
+        }
+
+        @Override
+        public long getNextChange(long now) {
+            return NEVER;
+        }
+    }
+
+    /**
+     * Registers the complication modes in the order a tap cycles through them, the chrono
+     * can only be picked on the left.
+     */
+    private void registerComplications() {
+        final int both = ComplicationRegistry.SIDE_BOTH;
+        mComplications.register(new FaceComplication(MOON, 0) {
+            @Override
+            public long getNextChange(long now) {
+                return now + MOON_REFRESH_MS;
+            }
+
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawMoonPhase(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(WEEK_DAYS_BATTERY, ComplicationRenderer.INPUT_BATTERY
+                | ComplicationRenderer.INPUT_TIME_ZONE | ComplicationRenderer.INPUT_LOCALE) {
+            @Override
+            public long getNextChange(long now) {
+                return mDateLabels.getValidUntil();
+            }
+
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawWeekDays(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(COORDINATES, ComplicationRenderer.INPUT_LOCATION) {
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawCoordinates(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(MONTH_AND_DAY,
+                ComplicationRenderer.INPUT_TIME_ZONE | ComplicationRenderer.INPUT_LOCALE) {
+            @Override
+            public long getNextChange(long now) {
+                return mDateLabels.getValidUntil();
+            }
+
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawMonthAndDay(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(MONTH_AND_YEAR,
+                ComplicationRenderer.INPUT_TIME_ZONE | ComplicationRenderer.INPUT_LOCALE) {
+            @Override
+            public long getNextChange(long now) {
+                return mDateLabels.getValidUntil();
+            }
+
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawMonthAndYear(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(WEAR_BATTERY, ComplicationRenderer.INPUT_BATTERY) {
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawBatteryWear(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(SECONDARY_TIMEZONE, ComplicationRenderer.INPUT_SECOND_TIMEZONE) {
+            @Override
+            public long getNextChange(long now) {
+                //the hands move once a minute
+                return (now / 60000 + 1) * 60000;
+            }
+
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawSecondTimezone(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        //reads the events cached by updateSolarDay(), rendered again when they are computed
+        mComplications.register(new FaceComplication(WORLD_CLOCK, ComplicationRenderer.INPUT_WORLD_CLOCK) {
+            @Override
+            public long getNextChange(long now) {
+                //hands once a minute, next zone, or a DST transition of one of the zones
+                long next = (now / 60000 + 1) * 60000;
+                if(mWorldClock.getCount() > 1) {
+                    next = Math.min(next, (now / WORLD_CLOCK_CYCLE_MS + 1) * WORLD_CLOCK_CYCLE_MS);
+                }
+                return Math.min(next, mWorldClock.getValidUntil());
+            }
+
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawWorldClock(canvas, cx, cy, now);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(SUN, ComplicationRenderer.INPUT_LOCATION
+                | ComplicationRenderer.INPUT_TIME_ZONE | ComplicationRenderer.INPUT_SOLAR_DAY) {
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawSun(canvas, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(LAPS, ComplicationRenderer.INPUT_STOPWATCH) {
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                drawLaps(canvas, getLapsLabel(laps.getLapCount()), mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, both);
+        mComplications.register(new FaceComplication(CHRONO, ComplicationRenderer.INPUT_STOPWATCH) {
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                String text = "START";
+                if(stopWatch.running) text = "PAUSE";
+                else if(stopWatch.paused) text = "RESUME";
+                drawStopWatch(canvas, text, mGeometry.width, mGeometry.height, cx, cy);
+            }
+        }, ComplicationRegistry.SIDE_LEFT);
+        //right side companion of the chrono, not part of any cycle: lap while running, stop
+        //otherwise, with the laps of the run once there are some
+        mChronoStop = new FaceComplication(CHRONO, ComplicationRenderer.INPUT_STOPWATCH) {
+            @Override
+            public void render(Canvas canvas, float cx, float cy, long now) {
+                String text = stopWatch.running ? "LAP" : "STOP";
+                if(laps.size() > 0) {
+                    drawLaps(canvas, text, mGeometry.width, mGeometry.height, cx, cy);
+                }else {
+                    drawStopWatch(canvas, text, mGeometry.width, mGeometry.height, cx, cy);
+                }
+            }
+        };
+    }
+
+    private void drawBatteryWear(Canvas canvas, int width, int height,  float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+        //Battery level
+        int batteryPercentage = mBatteryPercentage;
+        int deg = batteryPercentage * 360 /100;
+        canvas.save();
+        canvas.rotate(-90, CX, CY);
+        complicationArcBatteryPaint.setAlpha(40);
+        float RP = 0.7f;
+        mArcRect.set(CX - CR * RP, CY - CR * RP, CX + CR * RP, CY + CR * RP);
+        canvas.drawArc(mArcRect, 0, 360, false, complicationArcBatteryPaint);
+        complicationArcBatteryPaint.setAlpha(255);
+        canvas.drawArc(mArcRect, 0, deg, false, complicationArcBatteryPaint);
+        canvas.restore();
+
+        //Day number
+        String perc = getBatteryLabel(batteryPercentage);
+        Rect bounds = mTextBounds;
+        int previousColor = normalTextPaint.getColor();
+        normalTextPaint.setColor(whiteFillPaint.getColor());
+        normalTextPaint.getTextBounds(perc, 0, perc.length(), bounds);
+        canvas.drawText(perc, CX, CY + bounds.height() / 2, normalTextPaint);
+        normalTextPaint.setColor(previousColor);
+    }
+
+    private void drawWeekDays(Canvas canvas, int width, int height,  float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        String[] days = mDateLabels.getWeekDaysSymbols();
+        int today = mFrameTime.getDayOfWeek();
+        Path rPath = mTextPath;
+        rPath.reset();
+        rPath.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        for(int i=0; i<days.length; i++) {
+
+            if(days[i] == null || days[i].equalsIgnoreCase("")) continue;
+
+            canvas.save();
+            canvas.rotate(i * 51.4f, CX, CY);
+            int previousColor = smallTextPaint.getColor();
+            if(i == today) {
+                smallTextPaint.setColor(accentFillPaint.getColor());
+            }else {
+                smallTextPaint.setColor(previousColor);
+            }
+            canvas.drawTextOnPath(days[i], rPath, 0, 0, smallTextPaint);
+            smallTextPaint.setColor(previousColor);
+            canvas.restore();
+        }
+
+        //Battery level
+        int batteryPercentage = mBatteryPercentage;
+        int deg = batteryPercentage * 360 /100;
+        canvas.save();
+        canvas.rotate(-90, CX, CY);
+        mArcRect.set(CX - CR * 0.5f, CY - CR * 0.5f, CX + CR * 0.5f, CY + CR * 0.5f);
+        canvas.drawArc(mArcRect, 0, deg, false, complicationArcAccentPaint);
+        canvas.restore();
+
+        //Day number
+        String dayNumber = mDateLabels.getDayNumber();
+        Rect bounds = mTextBounds;
+        int previousColor = normalTextPaint.getColor();
+        normalTextPaint.setColor(whiteFillPaint.getColor());
+        normalTextPaint.getTextBounds(dayNumber, 0, dayNumber.length(), bounds);
+        canvas.drawText(dayNumber, CX, CY + bounds.height() / 2, normalTextPaint);
+        normalTextPaint.setColor(previousColor);
+    }
+
+    private void drawCoordinates(Canvas canvas, int width, int height,  float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        //draw
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath("LATITUDE AND LONGITUDE", path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        String lat = lastKnowLatitude;
+        String lon = lastKnowLongitude;
+        Rect bounds = mTextBounds;
+        int previousColor = normalTextPaint.getColor();
+        normalTextPaint.getTextBounds(lat, 0, lat.length(), bounds);
+        normalTextPaint.setColor(whiteFillPaint.getColor());
+        canvas.drawText(lat, CX, CY, normalTextPaint);
+        canvas.drawText(lon, CX, CY+bounds.height()+4, normalTextPaint);
+        normalTextPaint.setColor(previousColor);
+    }
+
+    private void drawSun(Canvas canvas, int width, int height, float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath("SUNRISE SUNSET", path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        //Daylight arc on a 24h ring, midnight at the top
+        SolarDayCache solarDay = mSolarDay;
+        mArcRect.set(CX - CR * 0.5f, CY - CR * 0.5f, CX + CR * 0.5f, CY + CR * 0.5f);
+        complicationArcAccentPaint.setAlpha(40);
+        canvas.drawArc(mArcRect, 0, 360, false, complicationArcAccentPaint);
+        complicationArcAccentPaint.setAlpha(255);
+        if(solarDay.isKnown()) {
+            canvas.drawArc(mArcRect, solarDay.getDaylightStartAngle(), solarDay.getDaylightSweepAngle(), false, complicationArcAccentPaint);
+        }
+
+        //Sunrise above, sunset below the center
+        String sunrise = solarDay.getSunriseLabel();
+        String sunset = solarDay.getSunsetLabel();
+        Rect bounds = mTextBounds;
+        int previousColor = smallTextPaint.getColor();
+        smallTextPaint.setColor(whiteFillPaint.getColor());
+        smallTextPaint.getTextBounds(sunrise, 0, sunrise.length(), bounds);
+        canvas.drawText(sunrise, CX, CY - 2, smallTextPaint);
+        canvas.drawText(sunset, CX, CY + bounds.height() + 2, smallTextPaint);
+        smallTextPaint.setColor(previousColor);
+    }
+
+    private void drawStopWatch(Canvas canvas, String text, int width, int height,  float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+        //draw
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath("CHRONO", path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        Rect bounds = mTextBounds;
+        normalTextPaint.getTextBounds(text, 0, text.length(), bounds);
+        canvas.drawText(text, CX, CY + bounds.height() / 2, chronoPaint);
+    }
+
+    /**
+     * Draws the last {@link #VISIBLE_LAPS} lap times, newest on top: the list scrolls as laps
+     * are added and only the visible rows are formatted.
+     */
+    private void drawLaps(Canvas canvas, String caption, int width, int height, float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath(caption, path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        int last = laps.getLapCount();
+        int first = Math.max(laps.getFirstLapNumber(), last - VISIBLE_LAPS + 1);
+        if(laps.size() == 0) return;
+
+        char[] chars = mLapChars;
+        Rect bounds = mTextBounds;
+        int length = StopWatch.formatLap(0, chars, 0);
+        smallTextPaint.getTextBounds(chars, 0, length, bounds);
+        float rowHeight = bounds.height() * 1.6f;
+        float y = CY - (last - first) * rowHeight / 2 + bounds.height() / 2;
+        int previousColor = smallTextPaint.getColor();
+        for(int number = last; number >= first; number--) {
+            length = StopWatch.formatLap(laps.getLapTime(number) / 1000000L, chars, 0);
+            smallTextPaint.setColor(number == last ? whiteFillPaint.getColor() : previousColor);
+            canvas.drawText(chars, 0, length, CX, y, smallTextPaint);
+            y += rowHeight;
+        }
+        smallTextPaint.setColor(previousColor);
+    }
+
+    private void drawMonthAndDay(Canvas canvas, int width, int height, float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        //left bottom
+        //canvas.drawCircle(LX, LY, CR, mSecondsCirclePaint);
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath(mDateLabels.getMonthExtended(), path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        String dayNumber = mDateLabels.getDayNumber();
+        Rect bounds = mTextBounds;
+        int previousColor = largeTextPaint.getColor();
+        largeTextPaint.getTextBounds(dayNumber, 0, dayNumber.length(), bounds);
+        largeTextPaint.setColor(whiteFillPaint.getColor());
+        canvas.drawText(dayNumber, CX, CY + bounds.height() / 2, largeTextPaint);
+        largeTextPaint.setColor(previousColor);
+    }
+
+    private void drawSecondTimezone(Canvas canvas, int width, int height, float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        String timezoneID = secondTimezoneId==null?"GMT":secondTimezoneId;
+        //wall clock of the zone, the offset is resolved again only at its next transition
+        long local = mSecondTimezoneOffset.toLocal(timezoneID, mFrameTime.getEpochMillis());
+        int minute = ZoneOffsetCache.getMinute(local);
+        int hour = ZoneOffsetCache.getHour(local);
+        /* DIGITAL
+        String displayName = tz.getDisplayName(false, TimeZone.LONG, Locale.getDefault());
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath(displayName, path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+
+        Calendar c = Calendar.getInstance(tz);
+        String time = String.format("%02d" , c.get(Calendar.HOUR_OF_DAY))+":"+
+                String.format("%02d" , c.get(Calendar.MINUTE));
+
+        Rect bounds = mTextBounds;
+        int previousColor = largeTextPaint.getColor();
+        largeTextPaint.getTextBounds(time, 0, time.length(), bounds);
+        largeTextPaint.setColor(whiteFillPaint.getColor());
+        canvas.drawText(time, CX, CY + bounds.height() / 2, largeTextPaint);
+        largeTextPaint.setColor(previousColor);
+        */
+
+        //ANALOG
+        drawZoneDial(canvas, mSecondTimezoneDial, CX, CY, minute, hour);
+    }
+
+    /**
+     * Draws a small analog dial showing {@code hour}:{@code minute}, the ticks come from
+     * {@code dial}.
+     */
+    private void drawZoneDial(Canvas canvas, DialSpriteCache dial, float CX, float CY, int minute, int hour) {
+        final float CR = mGeometry.complicationRadius;
+        final float minutesRotation = minute * 6f;
+
+        final float hourHandOffset = minute / 2f;
+        final float hoursRotation = ((hour % 12) * 30) + hourHandOffset;
+
+        float RRradius = mGeometry.secondTimezoneHubRadius;
+
+        //Minutes hand
+        canvas.save();
+        canvas.rotate(minutesRotation, CX, CY);
+        canvas.drawLine(CX, CY, CX, CY-CR*0.8F, secondTimezoneStrokePaint);
+        canvas.restore();
+        //END Minutes hands
+
+        //Hours hand
+        canvas.save();
+        canvas.rotate(hoursRotation, CX, CY);
+        canvas.drawLine(CX, CY, CX, CY-CR*0.6F, secondTimezoneStrokePaint);
+        canvas.restore();
+
+        canvas.drawCircle(CX,CY,RRradius,blackFillPaint);
+
+        //draw ticks, rasterized once per geometry and palette
+        dial.draw(canvas, CX, CY, CR, 0.85f, 0.95f, smallTextPaint);
+    }
+
+    /**
+     * One zone of the world clock at a time, each shown for {@link #WORLD_CLOCK_CYCLE_MS}: its
+     * dial and its city below.
+     */
+    private void drawWorldClock(Canvas canvas, float CX, float CY, long now) {
+        final float CR = mGeometry.complicationRadius;
+        ZoneOffsetTable zones = mWorldClock;
+        int index = (int) ((now / WORLD_CLOCK_CYCLE_MS) % zones.getCount());
+        long local = zones.toLocal(index, now);
+        drawZoneDial(canvas, mWorldClockDial, CX, CY,
+                ZoneOffsetCache.getMinute(local), ZoneOffsetCache.getHour(local));
+        canvas.drawText(zones.getLabel(index), CX, CY + CR * 1.35f, smallTextPaint);
+    }
+
+    private void drawMoonPhase(Canvas canvas, int W, int H, float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        //left bottom
+        //canvas.drawCircle(LX, LY, CR, mSecondsCirclePaint);
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath("MOON PHASE", path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        //DRAW MOON
+        MoonEphemeris.Result moon = MoonEphemeris.compute(mFrameTime.getEpochMillis(), mMoon);
+
+        int width = (int)CR;
+        int height = (int)CR;
+        int moonradius= (int) (Math.min(width, height) * .4);
+        mMoonSprites.configure(moonradius, whiteFillPaint.getColor(), darkGrayFillPaint.getColor());
+        mMoonSprites.draw(canvas, (int) CX, (int) CY, moon.phaseAngle);
+        //END DRAW MOON
+
+        //Draw moon age
+        String age = getMoonAgeLabel((int) moon.ageDays);
+
+        canvas.save();
+        canvas.rotate(-90, CX, CY);
+        Path pathAge = mTextPath;
+        pathAge.reset();
+        pathAge.addCircle(CX, CY, CR * 0.9f, Path.Direction.CCW);
+        canvas.drawTextOnPath(age, pathAge, 0, 0, smallTextPaint);
+        canvas.restore();
+    }
+
+    private void drawMonthAndYear(Canvas canvas, int width, int height, float CX, float CY) {
+        final float CR = mGeometry.complicationRadius;
+
+        //left bottom
+        //canvas.drawCircle(LX, LY, CR, mSecondsCirclePaint);
+        canvas.save();
+        canvas.rotate(90, CX, CY);
+        Path path = mTextPath;
+        path.reset();
+        path.addCircle(CX, CY, CR * 0.7f, Path.Direction.CW);
+        canvas.drawTextOnPath(mDateLabels.getMonthExtended(), path, 0, 0, smallTextPaint);
+        canvas.restore();
+
+        String year = mDateLabels.getYear();
+        Rect bounds = mTextBounds;
+        int previousColor = mediumTextPaint.getColor();
+        mediumTextPaint.setColor(whiteFillPaint.getColor());
+        mediumTextPaint.getTextBounds(year, 0, year.length(), bounds);
+        canvas.drawText(year, CX, CY + bounds.height() / 2, mediumTextPaint);
+        mediumTextPaint.setColor(previousColor);
+    }
+
+    private void drawTopTriangle(Canvas canvas, FaceGeometry geometry) {
+        float TS = geometry.triangleSize;
+        float cx = geometry.centerX;
+        Path minutesPath = mTrianglePath;
+        minutesPath.reset();
+        minutesPath.moveTo(cx, geometry.triangleTipY);
+        minutesPath.lineTo(cx - TS, geometry.triangleBaseY);
+        minutesPath.lineTo(cx + TS, geometry.triangleBaseY);
+        minutesPath.lineTo(cx, geometry.triangleTipY);
+        minutesPath.close();
+        int previousColor = accentFillPaint.getColor();
+        if(mNight) accentFillPaint.setColor(mNightColor);
+        canvas.drawPath(minutesPath, accentFillPaint);
+        accentFillPaint.setColor(previousColor);
+    }
+
+    private void drawTextLogo(Canvas canvas, String text, FaceGeometry geometry) {
+        canvas.drawText(text, geometry.centerX, geometry.logoY, logoTextPaint);
+    }
+
+    private String getLapsLabel(int count) {
+        if(count != mLapsLabelCount) {
+            mLapsLabel = count == 0 ? "NO LAPS" : count + (count == 1 ? " LAP" : " LAPS");
+            mLapsLabelCount = count;
+        }
+        return mLapsLabel;
+    }
+
+    private String getMoonAgeLabel(int days) {
+        if(days != mMoonAgeLabelDays) {
+            mMoonAgeLabel = days + (days == 1 ? " day" : " days");
+            mMoonAgeLabelDays = days;
+        }
+        return mMoonAgeLabel;
+    }
+
+    private String getBatteryLabel(int batteryPercentage) {
+        if(batteryPercentage != mBatteryLabelLevel) {
+            mBatteryLabel = batteryPercentage+"%";
+            mBatteryLabelLevel = batteryPercentage;
+        }
+        return mBatteryLabel;
+    }
+
+    private void updatePaintColors() {
+        if(!mNight) {
+            //accent colors
+            if(mAmbient) {
+                accentFillPaint.setColor(Color.WHITE);
+            }else {
+                accentFillPaint.setColor(mAccentColor);
+            }
+            secondTimezoneStrokePaint.setColor(mAccentColor);
+            chronoPaint.setColor(mAccentColor);
+            complicationArcAccentPaint.setColor(mAccentColor);
+            complicationArcBatteryPaint.setColor(mAccentColor);
+            //white and gray colors
+            normalTextPaint.setColor(mGrayColor);
+            smallTextPaint.setColor(mGrayColor);
+            mediumTextPaint.setColor(mGrayColor);
+            largeTextPaint.setColor(mGrayColor);
+            logoTextPaint.setColor(Color.WHITE);
+            mSecondsCirclePaint.setColor(Color.WHITE);
+            mDarkSecondsCirclePaint.setColor(Color.WHITE);
+            whiteFillPaint.setColor(Color.WHITE);
+            darkGrayFillPaint.setColor(Color.DKGRAY);
+        }else {
+            //accent
+            int nightColor = mNightColor;
+            accentFillPaint.setColor(Color.DKGRAY);
+            secondTimezoneStrokePaint.setColor(nightColor);
+            chronoPaint.setColor(nightColor);
+            complicationArcAccentPaint.setColor(Color.DKGRAY);
+            complicationArcBatteryPaint.setColor(Color.DKGRAY);
+            //white and gray colors
+            normalTextPaint.setColor(nightColor);
+            smallTextPaint.setColor(nightColor);
+            mediumTextPaint.setColor(nightColor);
+            largeTextPaint.setColor(nightColor);
+            logoTextPaint.setColor(nightColor);
+            mSecondsCirclePaint.setColor(nightColor);
+            mDarkSecondsCirclePaint.setColor(nightColor);
+            whiteFillPaint.setColor(nightColor);
+            //darkGrayFillPaint.setColor(nightColor);
+        }
+
+        //Ambient mode
+        if(mAmbient) {
+            mSecondsCirclePaint.setShadowLayer(0, 0, 0, Color.BLACK);
+        }else {
+            mSecondsCirclePaint.setShadowLayer(2, 1, 1, Color.BLACK);
+        }
+        invalidateComplications(ComplicationRenderer.INPUT_APPEARANCE);
+        invalidateStaticLayer();
+    }
+}
@@ -0,0 +1,263 @@
+package com.marcouberti.f35watchface;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Message;
+import android.view.Choreographer;
+
+/**
+ * Decides when the face draws in interactive mode.
+ * <p>
+ * Each mode declares a target rate. {@link #MODE_TICK} wakes up exactly on the wall clock second
+ * boundaries with a delayed message, the higher rate modes are driven by {@link Choreographer}
+ * frame callbacks so every frame lands on a vsync and the frame period is a whole number of
+ * display refreshes. Frame requests from taps and data events are coalesced with the scheduled
+ * frames, and nothing is scheduled while the scheduler is inactive (invisible or ambient).
+ * <p>
+ * Must be created and used on the main thread.
+ */
+public class FrameScheduler {
+
+    /**
+     * One frame per second, on the second boundary: the ticking second hand.
+     */
+    public static final int MODE_TICK = 0;
+    /**
+     * {@link #SWEEP_FPS} frames per second, for a smoothly sweeping hand.
+     */
+    public static final int MODE_SWEEP = 1;
+    /**
+     * {@link #CHRONO_FPS} frames per second, while the chrono counts hundredths.
+     */
+    public static final int MODE_CHRONO = 2;
+
+    public static final int SWEEP_FPS = 15;
+    public static final int CHRONO_FPS = 30;
+
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_MILLI = 1000000L;
+    private static final int MSG_TICK = 0;
+
+    /**
+     * Receives the frames, typically by invalidating the engine.
+     */
+    public interface Callback {
+        void onFrame();
+    }
+
+    private final Callback callback;
+    private final Choreographer choreographer = Choreographer.getInstance();
+    private final long vsyncNanos;
+
+    private final Handler tickHandler = new Handler(Looper.getMainLooper()) {
+        @Override
+        public void handleMessage(Message msg) {
+            if (msg.what == MSG_TICK) onTick();
+        }
+    };
+
+    private final Choreographer.FrameCallback frameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            FrameScheduler.this.doFrame(frameTimeNanos);
+        }
+    };
+
+    private int mode = MODE_TICK;
+    private boolean active;
+    private boolean frameRequested;
+    //System.nanoTime() base, as the Choreographer frame times
+    private long nextDeadlineNanos;
+
+    //statistics
+    private long windowStartNanos;
+    private int windowFrames;
+    private float fps;
+    private long frames;
+    private long missedDeadlines;
+
+    /**
+     * @param refreshRate display refresh rate in Hz, see {@code Display.getRefreshRate()}
+     */
+    public FrameScheduler(Callback callback, float refreshRate) {
+        this.callback = callback;
+        if (refreshRate < 1) refreshRate = 60;
+        vsyncNanos = (long) (NANOS_PER_SECOND / refreshRate);
+        resetWindow();
+    }
+
+    /**
+     * @return the target frames per second of {@code mode}
+     */
+    public static int getTargetFps(int mode) {
+        switch (mode) {
+            case MODE_SWEEP:
+                return SWEEP_FPS;
+            case MODE_CHRONO:
+                return CHRONO_FPS;
+            default:
+                return 1;
+        }
+    }
+
+    /**
+     * Switches mode and reschedules from now.
+     */
+    public void setMode(int mode) {
+        if (this.mode == mode) return;
+        this.mode = mode;
+        if (active) reschedule();
+    }
+
+    public int getMode() {
+        return mode;
+    }
+
+    /**
+     * Starts scheduling frames, or stops completely.
+     */
+    public void setActive(boolean active) {
+        if (this.active == active) return;
+        this.active = active;
+        if (active) {
+            resetWindow();
+            reschedule();
+        } else {
+            cancel();
+        }
+    }
+
+    /**
+     * Asks for a frame as soon as possible. Requests are merged with each other and with the
+     * frame already scheduled for the next vsync; while inactive the frame is passed on at once,
+     * e.g. for the ambient redraws.
+     */
+    public void requestFrame() {
+        if (!active) {
+            callback.onFrame();
+            return;
+        }
+        if (frameRequested) return;
+        frameRequested = true;
+        //a callback delayed to the next deadline would be too late, move it to the next vsync
+        choreographer.removeFrameCallback(frameCallback);
+        choreographer.postFrameCallback(frameCallback);
+    }
+
+    /**
+     * Records that the face has drawn a frame, for the statistics.
+     */
+    public void onFrameDrawn() {
+        long now = System.nanoTime();
+        frames++;
+        windowFrames++;
+        long window = now - windowStartNanos;
+        if (window >= NANOS_PER_SECOND) {
+            fps = windowFrames * (float) NANOS_PER_SECOND / window;
+            windowStartNanos = now;
+            windowFrames = 0;
+        }
+    }
+
+    /**
+     * @return frames drawn per second over the last second or so of activity
+     */
+    public float getFps() {
+        return fps;
+    }
+
+    /**
+     * @return frames drawn since creation
+     */
+    public long getFrameCount() {
+        return frames;
+    }
+
+    /**
+     * @return scheduled frames that fired at least one vsync after their deadline, skipped ones
+     *         included
+     */
+    public long getMissedDeadlines() {
+        return missedDeadlines;
+    }
+
+    public void release() {
+        active = false;
+        cancel();
+    }
+
+    private void resetWindow() {
+        windowStartNanos = System.nanoTime();
+        windowFrames = 0;
+    }
+
+    private void cancel() {
+        tickHandler.removeMessages(MSG_TICK);
+        choreographer.removeFrameCallback(frameCallback);
+        frameRequested = false;
+    }
+
+    private void reschedule() {
+        cancel();
+        if (mode == MODE_TICK) {
+            scheduleTick();
+        } else {
+            nextDeadlineNanos = System.nanoTime();
+            choreographer.postFrameCallback(frameCallback);
+        }
+    }
+
+    private void scheduleTick() {
+        long delayMs = 1000 - System.currentTimeMillis() % 1000;
+        tickHandler.sendEmptyMessageDelayed(MSG_TICK, delayMs);
+    }
+
+    private void onTick() {
+        if (!active || mode != MODE_TICK) return;
+        long millisInSecond = System.currentTimeMillis() % 1000;
+        if (millisInSecond > 900) {
+            //woke up just before the boundary, the second has not changed yet
+            scheduleTick();
+            return;
+        }
+        //late by a vsync or more, the second hand lagged behind the second
+        if (millisInSecond * NANOS_PER_MILLI >= vsyncNanos) missedDeadlines++;
+        callback.onFrame();
+        scheduleTick();
+    }
+
+    private void doFrame(long frameTimeNanos) {
+        if (!active) return;
+        boolean requested = frameRequested;
+        frameRequested = false;
+
+        if (mode == MODE_TICK) {
+            //only here for a requested frame, the next tick is already scheduled
+            if (requested) callback.onFrame();
+            return;
+        }
+
+        long interval = NANOS_PER_SECOND / getTargetFps(mode);
+        //frames land on vsyncs, anything within half a vsync of the deadline is on time
+        long lateness = frameTimeNanos - nextDeadlineNanos;
+        if (lateness >= -vsyncNanos / 2) {
+            if (lateness > vsyncNanos / 2) {
+                long skipped = lateness / interval;
+                missedDeadlines += 1 + skipped;
+                nextDeadlineNanos += skipped * interval;
+            }
+            nextDeadlineNanos += interval;
+            callback.onFrame();
+        } else if (requested) {
+            callback.onFrame();
+        }
+
+        //sleep through the vsyncs before the next deadline
+        long wait = nextDeadlineNanos - frameTimeNanos - vsyncNanos;
+        if (wait > vsyncNanos / 2) {
+            choreographer.postFrameCallbackDelayed(frameCallback, wait / NANOS_PER_MILLI);
+        } else {
+            choreographer.postFrameCallback(frameCallback);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package com.marcouberti.f35watchface;
+
+import java.io.PrintWriter;
+
+/**
+ * Opt-in timing of the sections of a frame, printed by the service {@code dump()}.
+ * <p>
+ * Each section accumulates its time within a frame through {@link #mark(int, long)}; at
+ * {@link #endFrame(int, int)} the sections that ran go into fixed-bucket histograms of ints, so
+ * recording never allocates. Buckets are 10 us wide up to 1 ms, 100 us up to 10 ms and 1 ms up to
+ * 100 ms, the percentiles are reported as the upper bound of their bucket.
+ * <p>
+ * Recorded on the main thread, read by {@code dump()} on a binder thread without locking: a dump
+ * may be off by the frame being recorded.
+ */
+public final class FrameStats {
+
+    /**
+     * Blit of the static layer, every frame.
+     */
+    public static final int LAYER = 0;
+    public static final int BACKGROUND = 1;
+    public static final int TRIANGLE = 2;
+    /**
+     * Logo in the static layer, or the chrono digits drawn in its place.
+     */
+    public static final int LOGO = 3;
+    /**
+     * Update of the complication slot layer, plus its blit when the static layer is rebuilt.
+     */
+    public static final int LEFT_COMPLICATION = 4;
+    public static final int RIGHT_COMPLICATION = 5;
+    public static final int HANDS = 6;
+    public static final int CENTER = 7;
+    /**
+     * The whole frame, from {@link #beginFrame()} to {@link #endFrame(int, int)}.
+     */
+    public static final int FRAME = 8;
+    private static final int SECTION_COUNT = 9;
+    private static final String[] SECTION_NAMES = {
+            "layer", "background", "triangle", "logo", "left", "right", "hands", "center", "frame"};
+
+    private static final int BUCKET_COUNT = 281;
+    private static final long BUDGET_60_FPS_NANOS = 1000000000L / 60;
+    private static final long BUDGET_30_FPS_NANOS = 1000000000L / 30;
+    private static final int WORST_FRAMES = 5;
+
+    private final boolean enabled;
+
+    private final int[][] histograms = new int[SECTION_COUNT][BUCKET_COUNT];
+    private final long[] sectionCounts = new long[SECTION_COUNT];
+    private final long[] sectionMaxNanos = new long[SECTION_COUNT];
+
+    //current frame
+    private final long[] frameNanos = new long[SECTION_COUNT];
+    private final boolean[] ran = new boolean[SECTION_COUNT];
+    private long frameStart;
+
+    private long frames;
+    private long over60FpsBudget;
+    private long over30FpsBudget;
+
+    //worst frames, slowest first, with the complication modes they were drawn with
+    private final long[] worstNanos = new long[WORST_FRAMES];
+    private final long[] worstAt = new long[WORST_FRAMES];
+    private final int[] worstLeft = new int[WORST_FRAMES];
+    private final int[] worstRight = new int[WORST_FRAMES];
+
+    /**
+     * @param enabled false turns every method into a no-op
+     */
+    public FrameStats(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the time to pass to the first {@link #mark(int, long)} of the frame
+     */
+    public long beginFrame() {
+        if (!enabled) return 0;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            frameNanos[i] = 0;
+            ran[i] = false;
+        }
+        frameStart = System.nanoTime();
+        return frameStart;
+    }
+
+    /**
+     * Starts timing again from now, the time since the last mark is not charged to any section.
+     *
+     * @return now, to pass to the next mark
+     */
+    public long restart() {
+        if (!enabled) return 0;
+        return System.nanoTime();
+    }
+
+    /**
+     * Adds the time since {@code since} to {@code section}.
+     *
+     * @return now, to pass to the next mark
+     */
+    public long mark(int section, long since) {
+        if (!enabled) return 0;
+        long now = System.nanoTime();
+        frameNanos[section] += now - since;
+        ran[section] = true;
+        return now;
+    }
+
+    /**
+     * Records the frame.
+     *
+     * @param leftMode complication mode shown on the left, to tell the worst frames apart
+     * @param rightMode complication mode shown on the right
+     */
+    public void endFrame(int leftMode, int rightMode) {
+        if (!enabled) return;
+        long total = System.nanoTime() - frameStart;
+        frameNanos[FRAME] = total;
+        ran[FRAME] = true;
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            if (!ran[i]) continue;
+            long nanos = frameNanos[i];
+            histograms[i][bucketOf(nanos)]++;
+            sectionCounts[i]++;
+            if (nanos > sectionMaxNanos[i]) sectionMaxNanos[i] = nanos;
+        }
+
+        frames++;
+        if (total > BUDGET_60_FPS_NANOS) over60FpsBudget++;
+        if (total > BUDGET_30_FPS_NANOS) over30FpsBudget++;
+
+        if (total > worstNanos[WORST_FRAMES - 1]) {
+            int i = WORST_FRAMES - 1;
+            while (i > 0 && total > worstNanos[i - 1]) {
+                worstNanos[i] = worstNanos[i - 1];
+                worstAt[i] = worstAt[i - 1];
+                worstLeft[i] = worstLeft[i - 1];
+                worstRight[i] = worstRight[i - 1];
+                i--;
+            }
+            worstNanos[i] = total;
+            worstAt[i] = System.currentTimeMillis();
+            worstLeft[i] = leftMode;
+            worstRight[i] = rightMode;
+        }
+    }
+
+    private static int bucketOf(long nanos) {
+        long micros = nanos / 1000;
+        if (micros < 1000) return (int) (micros / 10);
+        if (micros < 10000) return 100 + (int) ((micros - 1000) / 100);
+        if (micros < 100000) return 190 + (int) ((micros - 10000) / 1000);
+        return BUCKET_COUNT - 1;
+    }
+
+    /**
+     * @return the upper bound of the bucket in microseconds, {@link Long#MAX_VALUE} for the last
+     */
+    private static long bucketUpperMicros(int bucket) {
+        if (bucket < 100) return (bucket + 1) * 10L;
+        if (bucket < 190) return 1000 + (bucket - 99) * 100L;
+        if (bucket < BUCKET_COUNT - 1) return 10000 + (bucket - 189) * 1000L;
+        return Long.MAX_VALUE;
+    }
+
+    private long percentileMicros(int section, double percentile) {
+        long count = sectionCounts[section];
+        if (count == 0) return 0;
+        long rank = (long) Math.ceil(count * percentile);
+        long seen = 0;
+        int[] histogram = histograms[section];
+        for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+            seen += histogram[bucket];
+            if (seen >= rank) return bucketUpperMicros(bucket);
+        }
+        return Long.MAX_VALUE;
+    }
+
+    /**
+     * Prints the counters, the percentiles of each section and the worst frames.
+     *
+     * @param modeNames names of the complication modes, indexed by mode
+     */
+    public void dump(PrintWriter writer, String[] modeNames) {
+        if (!enabled) {
+            writer.println("Frame stats disabled");
+            return;
+        }
+        writer.println("Frames: " + frames
+                + ", over 16ms: " + over60FpsBudget
+                + ", over 33ms: " + over30FpsBudget);
+        writer.println(String.format("%-12s %8s %9s %9s %9s %9s",
+                "section", "count", "p50 ms", "p90 ms", "p99 ms", "max ms"));
+        for (int i = 0; i < SECTION_COUNT; i++) {
+            writer.println(String.format("%-12s %8d %9s %9s %9s %9.3f",
+                    SECTION_NAMES[i], sectionCounts[i],
+                    formatMicros(percentileMicros(i, 0.50)),
+                    formatMicros(percentileMicros(i, 0.90)),
+                    formatMicros(percentileMicros(i, 0.99)),
+                    sectionMaxNanos[i] / 1e6));
+        }
+        writer.println("Worst frames:");
+        for (int i = 0; i < WORST_FRAMES && worstNanos[i] > 0; i++) {
+            writer.println(String.format("  %8.3f ms at %tT, left %s, right %s",
+                    worstNanos[i] / 1e6, worstAt[i],
+                    nameOf(modeNames, worstLeft[i]), nameOf(modeNames, worstRight[i])));
+        }
+    }
+
+    private static String formatMicros(long micros) {
+        if (micros == Long.MAX_VALUE) return ">100";
+        return String.format("%.3f", micros / 1000.0);
+    }
+
+    private static String nameOf(String[] names, int mode) {
+        return mode >= 0 && mode < names.length ? names[mode] : String.valueOf(mode);
+    }
+}
@@ -0,0 +1,138 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+
+/**
+ * Pre-rendered hour and minute hands, shadow included.
+ * <p>
+ * The hand paint carries a blurred shadow layer in interactive mode, which the software canvas
+ * computes again for every hand on every frame. Here each hand is rasterized once, upright, into
+ * a sprite with room for its shadow, and the face draws it with a rotation matrix around the
+ * center. The sprites are rendered again when the surface size or one of the hand colors (night
+ * mode, accent color) changes.
+ * <p>
+ * Ambient mode keeps drawing the hands as shapes through {@link #drawHand}, it has no shadow and
+ * low-bit displays want no filtered edges.
+ */
+public class HandSpriteCache {
+
+    public static final int MINUTE = 0;
+    public static final int HOUR = 1;
+    private static final int HAND_COUNT = 2;
+
+    /**
+     * Room around the hand for its shadow: blur radius 2 spreads about 5px, plus the 1px offset.
+     */
+    private static final int SHADOW_MARGIN = 8;
+
+    private final Bitmap[] sprites = new Bitmap[HAND_COUNT];
+    private final int[] originX = new int[HAND_COUNT];
+    private final int[] originY = new int[HAND_COUNT];
+    private final Matrix matrix = new Matrix();
+    private final Paint spritePaint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    private int width = -1;
+    private int height = -1;
+    private int handColor;
+    private int lineColor;
+    private int dotColor;
+
+    /**
+     * Renders the sprites again if the surface or the colors of the paints changed since the
+     * last call, the paints are as {@link #drawHand} takes them.
+     */
+    public void update(FaceGeometry geometry, Paint handPaint, Paint linePaint, Paint dotPaint) {
+        if (geometry.width == width && geometry.height == height
+                && handPaint.getColor() == handColor && linePaint.getColor() == lineColor
+                && dotPaint.getColor() == dotColor && sprites[MINUTE] != null) return;
+        width = geometry.width;
+        height = geometry.height;
+        handColor = handPaint.getColor();
+        lineColor = linePaint.getColor();
+        dotColor = dotPaint.getColor();
+        //the hands are rasterized where the face draws them upright, both on one scratch bitmap
+        //reaching the bottom right corner of the widest sprite
+        int right = (int) Math.ceil(geometry.centerX + getHalfWidth(HOUR, geometry)) + SHADOW_MARGIN;
+        int bottom = (int) Math.ceil(geometry.centerY) + SHADOW_MARGIN;
+        Bitmap scratch = Bitmap.createBitmap(right, bottom, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(scratch);
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            scratch.eraseColor(Color.TRANSPARENT);
+            render(hand, geometry, canvas, scratch, handPaint, linePaint, dotPaint);
+        }
+        scratch.recycle();
+    }
+
+    /**
+     * Draws {@code hand} rotated by {@code degrees} around ({@code cx}, {@code cy}).
+     */
+    public void draw(Canvas canvas, int hand, float degrees, float cx, float cy) {
+        Bitmap sprite = sprites[hand];
+        if (sprite == null) return;
+        matrix.setTranslate(originX[hand], originY[hand]);
+        matrix.postRotate(degrees, cx, cy);
+        canvas.drawBitmap(sprite, matrix, spritePaint);
+    }
+
+    public void clear() {
+        for (int hand = 0; hand < HAND_COUNT; hand++) {
+            if (sprites[hand] != null) {
+                sprites[hand].recycle();
+                sprites[hand] = null;
+            }
+        }
+        width = -1;
+        height = -1;
+    }
+
+    /**
+     * Draws {@code hand} at the face coordinates on the cleared {@code scratch} and cuts its
+     * sprite out.
+     */
+    private void render(int hand, FaceGeometry geometry, Canvas canvas, Bitmap scratch, Paint handPaint,
+                        Paint linePaint, Paint dotPaint) {
+        float halfWidth = getHalfWidth(hand, geometry);
+        float top = hand == MINUTE ? geometry.minuteHandTop : geometry.hourHandTop;
+        //integer origin, so the upright sprite lands on the pixels the shapes would cover
+        int left = (int) Math.floor(geometry.centerX - halfWidth) - SHADOW_MARGIN;
+        int right = (int) Math.ceil(geometry.centerX + halfWidth) + SHADOW_MARGIN;
+        int spriteTop = (int) Math.floor(top) - SHADOW_MARGIN;
+        int bottom = (int) Math.ceil(geometry.centerY) + SHADOW_MARGIN;
+
+        if (sprites[hand] != null) sprites[hand].recycle();
+        drawHand(canvas, hand, geometry, handPaint, linePaint, dotPaint);
+        sprites[hand] = Bitmap.createBitmap(scratch, left, spriteTop, right - left, bottom - spriteTop);
+        originX[hand] = left;
+        originY[hand] = spriteTop;
+    }
+
+    private static float getHalfWidth(int hand, FaceGeometry geometry) {
+        float halfWidth = Math.max(geometry.handHalfWidth, geometry.handStrokeWidth / 2f);
+        if (hand == HOUR) halfWidth = Math.max(halfWidth, geometry.hourHandDotRadius);
+        return halfWidth;
+    }
+
+    /**
+     * Draws {@code hand} upright as shapes: the rounded body, the line from the center and, for
+     * the hour hand, the accent dot.
+     *
+     * @param dotPaint null for no dot
+     */
+    public static void drawHand(Canvas canvas, int hand, FaceGeometry geometry, Paint handPaint,
+                                Paint linePaint, Paint dotPaint) {
+        float cx = geometry.centerX;
+        float cy = geometry.centerY;
+        float top = hand == MINUTE ? geometry.minuteHandTop : geometry.hourHandTop;
+        float radius = geometry.handCornerRadius;
+        canvas.drawRoundRect(cx - geometry.handHalfWidth, top, cx + geometry.handHalfWidth,
+                geometry.handBottom, radius, radius, handPaint);
+        canvas.drawLine(cx, cy, cx, top, linePaint);
+        if (hand == HOUR && dotPaint != null) {
+            canvas.drawCircle(cx, geometry.hourHandDotY, geometry.hourHandDotRadius, dotPaint);
+        }
+    }
+}
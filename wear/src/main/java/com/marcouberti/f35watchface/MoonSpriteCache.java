@@ -0,0 +1,200 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.graphics.RectF;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Pre-rendered moon disks, one per phase step.
+ * <p>
+ * The phase angle is quantized to {@link #STEPS} steps per lunation (about 2.8 hours each) and
+ * the disk for a step is rasterized once into a small sprite, the face then draws it with a single
+ * {@code drawBitmap}. The most recently used sprites are kept, a change of radius or palette drops
+ * them all. The sprites are rasterized at the device position of the moon, moving it drops them
+ * too.
+ */
+public class MoonSpriteCache {
+
+    public static final int STEPS = 256;
+
+    private static final int MAX_SPRITES = 4;
+
+    private final LinkedHashMap<Integer, Bitmap> sprites = new LinkedHashMap<>(8, 0.75f, true);
+    private final Paint litPaint = new Paint();
+    private final Paint darkPaint = new Paint();
+    private final RectF oval = new RectF();
+    private final Canvas spriteCanvas = new Canvas();
+    private final Matrix matrix = new Matrix();
+    private final float[] matrixValues = new float[9];
+    private final Rect src = new Rect();
+    private final Rect dst = new Rect();
+    private int moonRadius = -1;
+    //device position of the center the sprites were rasterized at
+    private int deviceX = Integer.MIN_VALUE;
+    private int deviceY = Integer.MIN_VALUE;
+    private Bitmap reusable;
+    /**
+     * Reaches the device position of the moon, the sprites are rasterized on it and cut out.
+     */
+    private Bitmap scratch;
+    private final Canvas scratchCanvas = new Canvas();
+
+    public MoonSpriteCache() {
+        litPaint.setStyle(Paint.Style.FILL);
+        litPaint.setAntiAlias(true);
+        darkPaint.setStyle(Paint.Style.FILL);
+        darkPaint.setAntiAlias(true);
+    }
+
+    /**
+     * Sets the disk radius and colors, dropping the cached sprites if any of them changed.
+     */
+    public void configure(int moonRadius, int litColor, int darkColor) {
+        if (moonRadius == this.moonRadius && litColor == litPaint.getColor()
+                && darkColor == darkPaint.getColor()) return;
+        this.moonRadius = moonRadius;
+        litPaint.setColor(litColor);
+        darkPaint.setColor(darkColor);
+        clear();
+    }
+
+    /**
+     * Draws the disk for {@code phaseAngle} centered at ({@code xcenter}, {@code ycenter}).
+     *
+     * @param phaseAngle angle sun-moon-earth in radians, 0 at full moon and PI at new moon
+     */
+    @SuppressWarnings("deprecation")
+    public void draw(Canvas canvas, int xcenter, int ycenter, double phaseAngle) {
+        //the face canvas is translated at most, never scaled or rotated
+        canvas.getMatrix(matrix);
+        matrix.getValues(matrixValues);
+        int x = xcenter + Math.round(matrixValues[Matrix.MTRANS_X]);
+        int y = ycenter + Math.round(matrixValues[Matrix.MTRANS_Y]);
+        if (x != deviceX || y != deviceY) {
+            clear();
+            deviceX = x;
+            deviceY = y;
+        }
+        int step = toStep(phaseAngle);
+        Bitmap sprite = sprites.get(step);
+        if (sprite == null) {
+            sprite = render(step);
+            sprites.put(step, sprite);
+            trim();
+        }
+        int extent = moonRadius + 1;
+        canvas.drawBitmap(sprite, xcenter - extent, ycenter - extent, null);
+    }
+
+    public void clear() {
+        for (Bitmap sprite : sprites.values()) sprite.recycle();
+        sprites.clear();
+        if (reusable != null) {
+            reusable.recycle();
+            reusable = null;
+        }
+        if (scratch != null) {
+            scratch.recycle();
+            scratch = null;
+        }
+    }
+
+    public static int toStep(double phaseAngle) {
+        return ((int) Math.round(phaseAngle / (2. * Math.PI) * STEPS)) & (STEPS - 1);
+    }
+
+    public static double toPhaseAngle(int step) {
+        return step * (2. * Math.PI) / STEPS;
+    }
+
+    private Bitmap render(int step) {
+        int extent = moonRadius + 1;
+        int size = 2 * extent + 2;
+        Bitmap sprite = reusable;
+        reusable = null;
+        if (sprite == null || sprite.getWidth() != size) {
+            if (sprite != null) sprite.recycle();
+            sprite = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        } else {
+            sprite.eraseColor(Color.TRANSPARENT);
+        }
+        //the anti-aliased rim depends on the device position, not only on the subpixel offset: a
+        //translated canvas gives other pixels
+        int x = Math.max(deviceX, extent);
+        int y = Math.max(deviceY, extent);
+        if (scratch == null) {
+            //the position and the radius are the same until clear()
+            scratch = Bitmap.createBitmap(x + extent + 2, y + extent + 2, Bitmap.Config.ARGB_8888);
+        } else {
+            scratch.eraseColor(Color.TRANSPARENT);
+        }
+        scratchCanvas.setBitmap(scratch);
+        drawDisk(scratchCanvas, x, y, moonRadius, toPhaseAngle(step), litPaint, darkPaint, oval);
+        scratchCanvas.setBitmap(null);
+        src.set(x - extent, y - extent, x - extent + size, y - extent + size);
+        dst.set(0, 0, size, size);
+        spriteCanvas.setBitmap(sprite);
+        spriteCanvas.drawBitmap(scratch, src, dst, null);
+        spriteCanvas.setBitmap(null);
+        return sprite;
+    }
+
+    private void trim() {
+        Iterator<Map.Entry<Integer, Bitmap>> iterator = sprites.entrySet().iterator();
+        while (sprites.size() > MAX_SPRITES && iterator.hasNext()) {
+            Bitmap evicted = iterator.next().getValue();
+            iterator.remove();
+            if (reusable == null) {
+                reusable = evicted;
+            } else {
+                evicted.recycle();
+            }
+        }
+    }
+
+    /**
+     * Rasterizes the moon disk: the whole disk in the lit color, then the dark part one scanline
+     * at a time.
+     */
+    static void drawDisk(Canvas canvas, int xcenter, int ycenter, int moonradius, double phaseAngle,
+                         Paint litPaint, Paint darkPaint, RectF oval) {
+        // draw the whole moon disk, in moonColor:
+        oval.set(xcenter - moonradius, ycenter - moonradius, xcenter
+                + moonradius, ycenter + moonradius);
+        canvas.drawOval(oval, litPaint);
+
+        /* The phase angle is the angle sun-moon-earth,
+         so 0 = full phase, 180 = new.
+         What we're actually interested in for drawing purposes
+         is the position angle of the sunrise terminator,
+         which runs the opposite direction from the phase angle,
+         so we have to convert. */
+        double positionAngle = Math.PI - phaseAngle;
+        if (positionAngle < 0.)
+            positionAngle += 2. * Math.PI;
+
+        // Okay, now fill in the dark part.
+        double cosTerm = Math.cos(positionAngle);
+        moonradius += 1;//FIX WHITE BEHIND EDGES
+        double rsquared = moonradius * moonradius;
+        int whichQuarter = ((int) (positionAngle * 2. / Math.PI) + 4) % 4;
+
+        for (int j = 0; j <= moonradius; ++j) {
+            double rrf = Math.sqrt(rsquared - j * j);
+            int rr = (int) (rrf + .5);
+            int xx = (int) (rrf * cosTerm);
+            int x1 = xcenter - (whichQuarter < 2 ? rr : xx);
+            int w = rr + xx + 1;
+            canvas.drawRect(x1, ycenter - j, w + x1, ycenter - j + 1, darkPaint);
+            canvas.drawRect(x1, ycenter + j, w + x1, ycenter + j + 1, darkPaint);
+        }
+    }
+}
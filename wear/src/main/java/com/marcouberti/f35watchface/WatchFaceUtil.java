@@ -29,12 +29,18 @@ import com.google.android.gms.wearable.NodeApi;
 import com.google.android.gms.wearable.PutDataMapRequest;
 import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
+import com.marcouberti.f35watchface.utils.time.ZoneOffsetTable;
 
 public final class WatchFaceUtil {
     private static final String TAG = "FaceUtil";
 
 
     public static final String KEY_SECOND_TIMEZONE = "KEY_SECOND_TIMEZONE";
+    /**
+     * World clock zone ids, a string array of at most {@link #MAX_WORLD_CLOCK_ZONES}.
+     */
+    public static final String KEY_WORLD_CLOCK_ZONES = "KEY_WORLD_CLOCK_ZONES";
+    public static final int MAX_WORLD_CLOCK_ZONES = ZoneOffsetTable.MAX_ZONES;
 
     /**
      * The {@link DataMap} key for {@link F35Face} background color name.
@@ -65,6 +71,26 @@ public final class WatchFaceUtil {
      */
     public static final String PATH_WITH_FEATURE = "/f35wf";
 
+    /**
+     * Location pushed by the phone, with {@link #KEY_LATITUDE_E7}, {@link #KEY_LONGITUDE_E7},
+     * {@link #KEY_LOCATION_TIME} and {@link #KEY_LOCATION_PUBLISHED}.
+     */
+    public static final String PATH_LOCATION = "/location";
+    /**
+     * Int, degrees times 1e7, see {@link com.marcouberti.f35watchface.utils.location.LocationFix}.
+     */
+    public static final String KEY_LATITUDE_E7 = "LATITUDE_E7";
+    public static final String KEY_LONGITUDE_E7 = "LONGITUDE_E7";
+    /**
+     * Long, time of the fix in milliseconds since the epoch.
+     */
+    public static final String KEY_LOCATION_TIME = "LOCATION_TIME";
+    /**
+     * Long, time the phone pushed the item in milliseconds since the epoch, it changes the item
+     * when the same fix is pushed again.
+     */
+    public static final String KEY_LOCATION_PUBLISHED = "LOCATION_PUBLISHED";
+
     /**
      * Name of the default interactive mode background color and the ambient mode background color.
      */
@@ -0,0 +1,111 @@
+package com.marcouberti.f35watchface.utils.battery;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.BatteryManager;
+import android.os.SystemClock;
+
+/**
+ * Battery state kept up to date from {@link Intent#ACTION_BATTERY_CHANGED} while registered.
+ * Readers get the last {@link Snapshot} with a plain field read, so drawing never goes through a
+ * binder call to the activity manager.
+ */
+public class BatteryState {
+
+    /**
+     * Notified on the main thread when the battery percentage changes.
+     */
+    public interface Listener {
+        void onBatteryLevelChanged(Snapshot snapshot);
+    }
+
+    /**
+     * Immutable battery reading.
+     */
+    public static final class Snapshot {
+        public static final Snapshot UNKNOWN = new Snapshot(-1, -1, false, 0);
+
+        public final int level;
+        public final int scale;
+        public final boolean charging;
+        /**
+         * When the reading was received, in {@link SystemClock#elapsedRealtime()} time base.
+         */
+        public final long timestamp;
+
+        Snapshot(int level, int scale, boolean charging, long timestamp) {
+            this.level = level;
+            this.scale = scale;
+            this.charging = charging;
+            this.timestamp = timestamp;
+        }
+
+        public boolean isKnown() {
+            return level >= 0 && scale > 0;
+        }
+
+        /**
+         * @return the charge from 0 to 100, or {@code fallback} if it is unknown
+         */
+        public int getPercentage(int fallback) {
+            if (!isKnown()) return fallback;
+            return (int) (((float) level / (float) scale) * 100.0f);
+        }
+    }
+
+    private static final IntentFilter FILTER = new IntentFilter(Intent.ACTION_BATTERY_CHANGED);
+
+    private volatile Snapshot snapshot = Snapshot.UNKNOWN;
+    private Listener listener;
+    private boolean registered;
+
+    private final BroadcastReceiver receiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            update(intent);
+        }
+    };
+
+    public void setListener(Listener listener) {
+        this.listener = listener;
+    }
+
+    public Snapshot getSnapshot() {
+        return snapshot;
+    }
+
+    /**
+     * Starts listening for battery changes; the sticky broadcast makes the snapshot valid
+     * right away.
+     */
+    public void register(Context context) {
+        if (registered) return;
+        registered = true;
+        Intent sticky = context.registerReceiver(receiver, FILTER);
+        if (sticky != null) update(sticky);
+    }
+
+    public void unregister(Context context) {
+        if (!registered) return;
+        registered = false;
+        context.unregisterReceiver(receiver);
+    }
+
+    private void update(Intent intent) {
+        int level = intent.getIntExtra(BatteryManager.EXTRA_LEVEL, -1);
+        int scale = intent.getIntExtra(BatteryManager.EXTRA_SCALE, -1);
+        int status = intent.getIntExtra(BatteryManager.EXTRA_STATUS, -1);
+        boolean charging = status == BatteryManager.BATTERY_STATUS_CHARGING
+                || status == BatteryManager.BATTERY_STATUS_FULL;
+
+        Snapshot previous = snapshot;
+        Snapshot current = new Snapshot(level, scale, charging, SystemClock.elapsedRealtime());
+        snapshot = current;
+
+        if (listener != null && previous.getPercentage(-1) != current.getPercentage(-1)) {
+            listener.onBatteryLevelChanged(current);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package com.marcouberti.f35watchface.utils.location;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import java.io.PrintWriter;
+
+/**
+ * Keeps the location from the phone fresh while a complication shows it, away from the draw
+ * path.
+ * <p>
+ * The phone pushes the location once it has been asked for it once, see
+ * {@link #onPushedLocation}, and pushes it again before the push TTL runs out while it stays put.
+ * A request is only the fallback for when neither a push arrived within the push TTL nor an
+ * answer within the TTL, e.g. the phone lost the subscription or its app predates the pushes. A
+ * single request is in flight at a time; a request the phone does not answer within
+ * {@link #RESPONSE_TIMEOUT_MS}, or that cannot be sent, is retried after a backoff doubling from
+ * {@link #MIN_BACKOFF_MS} up to {@link #MAX_BACKOFF_MS}. The backoff starts over with an answer
+ * or when the phone becomes reachable. The listener hears only about coordinates that moved by
+ * more than {@link #CHANGE_DEGREES}.
+ * <p>
+ * Must be used on the main thread, except {@link #onPhoneReachable()}. Times are in
+ * {@link SystemClock#elapsedRealtime()} time base, setting the clock does not make a location
+ * stale.
+ */
+public class LocationSync {
+
+    /**
+     * Time the phone has to answer a request.
+     */
+    private static final long RESPONSE_TIMEOUT_MS = 15000;
+    private static final long MIN_BACKOFF_MS = 30000;
+    private static final long MAX_BACKOFF_MS = 30 * 60000;
+    /**
+     * About 11 m, well below the two decimals shown and the precision of the sunrise time.
+     */
+    private static final double CHANGE_DEGREES = 0.0001;
+
+    /**
+     * Sends the location request to the phone.
+     */
+    public interface Transport {
+        /**
+         * @return false if the request could not be sent, e.g. no phone is connected
+         */
+        boolean requestLocation();
+    }
+
+    /**
+     * Notified on the main thread when the coordinates change.
+     */
+    public interface Listener {
+        void onLocationChanged(double latitude, double longitude);
+    }
+
+    private final Transport transport;
+    private final Listener listener;
+    private final long ttlMillis;
+    private final long pushTtlMillis;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final Runnable request = new Runnable() {
+        @Override
+        public void run() {
+            sendRequest();
+        }
+    };
+    private final Runnable timeout = new Runnable() {
+        @Override
+        public void run() {
+            onTimeout();
+        }
+    };
+    private final Runnable reachable = new Runnable() {
+        @Override
+        public void run() {
+            resetBackoff();
+            schedule();
+        }
+    };
+
+    private boolean active;
+    private boolean inFlight;
+    /**
+     * When the location becomes stale, -1 until the first one.
+     */
+    private long staleAt = -1;
+    private long backoffMillis;
+    private long retryAt;
+    private double latitude = Double.NaN;
+    private double longitude = Double.NaN;
+
+    //read by the dump on a binder thread
+    private volatile long pushes;
+    private volatile long requests;
+    private volatile long successes;
+    private volatile long timeouts;
+    private volatile long failures;
+    private volatile long unchanged;
+
+    /**
+     * @param ttlMillis     age past which an answered location is asked again
+     * @param pushTtlMillis age past which a pushed location is asked again, above the time the
+     *                      phone takes to push it again while it stays put
+     */
+    public LocationSync(Transport transport, Listener listener, long ttlMillis, long pushTtlMillis) {
+        this.transport = transport;
+        this.listener = listener;
+        this.ttlMillis = ttlMillis;
+        this.pushTtlMillis = pushTtlMillis;
+    }
+
+    /**
+     * Starts keeping the location fresh, asking for it at once if it is stale, or stops. A
+     * request in flight when stopping is forgotten, a late answer is still taken.
+     */
+    public void setActive(boolean active) {
+        if (this.active == active) return;
+        this.active = active;
+        if (active) {
+            schedule();
+        } else {
+            handler.removeCallbacks(request);
+            handler.removeCallbacks(timeout);
+            inFlight = false;
+        }
+    }
+
+    /**
+     * A location has arrived from the phone, answering a request or not.
+     */
+    public void onLocation(double latitude, double longitude) {
+        successes++;
+        accept(latitude, longitude, SystemClock.elapsedRealtime() + ttlMillis);
+    }
+
+    /**
+     * A location has arrived as the data item the phone keeps up to date: the fallback request is
+     * put off by the push TTL, less the age of the item.
+     *
+     * @param ageMillis time since the phone pushed it, e.g. an item fetched on connect may be old
+     */
+    public void onPushedLocation(double latitude, double longitude, long ageMillis) {
+        pushes++;
+        accept(latitude, longitude, SystemClock.elapsedRealtime() + pushTtlMillis - Math.max(0, ageMillis));
+    }
+
+    private void accept(double latitude, double longitude, long staleAt) {
+        handler.removeCallbacks(timeout);
+        inFlight = false;
+        this.staleAt = staleAt;
+        resetBackoff();
+        if (Math.abs(latitude - this.latitude) > CHANGE_DEGREES
+                || Math.abs(longitude - this.longitude) > CHANGE_DEGREES
+                || Double.isNaN(this.latitude)) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            listener.onLocationChanged(latitude, longitude);
+        } else {
+            unchanged++;
+        }
+        schedule();
+    }
+
+    /**
+     * The request in flight was not delivered to the phone, it is retried after the backoff.
+     */
+    public void onRequestFailed() {
+        if (!inFlight) return;
+        handler.removeCallbacks(timeout);
+        inFlight = false;
+        failures++;
+        backOff();
+        schedule();
+    }
+
+    /**
+     * A phone is connected again, a stale location is asked for without waiting for the backoff.
+     * May be called from any thread.
+     */
+    public void onPhoneReachable() {
+        handler.post(reachable);
+    }
+
+    /**
+     * Prints the state and the counters.
+     */
+    public void dump(PrintWriter writer) {
+        writer.println("Location sync: pushed " + pushes
+                + ", requests " + requests
+                + ", answers " + successes
+                + ", unchanged " + unchanged
+                + ", timeouts " + timeouts
+                + ", send failures " + failures);
+    }
+
+    private void sendRequest() {
+        if (!active || inFlight) return;
+        requests++;
+        if (!transport.requestLocation()) {
+            failures++;
+            backOff();
+            schedule();
+            return;
+        }
+        inFlight = true;
+        handler.postDelayed(timeout, RESPONSE_TIMEOUT_MS);
+    }
+
+    private void onTimeout() {
+        if (!inFlight) return;
+        inFlight = false;
+        timeouts++;
+        backOff();
+        schedule();
+    }
+
+    /**
+     * Schedules the next request: when the location becomes stale, not before the backoff.
+     */
+    private void schedule() {
+        handler.removeCallbacks(request);
+        if (!active || inFlight) return;
+        long due = staleAt == -1 ? retryAt : Math.max(staleAt, retryAt);
+        long delay = due - SystemClock.elapsedRealtime();
+        if (delay > 0) {
+            handler.postDelayed(request, delay);
+        } else {
+            handler.post(request);
+        }
+    }
+
+    private void backOff() {
+        backoffMillis = backoffMillis == 0 ? MIN_BACKOFF_MS : Math.min(backoffMillis * 2, MAX_BACKOFF_MS);
+        retryAt = SystemClock.elapsedRealtime() + backoffMillis;
+    }
+
+    private void resetBackoff() {
+        backoffMillis = 0;
+        retryAt = 0;
+    }
+}
@@ -0,0 +1,340 @@
+package com.marcouberti.f35watchface.utils.stopwatch;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Append-only binary log of the stopwatch, so a run and its laps survive the engine and the
+ * process being recreated.
+ * <p>
+ * Each record is 17 bytes: a type byte and two longs. For {@link #START}, {@link #PAUSE},
+ * {@link #RESUME} and {@link #STOP} they are the monotonic time of the event and the wall clock
+ * time; for {@link #LAP} the split in nanoseconds and the wall clock time; for {@link #DROPPED}
+ * the split of the last overwritten lap and the number of overwritten laps.
+ * <p>
+ * Reads and writes run on a single background thread shared by every log, in call order: the
+ * caller never waits for the disk, and a log opened by a new engine is read after the records the
+ * previous engine left pending. A start truncates the log, and {@link #restore} rewrites it in the
+ * current monotonic timeline, so the file holds a single run.
+ */
+public class StopWatchLog {
+
+    private static final String TAG = "StopWatchLog";
+
+    private static final byte START = 1;
+    private static final byte PAUSE = 2;
+    private static final byte RESUME = 3;
+    private static final byte STOP = 4;
+    private static final byte LAP = 5;
+    private static final byte DROPPED = 6;
+
+    private static final int RECORD_BYTES = 1 + 8 + 8;
+    private static final long NANOS_PER_MILLI = 1000000L;
+    /**
+     * Disagreement between the monotonic and the wall clock past which the monotonic time of the
+     * log is taken as belonging to a previous boot.
+     */
+    private static final long BOOT_TOLERANCE_MILLIS = 60000;
+
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor();
+
+    /**
+     * Told on the main thread that {@link #restore} put a run or laps back.
+     */
+    public interface Callback {
+        void onRestored();
+    }
+
+    private final File file;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private volatile boolean released;
+
+    public StopWatchLog(File file) {
+        this.file = file;
+    }
+
+    public void logStart(long nowNanos, long nowMillis) {
+        write(true, START, nowNanos, nowMillis);
+    }
+
+    public void logPause(long nowNanos, long nowMillis) {
+        write(false, PAUSE, nowNanos, nowMillis);
+    }
+
+    public void logResume(long nowNanos, long nowMillis) {
+        write(false, RESUME, nowNanos, nowMillis);
+    }
+
+    public void logStop(long nowNanos, long nowMillis) {
+        write(false, STOP, nowNanos, nowMillis);
+    }
+
+    public void logLap(long splitNanos, long nowMillis) {
+        write(false, LAP, splitNanos, nowMillis);
+    }
+
+    /**
+     * Replays the log on the background thread, then puts the run and its laps into {@code watch}
+     * and {@code laps} on the main thread and calls {@code callback}. A run still going is
+     * advanced to {@code nowNanos}, by the wall clock if the device rebooted since the last
+     * record, and the log is rewritten from the restored state.
+     * <p>
+     * Nothing is put back if the stopwatch was started before the result got to the main thread:
+     * the start truncates the log after the rewrite.
+     */
+    public void restore(final StopWatch watch, final LapBuffer laps, final long nowNanos,
+                        final long nowMillis, final Callback callback) {
+        WRITER.execute(new Runnable() {
+            @Override
+            public void run() {
+                final StopWatch restoredWatch = new StopWatch();
+                final LapBuffer restoredLaps = new LapBuffer();
+                if (!read(restoredWatch, restoredLaps, nowNanos, nowMillis)) return;
+                compact(restoredWatch, restoredLaps, nowNanos, nowMillis);
+                if (!restoredWatch.running && !restoredWatch.paused && restoredLaps.size() == 0) return;
+                mainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (released || watch.running || watch.paused || laps.size() > 0) return;
+                        watch.restore(restoredWatch.running, restoredWatch.paused,
+                                restoredWatch.getElapsedNanos(nowNanos), nowNanos);
+                        laps.setDropped(restoredLaps.getDroppedCount(), restoredLaps.getDroppedSplit());
+                        for (int number = restoredLaps.getFirstLapNumber(); number <= restoredLaps.getLapCount(); number++) {
+                            laps.add(restoredLaps.getSplit(number));
+                        }
+                        callback.onRestored();
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Replays the log into {@code watch} and {@code laps}, on the background thread.
+     *
+     * @return false if there was no log or it could not be read
+     */
+    private boolean read(StopWatch watch, LapBuffer laps, long nowNanos, long nowMillis) {
+        if (!file.exists() || file.length() < RECORD_BYTES) return false;
+
+        boolean running = false;
+        boolean paused = false;
+        long startNanos = 0;
+        long elapsedNanos = 0;
+        long lastNanos = 0;
+        long lastMillis = 0;
+
+        DataInputStream in = null;
+        try {
+            in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)));
+            boolean reading = true;
+            while (reading) {
+                byte type;
+                long a;
+                long b;
+                try {
+                    type = in.readByte();
+                    a = in.readLong();
+                    b = in.readLong();
+                } catch (EOFException e) {
+                    //end of the log, or a record cut by a crash
+                    break;
+                }
+                switch (type) {
+                    case START:
+                        running = true;
+                        paused = false;
+                        startNanos = a;
+                        elapsedNanos = 0;
+                        laps.clear();
+                        break;
+                    case PAUSE:
+                        if (running) elapsedNanos = a - startNanos;
+                        running = false;
+                        paused = true;
+                        break;
+                    case RESUME:
+                        if (paused) startNanos = a - elapsedNanos;
+                        running = true;
+                        paused = false;
+                        break;
+                    case STOP:
+                        running = false;
+                        paused = false;
+                        elapsedNanos = 0;
+                        break;
+                    case LAP:
+                        laps.add(a);
+                        continue;
+                    case DROPPED:
+                        laps.setDropped((int) b, a);
+                        continue;
+                    default:
+                        Log.w(TAG, "Unknown record " + type + ", log ignored from here");
+                        reading = false;
+                        continue;
+                }
+                lastNanos = a;
+                lastMillis = b;
+            }
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot read the log", e);
+            return false;
+        } finally {
+            closeQuietly(in);
+        }
+
+        if (running) {
+            //elapsed time at the last record, then advanced to now
+            elapsedNanos = lastNanos - startNanos;
+            long sinceNanos = nowNanos - lastNanos;
+            long sinceMillis = nowMillis - lastMillis;
+            if (sinceNanos < 0 || Math.abs(sinceNanos / NANOS_PER_MILLI - sinceMillis) > BOOT_TOLERANCE_MILLIS) {
+                //rebooted, the monotonic clock started over
+                sinceNanos = Math.max(0, sinceMillis) * NANOS_PER_MILLI;
+            }
+            elapsedNanos += sinceNanos;
+        }
+        watch.restore(running, paused, elapsedNanos, nowNanos);
+        return true;
+    }
+
+    /**
+     * Rewrites the log with just the current state, in the current monotonic timeline, on the
+     * background thread.
+     */
+    private void compact(StopWatch watch, LapBuffer laps, long nowNanos, long nowMillis) {
+        boolean running = watch.running;
+        boolean paused = watch.paused;
+        long elapsedNanos = watch.getElapsedNanos(nowNanos);
+        int size = laps.size();
+        if (!running && !paused && size == 0) {
+            delete();
+            return;
+        }
+
+        int count = 0;
+        byte[] types = new byte[size + 3];
+        long[] as = new long[size + 3];
+        long[] bs = new long[size + 3];
+        types[count] = START;
+        as[count] = nowNanos - elapsedNanos;
+        bs[count++] = nowMillis - elapsedNanos / NANOS_PER_MILLI;
+        if (laps.getDroppedCount() > 0) {
+            types[count] = DROPPED;
+            as[count] = laps.getDroppedSplit();
+            bs[count++] = laps.getDroppedCount();
+        }
+        for (int number = laps.getFirstLapNumber(); number <= laps.getLapCount(); number++) {
+            types[count] = LAP;
+            as[count] = laps.getSplit(number);
+            bs[count++] = nowMillis;
+        }
+        if (!running) {
+            types[count] = paused ? PAUSE : STOP;
+            as[count] = nowNanos;
+            bs[count++] = nowMillis;
+        }
+        writeRecords(true, types, as, bs, count);
+    }
+
+    /**
+     * Deletes the log.
+     */
+    public void clear() {
+        WRITER.execute(new Runnable() {
+            @Override
+            public void run() {
+                delete();
+            }
+        });
+    }
+
+    /**
+     * Drops the records logged from now on and a restore not yet delivered, the pending records
+     * are still written.
+     */
+    public void release() {
+        released = true;
+        mainHandler.removeCallbacksAndMessages(null);
+    }
+
+    private void write(boolean truncate, byte type, long a, long b) {
+        write(truncate, new byte[]{type}, new long[]{a}, new long[]{b}, 1);
+    }
+
+    private void write(final boolean truncate, final byte[] types, final long[] as, final long[] bs,
+                       final int count) {
+        if (released) return;
+        WRITER.execute(new Runnable() {
+            @Override
+            public void run() {
+                writeRecords(truncate, types, as, bs, count);
+            }
+        });
+    }
+
+    private void writeRecords(boolean truncate, byte[] types, long[] as, long[] bs, int count) {
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(file, !truncate);
+            byte[] record = new byte[RECORD_BYTES * count];
+            for (int i = 0; i < count; i++) {
+                int offset = i * RECORD_BYTES;
+                record[offset] = types[i];
+                putLong(record, offset + 1, as[i]);
+                putLong(record, offset + 9, bs[i]);
+            }
+            //one write call per batch, a crash can only cut the last record
+            out.write(record);
+        } catch (IOException e) {
+            Log.w(TAG, "Cannot write the log", e);
+        } finally {
+            closeQuietly(out);
+        }
+    }
+
+    /**
+     * Waits for the records and the reads queued so far, for the tests.
+     */
+    static void awaitPending() throws Exception {
+        WRITER.submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+        }).get();
+    }
+
+    private void delete() {
+        if (file.exists() && !file.delete()) {
+            Log.w(TAG, "Cannot delete the log");
+        }
+    }
+
+    private static void putLong(byte[] buffer, int offset, long value) {
+        for (int i = 7; i >= 0; i--) {
+            buffer[offset + i] = (byte) value;
+            value >>>= 8;
+        }
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (IOException ignored) {
+        }
+    }
+}
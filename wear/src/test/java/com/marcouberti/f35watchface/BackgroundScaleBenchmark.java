@@ -0,0 +1,91 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Frame time of the face with the background as decoded, scaled to the surface by the static
+ * layer, against the background resampled once to the surface size as
+ * {@link BackgroundBitmapCache} does. The background is drawn when the static layer is rebuilt,
+ * so every measured frame invalidates the layer first.
+ * <p>
+ * Not a unit test: it runs in the {@code renderBenchmark} task and prints its report.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class BackgroundScaleBenchmark {
+
+    private static final int[] SIZES = {280, 320, 360, 400, 454};
+    private static final int WARMUP_FRAMES = 50;
+    private static final int FRAMES = 300;
+
+    private final StopWatch stopWatch = new StopWatch();
+    private final FrameStats stats = new FrameStats(false);
+
+    @Test
+    public void scaledAgainstPreScaled() {
+        System.out.println("size  source     scaled median/mean us  pre-scaled median/mean us");
+        for (int size : SIZES) {
+            boolean lowRes = size <= 320;
+            Bitmap source = FaceFixtures.background(lowRes ? R.drawable.background_320 : R.drawable.background);
+            Bitmap resampled = Bitmap.createScaledBitmap(source, size, size, true);
+            long[] scaled = measure(size, source);
+            long[] preScaled = measure(size, resampled);
+            System.out.println(String.format(Locale.US, "%4d  %4dpx     %8.0f / %-8.0f       %8.0f / %-8.0f",
+                    size, source.getWidth(), median(scaled), mean(scaled), median(preScaled), mean(preScaled)));
+            resampled.recycle();
+            source.recycle();
+        }
+    }
+
+    /**
+     * @return the time of each frame, in microseconds
+     */
+    private long[] measure(int size, Bitmap background) {
+        FaceRenderer renderer = FaceFixtures.newRenderer(stopWatch, new LapBuffer());
+        renderer.setGeometry(new FaceGeometry(size, size, true, FaceFixtures.DENSITY));
+        renderer.setBackground(background);
+        Bitmap bitmap = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Rect bounds = new Rect(0, 0, size, size);
+        long epoch = System.currentTimeMillis();
+
+        long[] frames = new long[FRAMES];
+        for (int i = -WARMUP_FRAMES; i < FRAMES; i++) {
+            renderer.invalidateStaticLayer();
+            long start = System.nanoTime();
+            renderer.draw(canvas, bounds, epoch, start, stats);
+            long micros = (System.nanoTime() - start) / 1000;
+            if (i >= 0) frames[i] = micros;
+        }
+        renderer.release();
+        bitmap.recycle();
+        return frames;
+    }
+
+    private static double median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+    private static double mean(long[] values) {
+        long sum = 0;
+        for (long value : values) sum += value;
+        return (double) sum / values.length;
+    }
+}
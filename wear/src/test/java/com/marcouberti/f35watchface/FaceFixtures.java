@@ -0,0 +1,104 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Color;
+import android.graphics.Typeface;
+
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Field;
+
+/**
+ * The face on the JVM, for the Robolectric tests: fonts and backgrounds come from the source
+ * files, the unit tests have no packaged resources. Tests run in the module directory.
+ */
+final class FaceFixtures {
+
+    /**
+     * Density of a 320px hdpi watch.
+     */
+    static final float DENSITY = 1.5f;
+
+    /*
+     * Palette of res/values/colors.xml, the default accent is col_4.
+     */
+    static final int ACCENT = Color.parseColor("#ff0000");
+    static final int GRAY = Color.parseColor("#808080");
+    static final int NIGHT = Color.parseColor("#00ff7d");
+
+    private static final File ASSETS = new File("src/main/assets");
+    private static final File DRAWABLES = new File("src/main/res/drawable-nodpi");
+
+    static final FaceRenderer.Fonts FONTS = new FaceRenderer.Fonts() {
+        @Override
+        public Typeface load(String path) {
+            return Typeface.createFromFile(new File(ASSETS, path));
+        }
+    };
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private FaceFixtures() {
+    }
+
+    /**
+     * A renderer with the default colors, on a watch at 80% with the world clock in three zones.
+     */
+    static FaceRenderer newRenderer(StopWatch stopWatch, LapBuffer laps) {
+        FaceRenderer renderer = new FaceRenderer(FONTS, stopWatch, laps);
+        renderer.setColors(ACCENT, GRAY, NIGHT);
+        renderer.setBatteryPercentage(80);
+        renderer.setWorldClockZones(new String[]{"Europe/Rome", "Asia/Tokyo", "America/New_York"});
+        return renderer;
+    }
+
+    /**
+     * @return the drawable with the given id, decoded from its png
+     */
+    static Bitmap background(int id) {
+        return BitmapFactory.decodeFile(drawable(id).getPath());
+    }
+
+    /**
+     * @param key  see {@link BackgroundBitmapCache#key(boolean, boolean, boolean, boolean)}
+     * @param width  width to resample to, as the cache does; 0 for the resource as it is
+     * @param height height to resample to
+     * @return the background for {@code key}, decoded from its png
+     */
+    static Bitmap backgroundFor(int key, int width, int height) {
+        Bitmap source = background(BackgroundBitmapCache.resourceFor(key));
+        if (width <= 0 || height <= 0 || (source.getWidth() == width && source.getHeight() == height)) {
+            return source;
+        }
+        Bitmap scaled = Bitmap.createScaledBitmap(source, width, height, true);
+        source.recycle();
+        return scaled;
+    }
+
+    /**
+     * @return the png of the drawable with the given id, by the name of its R field
+     */
+    static File drawable(int id) {
+        for (Field field : R.drawable.class.getFields()) {
+            try {
+                if (field.getInt(null) == id) return new File(DRAWABLES, field.getName() + ".png");
+            } catch (IllegalAccessException e) {
+                throw new AssertionError(e);
+            }
+        }
+        throw new IllegalArgumentException("No drawable " + id);
+    }
+
+    /**
+     * Bytes allocated so far by the calling thread.
+     */
+    static long allocatedBytes() {
+        THREADS.setThreadAllocatedMemoryEnabled(true);
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
@@ -0,0 +1,126 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The frames of the face allocate nothing once the static layer is built: every left and right
+ * pair, interactive and at night, draws a few hundred frames at the chrono rate with the stopwatch
+ * running, each frame measured on its own. The frames cross a minute change, where the
+ * complications showing minutes are rendered again.
+ * <p>
+ * All the pairs are drawn once first, for the class loading and the caches of the JVM. The
+ * measured frames are drawn twice with the same times: an allocation of the face happens both
+ * times, the few bytes Robolectric and the counter allocate now and then do not.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FaceRendererAllocationTest {
+
+    private static final int SIZE = 320;
+    private static final int WARMUP_FRAMES = 10;
+    private static final int FRAMES = 300;
+    private static final long FRAME_MILLIS = 1000 / FrameScheduler.CHRONO_FPS;
+    private static final int[] MODES = {FaceRenderer.CHRONO, FaceRenderer.WEEK_DAYS_BATTERY,
+            FaceRenderer.COORDINATES, FaceRenderer.MONTH_AND_DAY, FaceRenderer.MONTH_AND_YEAR,
+            FaceRenderer.MOON, FaceRenderer.WEAR_BATTERY, FaceRenderer.SECONDARY_TIMEZONE, FaceRenderer.SUN,
+            FaceRenderer.LAPS};
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final StopWatch stopWatch = new StopWatch();
+    private final LapBuffer laps = new LapBuffer();
+    //enabled, the timing is part of every measured frame
+    private final FrameStats stats = new FrameStats(true);
+    private long epoch;
+    private FaceRenderer renderer;
+    private Bitmap background;
+    private Bitmap bitmap;
+    private Canvas canvas;
+    private final Rect bounds = new Rect(0, 0, SIZE, SIZE);
+
+    @Before
+    public void setUp() {
+        renderer = FaceFixtures.newRenderer(stopWatch, laps);
+        renderer.setGeometry(new FaceGeometry(SIZE, SIZE, true, FaceFixtures.DENSITY));
+        renderer.setLocation(45.46, 9.19);
+        renderer.setSecondTimezone("America/New_York");
+        background = FaceFixtures.background(R.drawable.background_320);
+        renderer.setBackground(background);
+        bitmap = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+        canvas = new Canvas(bitmap);
+        stopWatch.start(0);
+        laps.add(12300 * NANOS_PER_MILLI);
+        laps.add(25400 * NANOS_PER_MILLI);
+        //5 seconds before the next minute, the frames end 5 seconds after it
+        epoch = (System.currentTimeMillis() / 60000 + 1) * 60000 - 5000;
+    }
+
+    @After
+    public void tearDown() {
+        renderer.release();
+        background.recycle();
+        bitmap.recycle();
+    }
+
+    @Test
+    public void regularFramesDoNotAllocate() {
+        long[] first = new long[FRAMES];
+        long[] second = new long[FRAMES];
+        for (boolean night : new boolean[]{false, true}) {
+            for (int left : MODES) {
+                for (int right : MODES) drawFrames(left, right, night, first);
+            }
+        }
+
+        StringBuilder failures = new StringBuilder();
+        for (boolean night : new boolean[]{false, true}) {
+            for (int left : MODES) {
+                for (int right : MODES) {
+                    drawFrames(left, right, night, first);
+                    drawFrames(left, right, night, second);
+                    for (int i = 0; i < FRAMES; i++) {
+                        if (first[i] == 0 || second[i] == 0) continue;
+                        failures.append(left).append('/').append(right).append(night ? " night" : "")
+                                .append(" frame ").append(i).append(": ").append(first[i]).append(" bytes\n");
+                    }
+                }
+            }
+        }
+        assertTrue(failures.toString(), failures.length() == 0);
+    }
+
+    /**
+     * Draws the pair from {@link #epoch}, the first frame builds the static layer.
+     *
+     * @param bytes the bytes allocated by each frame after the warm-up
+     */
+    private void drawFrames(int left, int right, boolean night, long[] bytes) {
+        renderer.setMode(false, night);
+        renderer.setComplicationModes(left, right);
+        long epochMillis = epoch;
+        long elapsedNanos = 0;
+        renderer.draw(canvas, bounds, epochMillis, elapsedNanos, stats);
+        for (int i = -WARMUP_FRAMES; i < bytes.length; i++) {
+            epochMillis += FRAME_MILLIS;
+            elapsedNanos += FRAME_MILLIS * 1000000L;
+            long base = FaceFixtures.allocatedBytes();
+            renderer.draw(canvas, bounds, epochMillis, elapsedNanos, stats);
+            if (i >= 0) bytes[i] = FaceFixtures.allocatedBytes() - base;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+/**
+ * What the face draws, pixel for pixel: a frame drawn from the static layer is the frame drawn
+ * with everything rendered again, every complication draws something of its own and ambient
+ * draws none.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class FaceRendererTest {
+
+    private static final int SIZE = 320;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private final StopWatch stopWatch = new StopWatch();
+    private final LapBuffer laps = new LapBuffer();
+    private OffscreenFace face;
+    private long epoch;
+
+    @Before
+    public void setUp() {
+        FaceRenderer renderer = FaceFixtures.newRenderer(stopWatch, laps);
+        renderer.setLocation(45.46, 9.19);
+        renderer.setSecondTimezone("America/New_York");
+        face = new OffscreenFace(renderer);
+        stopWatch.start(0);
+        laps.add(12300 * NANOS_PER_MILLI);
+        laps.add(25400 * NANOS_PER_MILLI);
+        //10:10:01, the frames below stay within the minute
+        Calendar time = Calendar.getInstance();
+        time.set(2016, Calendar.MARCH, 15, 10, 10, 1);
+        time.set(Calendar.MILLISECOND, 0);
+        epoch = time.getTimeInMillis();
+    }
+
+    @After
+    public void tearDown() {
+        face.release();
+    }
+
+    @Test
+    public void cachedFramesMatchRebuiltFrames() {
+        for (OffscreenFace.Scenario scenario : OffscreenFace.getScenarios(
+                face.getRenderer().getComplications(), new int[]{SIZE}, FaceRenderer.MOON, FaceRenderer.WEEK_DAYS_BATTERY)) {
+            face.prepare(scenario);
+            face.drawFrame(epoch, 0, true);
+            //half a minute later, drawn from the static layer and then with everything rendered again
+            long later = 30000;
+            int[] cached = pixels(face.drawFrame(epoch + later, later * NANOS_PER_MILLI, false));
+            int[] rebuilt = pixels(face.drawFrame(epoch + later, later * NANOS_PER_MILLI, true));
+            assertArrayEquals(scenario.toString(), rebuilt, cached);
+        }
+    }
+
+    @Test
+    public void everyComplicationDrawsItsOwnPixels() {
+        int[] modes = face.getRenderer().getComplications().getModes(ComplicationRegistry.SIDE_LEFT);
+        Map<String, String> drawn = new HashMap<>();
+        for (boolean round : new boolean[]{true, false}) {
+            for (int left : modes) {
+                OffscreenFace.Scenario scenario = new OffscreenFace.Scenario(SIZE, round,
+                        OffscreenFace.Scenario.INTERACTIVE, left, FaceRenderer.MOON);
+                face.prepare(scenario);
+                String key = round + " " + Arrays.hashCode(pixels(face.drawFrame(epoch, 0, true)));
+                assertNull(scenario + " draws as " + drawn.get(key), drawn.get(key));
+                drawn.put(key, scenario.toString());
+            }
+        }
+    }
+
+    @Test
+    public void ambientDrawsNoComplication() {
+        face.prepare(new OffscreenFace.Scenario(SIZE, true, OffscreenFace.Scenario.AMBIENT,
+                FaceRenderer.MOON, FaceRenderer.WEEK_DAYS_BATTERY));
+        int[] moon = pixels(face.drawFrame(epoch, 0, true));
+        face.prepare(new OffscreenFace.Scenario(SIZE, true, OffscreenFace.Scenario.AMBIENT,
+                FaceRenderer.CHRONO, FaceRenderer.CHRONO));
+        assertArrayEquals(moon, pixels(face.drawFrame(epoch, 0, true)));
+
+        face.prepare(new OffscreenFace.Scenario(SIZE, true, OffscreenFace.Scenario.INTERACTIVE,
+                FaceRenderer.MOON, FaceRenderer.WEEK_DAYS_BATTERY));
+        assertFalse(Arrays.equals(moon, pixels(face.drawFrame(epoch, 0, true))));
+    }
+
+    @Test
+    public void worldClockWithoutZonesShowsGmt() {
+        face.prepare(new OffscreenFace.Scenario(SIZE, true, OffscreenFace.Scenario.INTERACTIVE,
+                FaceRenderer.WORLD_CLOCK, FaceRenderer.MOON));
+        face.getRenderer().setWorldClockZones(new String[0]);
+        int[] none = pixels(face.drawFrame(epoch, 0, true));
+        face.getRenderer().setWorldClockZones(new String[]{"GMT"});
+        assertArrayEquals(none, pixels(face.drawFrame(epoch, 0, true)));
+    }
+
+    private static int[] pixels(Bitmap bitmap) {
+        int[] pixels = new int[bitmap.getWidth() * bitmap.getHeight()];
+        bitmap.getPixels(pixels, 0, bitmap.getWidth(), 0, 0, bitmap.getWidth(), bitmap.getHeight());
+        return pixels;
+    }
+}
@@ -0,0 +1,185 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The hand sprites look like the hands the face drew as shapes with a shadow layer before, in the
+ * day and night palettes. Upright they land on the same pixels, up to the rounding of blending the
+ * sprite once more. Rotated they are resampled, so they differ on the anti-aliased edges: the
+ * tolerance is on the pixels the hands and their shadows cover, a little above what the sprites
+ * measure at every 7.5 degrees.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class HandSpriteCacheTest {
+
+    private static final int[] SIZES = {280, 320, 454};
+    //what is under the hands, the dark part of the background
+    private static final int BACKGROUND = Color.rgb(40, 40, 40);
+
+    /*
+     * Tolerance of the rotated hands, per color channel over the covered pixels.
+     */
+    private static final double MAX_MEAN_DIFF = 4;
+    private static final double MAX_OVER_16 = .12;
+    private static final double MAX_OVER_64 = .01;
+
+    private final HandSpriteCache cache = new HandSpriteCache();
+    private Bitmap expected;
+    private Bitmap actual;
+
+    @After
+    public void tearDown() {
+        cache.clear();
+        if (expected != null) expected.recycle();
+        if (actual != null) actual.recycle();
+    }
+
+    @Test
+    public void uprightHandsMatchShapes() {
+        for (int size : SIZES) {
+            Diff day = compare(size, Color.WHITE, FaceFixtures.ACCENT, 0f, 0f);
+            assertTrue(size + "px " + day, day.max <= 2);
+            Diff night = compare(size, FaceFixtures.NIGHT, Color.DKGRAY, 0f, 0f);
+            assertTrue(size + "px night " + night, night.max <= 2);
+        }
+    }
+
+    @Test
+    public void rotatedHandsStayWithinTolerance() {
+        for (int size : SIZES) {
+            for (float minutes = 0; minutes < 360; minutes += 7.5f) {
+                //the hour hand apart from the minute one
+                float hours = minutes / 12 + 90;
+                assertWithinTolerance(size + "px at " + minutes,
+                        compare(size, Color.WHITE, FaceFixtures.ACCENT, minutes, hours));
+                assertWithinTolerance(size + "px night at " + minutes,
+                        compare(size, FaceFixtures.NIGHT, Color.DKGRAY, minutes, hours));
+            }
+        }
+    }
+
+    private static void assertWithinTolerance(String message, Diff diff) {
+        assertTrue(message + ": " + diff, diff.sum <= MAX_MEAN_DIFF * diff.covered);
+        assertTrue(message + ": " + diff, diff.over16 <= MAX_OVER_16 * diff.covered);
+        assertTrue(message + ": " + diff, diff.over64 <= MAX_OVER_64 * diff.covered);
+    }
+
+    private Diff compare(int size, int handColor, int dotColor, float minutesRotation, float hoursRotation) {
+        FaceGeometry geometry = new FaceGeometry(size, size, true, FaceFixtures.DENSITY);
+        Paint handPaint = new Paint();
+        handPaint.setAntiAlias(true);
+        handPaint.setStyle(Paint.Style.FILL);
+        handPaint.setStrokeWidth(geometry.handStrokeWidth);
+        handPaint.setColor(handColor);
+        handPaint.setShadowLayer(2, 1, 1, Color.BLACK);
+        Paint linePaint = new Paint();
+        linePaint.setAntiAlias(true);
+        linePaint.setStyle(Paint.Style.FILL);
+        linePaint.setStrokeWidth(geometry.handStrokeWidth);
+        linePaint.setColor(handColor);
+        Paint dotPaint = new Paint();
+        dotPaint.setAntiAlias(true);
+        dotPaint.setTextAlign(Paint.Align.CENTER);
+        dotPaint.setStrokeWidth(geometry.accentStrokeWidth);
+        dotPaint.setColor(dotColor);
+
+        if (expected == null || expected.getWidth() != size) {
+            tearDown();
+            expected = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+            actual = Bitmap.createBitmap(size, size, Bitmap.Config.ARGB_8888);
+        }
+        expected.eraseColor(BACKGROUND);
+        drawShapes(new Canvas(expected), geometry, minutesRotation, hoursRotation, handPaint, linePaint, dotPaint);
+        actual.eraseColor(BACKGROUND);
+        Canvas canvas = new Canvas(actual);
+        cache.update(geometry, handPaint, linePaint, dotPaint);
+        cache.draw(canvas, HandSpriteCache.MINUTE, minutesRotation, geometry.centerX, geometry.centerY);
+        cache.draw(canvas, HandSpriteCache.HOUR, hoursRotation, geometry.centerX, geometry.centerY);
+        return Diff.of(expected, actual);
+    }
+
+    /**
+     * The hands of onDraw before the sprites.
+     */
+    private static void drawShapes(Canvas canvas, FaceGeometry geometry, float minutesRotation, float hoursRotation,
+                                   Paint mSecondsCirclePaint, Paint mDarkSecondsCirclePaint, Paint accentFillPaint) {
+        float cx = geometry.centerX;
+        float cy = geometry.centerY;
+        //Hands sizes and round rect readius
+        float RR = geometry.handCornerRadius;
+        float RRradius = geometry.handHalfWidth;
+
+        //Minutes hand
+        canvas.save();
+        canvas.rotate(minutesRotation, cx, cy);
+        canvas.drawRoundRect(cx - RRradius, geometry.minuteHandTop, cx + RRradius, geometry.handBottom, RR, RR, mSecondsCirclePaint);
+        canvas.drawLine(cx, cy, cx, geometry.minuteHandTop, mDarkSecondsCirclePaint);
+        canvas.restore();
+        //END Minutes hands
+
+        //Hours hand
+        canvas.save();
+        canvas.rotate(hoursRotation, cx, cy);
+        canvas.drawRoundRect(cx - RRradius, geometry.hourHandTop, cx + RRradius, geometry.handBottom, RR, RR, mSecondsCirclePaint);
+        canvas.drawLine(cx, cy, cx, geometry.hourHandTop, mDarkSecondsCirclePaint);
+        canvas.drawCircle(cx, geometry.hourHandDotY, geometry.hourHandDotRadius, accentFillPaint);
+        canvas.restore();
+        //END Hours hand
+    }
+
+    /**
+     * Largest difference of the color channels of each pixel of two bitmaps.
+     */
+    private static final class Diff {
+        //pixels not showing the background in either bitmap
+        int covered;
+        int changed;
+        int over16;
+        int over64;
+        int max;
+        long sum;
+
+        static Diff of(Bitmap expected, Bitmap actual) {
+            int width = expected.getWidth();
+            int height = expected.getHeight();
+            int[] a = new int[width * height];
+            int[] b = new int[width * height];
+            expected.getPixels(a, 0, width, 0, 0, width, height);
+            actual.getPixels(b, 0, width, 0, 0, width, height);
+            Diff diff = new Diff();
+            for (int i = 0; i < a.length; i++) {
+                if (a[i] != BACKGROUND || b[i] != BACKGROUND) diff.covered++;
+                int d = Math.max(Math.abs(Color.red(a[i]) - Color.red(b[i])),
+                        Math.max(Math.abs(Color.green(a[i]) - Color.green(b[i])),
+                                Math.abs(Color.blue(a[i]) - Color.blue(b[i]))));
+                if (d == 0) continue;
+                diff.changed++;
+                diff.sum += d;
+                diff.max = Math.max(diff.max, d);
+                if (d > 16) diff.over16++;
+                if (d > 64) diff.over64++;
+            }
+            return diff;
+        }
+
+        @Override
+        public String toString() {
+            return covered + " covered, " + changed + " changed, " + over16 + " over 16, " + over64
+                    + " over 64, max " + max + ", sum " + sum;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.RectF;
+
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * The cached moon sprites draw the same pixels as the scanlines the face drew before, for every
+ * phase step, at the moon radii of the supported sizes, in both palettes. Both are drawn on a
+ * transparent layer: on an opaque canvas the anti-aliased rim of a sprite can come out one level
+ * off, blended twice.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class MoonSpriteCacheTest {
+
+    //the moon radius, .4 of the complication radius, of the 280, 320, 360, 400 and 454px faces
+    private static final int[] RADII = {14, 16, 18, 20, 22};
+    private static final int SIZE = 64;
+    private static final int CENTER = SIZE / 2;
+    //a translated canvas, the cache rasterizes at the device position of the moon
+    private static final int ORIGIN = 117;
+
+    private final MoonSpriteCache cache = new MoonSpriteCache();
+    private final Bitmap expected = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    private final Bitmap actual = Bitmap.createBitmap(SIZE, SIZE, Bitmap.Config.ARGB_8888);
+    private final int[] expectedPixels = new int[SIZE * SIZE];
+    private final int[] actualPixels = new int[SIZE * SIZE];
+
+    @After
+    public void tearDown() {
+        cache.clear();
+        expected.recycle();
+        actual.recycle();
+    }
+
+    @Test
+    public void spritesMatchScanlines() {
+        assertMatches(Color.WHITE, Color.DKGRAY);
+    }
+
+    @Test
+    public void nightSpritesMatchScanlines() {
+        assertMatches(FaceFixtures.NIGHT, Color.DKGRAY);
+    }
+
+    private void assertMatches(int litColor, int darkColor) {
+        Paint litPaint = fillPaint(litColor);
+        Paint darkPaint = fillPaint(darkColor);
+        Canvas expectedCanvas = new Canvas(expected);
+        expectedCanvas.translate(-ORIGIN, -ORIGIN);
+        Canvas actualCanvas = new Canvas(actual);
+        actualCanvas.translate(-ORIGIN, -ORIGIN);
+        for (int radius : RADII) {
+            cache.configure(radius, litColor, darkColor);
+            for (int step = 0; step < MoonSpriteCache.STEPS; step++) {
+                double phaseAngle = MoonSpriteCache.toPhaseAngle(step);
+                expected.eraseColor(Color.TRANSPARENT);
+                drawScanlines(expectedCanvas, ORIGIN + CENTER, ORIGIN + CENTER, radius, phaseAngle, litPaint, darkPaint);
+                actual.eraseColor(Color.TRANSPARENT);
+                cache.draw(actualCanvas, ORIGIN + CENTER, ORIGIN + CENTER, phaseAngle);
+
+                expected.getPixels(expectedPixels, 0, SIZE, 0, 0, SIZE, SIZE);
+                actual.getPixels(actualPixels, 0, SIZE, 0, 0, SIZE, SIZE);
+                for (int i = 0; i < expectedPixels.length; i++) {
+                    if (expectedPixels[i] == actualPixels[i]) continue;
+                    assertEquals("radius " + radius + " step " + step + " at " + i % SIZE + "," + i / SIZE,
+                            Integer.toHexString(expectedPixels[i]), Integer.toHexString(actualPixels[i]));
+                }
+            }
+        }
+    }
+
+    private static Paint fillPaint(int color) {
+        Paint paint = new Paint();
+        paint.setColor(color);
+        paint.setStyle(Paint.Style.FILL);
+        paint.setAntiAlias(true);
+        paint.setFilterBitmap(true);
+        return paint;
+    }
+
+    /**
+     * The moon of drawMoonPhase before the sprites, straight on the canvas.
+     */
+    private static void drawScanlines(Canvas canvas, int xcenter, int ycenter, int moonradius, double phaseAngle,
+                                      Paint whiteFillPaint, Paint darkGrayFillPaint) {
+        // draw the whole moon disk, in moonColor:
+        RectF oval = new RectF();
+        oval.set(xcenter - moonradius, ycenter - moonradius, xcenter
+                + moonradius, ycenter + moonradius);
+        canvas.drawOval(oval, whiteFillPaint);
+
+        double positionAngle = Math.PI - phaseAngle;
+        if (positionAngle < 0.)
+            positionAngle += 2. * Math.PI;
+
+        // Okay, now fill in the dark part.
+        double cosTerm = Math.cos(positionAngle);
+        moonradius += 1;//FIX WHITE BEHIND EDGES
+        double rsquared = moonradius * moonradius;
+        int whichQuarter = ((int) (positionAngle * 2. / Math.PI) + 4) % 4;
+        int j;
+
+        for (j = 0; j <= moonradius; ++j) {
+            double rrf = Math.sqrt(rsquared - j * j);
+            int rr = (int) (rrf + .5);
+            int xx = (int) (rrf * cosTerm);
+            int x1 = xcenter - (whichQuarter < 2 ? rr : xx);
+            int w = rr + xx + 1;
+            canvas.drawRect(x1, ycenter - j, w + x1, ycenter - j + 1, darkGrayFillPaint);
+            canvas.drawRect(x1, ycenter + j, w + x1, ycenter + j + 1, darkGrayFillPaint);
+        }
+    }
+}
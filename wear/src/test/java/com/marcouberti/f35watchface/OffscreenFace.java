@@ -0,0 +1,184 @@
+package com.marcouberti.f35watchface;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Rect;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A {@link FaceRenderer} set up for one {@link Scenario} at a time and drawn on a bitmap backed
+ * canvas, the same software canvas the face gets from its surface. The backgrounds are decoded
+ * from the resource files, see {@link FaceFixtures#backgroundFor(int, int, int)}.
+ */
+final class OffscreenFace {
+
+    static final class Scenario {
+        static final int INTERACTIVE = 0;
+        static final int AMBIENT = 1;
+        static final int NIGHT = 2;
+        static final String[] VARIANT_NAMES = {"interactive", "ambient", "night"};
+
+        /**
+         * The background resampled to the surface size beforehand, as the face draws it.
+         */
+        static final int PRESCALED = 0;
+        /**
+         * The background as decoded, scaled to the surface while the static layer is drawn: the
+         * cost the pre-scaling saves.
+         */
+        static final int SCALED = 1;
+        static final String[] BACKGROUND_NAMES = {"prescaled", "scaled"};
+
+        final int size;
+        final boolean round;
+        final int variant;
+        final int background;
+        final int left;
+        final int right;
+
+        Scenario(int size, boolean round, int variant, int left, int right) {
+            this(size, round, variant, PRESCALED, left, right);
+        }
+
+        Scenario(int size, boolean round, int variant, int background, int left, int right) {
+            this.size = size;
+            this.round = round;
+            this.variant = variant;
+            this.background = background;
+            this.left = left;
+            this.right = right;
+        }
+
+        @Override
+        public String toString() {
+            return (round ? "round " : "square ") + size + " " + VARIANT_NAMES[variant] + " "
+                    + BACKGROUND_NAMES[background] + " " + FaceRenderer.COMPLICATION_NAMES[left] + "/"
+                    + FaceRenderer.COMPLICATION_NAMES[right];
+        }
+    }
+
+    private final FaceRenderer renderer;
+    private final FrameStats stats = new FrameStats(false);
+    private final Rect bounds = new Rect();
+    private Bitmap bitmap;
+    private Canvas canvas;
+
+    //shared by the scenarios of the same size, variant and background mode
+    private Bitmap background;
+    private int backgroundKey = -1;
+    private int backgroundSize;
+    private int backgroundMode;
+
+    /**
+     * @param renderer owned by this face from now on, with its colors set
+     */
+    OffscreenFace(FaceRenderer renderer) {
+        this.renderer = renderer;
+    }
+
+    /**
+     * Every left and right complication pair, interactive and at night, for each size and
+     * shape. Ambient draws no complication, it is drawn once per size and shape with the given
+     * pair. The background is pre-scaled, as on the face; each variant is drawn once more with
+     * the given pair and the background {@link Scenario#SCALED} while drawing.
+     */
+    static List<Scenario> getScenarios(ComplicationRegistry complications, int[] sizes,
+                                       int defaultLeft, int defaultRight) {
+        int[] lefts = complications.getModes(ComplicationRegistry.SIDE_LEFT);
+        int[] rights = complications.getModes(ComplicationRegistry.SIDE_RIGHT);
+        int[] variants = {Scenario.INTERACTIVE, Scenario.NIGHT};
+        boolean[] shapes = {true, false};
+        List<Scenario> scenarios = new ArrayList<>();
+        //grouped by size, shape and variant, so they share the background
+        for (int size : sizes) {
+            for (boolean round : shapes) {
+                scenarios.add(new Scenario(size, round, Scenario.AMBIENT, defaultLeft, defaultRight));
+                scenarios.add(new Scenario(size, round, Scenario.AMBIENT, Scenario.SCALED, defaultLeft, defaultRight));
+                for (int variant : variants) {
+                    for (int left : lefts) {
+                        if (left == FaceRenderer.CHRONO) {
+                            //the chrono takes both slots
+                            scenarios.add(new Scenario(size, round, variant, FaceRenderer.CHRONO, FaceRenderer.CHRONO));
+                            continue;
+                        }
+                        for (int right : rights) {
+                            scenarios.add(new Scenario(size, round, variant, left, right));
+                        }
+                    }
+                    scenarios.add(new Scenario(size, round, variant, Scenario.SCALED, defaultLeft, defaultRight));
+                }
+            }
+        }
+        return scenarios;
+    }
+
+    FaceRenderer getRenderer() {
+        return renderer;
+    }
+
+    /**
+     * Sets the face up as described by {@code scenario}.
+     */
+    void prepare(Scenario scenario) {
+        boolean ambient = scenario.variant == Scenario.AMBIENT;
+        boolean night = scenario.variant == Scenario.NIGHT;
+        FaceGeometry geometry = new FaceGeometry(scenario.size, scenario.size, scenario.round, FaceFixtures.DENSITY);
+        renderer.setGeometry(geometry);
+        renderer.setMode(ambient, night);
+        renderer.setComplicationModes(scenario.left, scenario.right);
+
+        if (bitmap == null || bitmap.getWidth() != scenario.size) {
+            if (bitmap != null) bitmap.recycle();
+            bitmap = Bitmap.createBitmap(scenario.size, scenario.size, Bitmap.Config.ARGB_8888);
+            canvas = new Canvas(bitmap);
+            bounds.set(0, 0, scenario.size, scenario.size);
+        }
+
+        int key = BackgroundBitmapCache.key(scenario.round, geometry.isLowRes(), ambient, night);
+        if (background == null || key != backgroundKey || backgroundMode != scenario.background
+                || backgroundSize != scenario.size) {
+            releaseBackground();
+            int size = scenario.background == Scenario.SCALED ? 0 : scenario.size;
+            background = FaceFixtures.backgroundFor(key, size, size);
+            backgroundKey = key;
+            backgroundMode = scenario.background;
+            backgroundSize = scenario.size;
+        }
+        renderer.setBackground(background);
+    }
+
+    /**
+     * Draws a frame at the given time.
+     *
+     * @param rebuild true to render the complications and the static layer again first
+     * @return the bitmap drawn on, until the next scenario of another size
+     */
+    Bitmap drawFrame(long epochMillis, long elapsedNanos, boolean rebuild) {
+        if (rebuild) renderer.invalidateAll();
+        renderer.draw(canvas, bounds, epochMillis, elapsedNanos, stats);
+        return bitmap;
+    }
+
+    /**
+     * Frees the bitmaps and the renderer.
+     */
+    void release() {
+        releaseBackground();
+        renderer.release();
+        if (bitmap != null) {
+            bitmap.recycle();
+            bitmap = null;
+            canvas = null;
+        }
+    }
+
+    private void releaseBackground() {
+        if (background != null) {
+            background.recycle();
+            background = null;
+            backgroundKey = -1;
+        }
+    }
+}
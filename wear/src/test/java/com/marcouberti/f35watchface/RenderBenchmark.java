@@ -0,0 +1,150 @@
+package com.marcouberti.f35watchface;
+
+import com.marcouberti.f35watchface.utils.stopwatch.LapBuffer;
+import com.marcouberti.f35watchface.utils.stopwatch.StopWatch;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.annotation.GraphicsMode;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Render benchmark of the face over every {@link OffscreenFace.Scenario}, on the JVM with the
+ * native canvas of Robolectric. Each scenario is measured twice: frames with the static layer and
+ * both complication slots rebuilt (a tap, a complication change) and regular frames (blit plus
+ * hands). For both the report has the mean and p99 milliseconds per frame and the bytes allocated
+ * per frame. The timings are the JVM ones, only good to compare two runs on the same machine.
+ * <p>
+ * Not a unit test: it runs in the {@code renderBenchmark} task and writes
+ * {@code build/reports/render-benchmark.csv}. {@code -Drender.benchmark.frames=100
+ * -Drender.benchmark.sizes=320,400} picks the measured frames and the sizes.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+@GraphicsMode(GraphicsMode.Mode.NATIVE)
+public class RenderBenchmark {
+
+    private static final File REPORT = new File("build/reports/render-benchmark.csv");
+    /**
+     * Frames drawn before measuring each phase, to leave the one-off allocations out.
+     */
+    private static final int WARMUP_FRAMES = 5;
+    /**
+     * Time between two frames, as the chrono frame rate.
+     */
+    private static final long FRAME_MILLIS = 1000 / FrameScheduler.CHRONO_FPS;
+    private static final long NANOS_PER_MILLI = 1000000L;
+
+    private static final String HEADER = "shape,size,variant,background,left,right,frames,"
+            + "rebuild_mean_ms,rebuild_p99_ms,rebuild_alloc_bytes,"
+            + "frame_mean_ms,frame_p99_ms,frame_alloc_bytes";
+
+    private final StringBuilder results = new StringBuilder();
+    private int frames;
+    private long[] durations;
+    private long epochMillis;
+    private long elapsedNanos;
+
+    @Test
+    public void everyScenario() throws IOException {
+        frames = Math.max(1, Integer.getInteger("render.benchmark.frames", 30));
+        durations = new long[frames];
+        int[] sizes = parseSizes(System.getProperty("render.benchmark.sizes", "280,320,360,400,454"));
+
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start(0);
+        OffscreenFace face = new OffscreenFace(FaceFixtures.newRenderer(stopWatch, new LapBuffer()));
+        List<OffscreenFace.Scenario> scenarios = OffscreenFace.getScenarios(face.getRenderer().getComplications(),
+                sizes, FaceRenderer.MOON, FaceRenderer.WEEK_DAYS_BATTERY);
+
+        results.append("# JVM ").append(System.getProperty("java.version"))
+                .append(", ").append(frames).append(" frames per phase\n");
+        results.append(HEADER).append('\n');
+        epochMillis = System.currentTimeMillis();
+        elapsedNanos = 0;
+        try {
+            for (OffscreenFace.Scenario scenario : scenarios) {
+                face.prepare(scenario);
+                run(face, scenario);
+            }
+        } finally {
+            face.release();
+        }
+        write(results.toString());
+        System.out.println(scenarios.size() + " scenarios, report written to " + REPORT.getAbsolutePath());
+    }
+
+    private void run(OffscreenFace face, OffscreenFace.Scenario scenario) {
+        results.append(scenario.round ? "round" : "square")
+                .append(',').append(scenario.size)
+                .append(',').append(OffscreenFace.Scenario.VARIANT_NAMES[scenario.variant])
+                .append(',').append(OffscreenFace.Scenario.BACKGROUND_NAMES[scenario.background])
+                .append(',').append(FaceRenderer.COMPLICATION_NAMES[scenario.left])
+                .append(',').append(FaceRenderer.COMPLICATION_NAMES[scenario.right])
+                .append(',').append(frames);
+        measure(face, true);
+        measure(face, false);
+        results.append('\n');
+    }
+
+    /**
+     * Draws the warm-up and the measured frames of a phase and appends its columns.
+     */
+    private void measure(OffscreenFace face, boolean rebuild) {
+        for (int i = 0; i < WARMUP_FRAMES; i++) drawFrame(face, rebuild);
+
+        long base = FaceFixtures.allocatedBytes();
+        for (int i = 0; i < frames; i++) {
+            long start = System.nanoTime();
+            drawFrame(face, rebuild);
+            durations[i] = System.nanoTime() - start;
+        }
+        long allocBytes = FaceFixtures.allocatedBytes() - base;
+
+        long sum = 0;
+        for (int i = 0; i < frames; i++) sum += durations[i];
+        Arrays.sort(durations);
+        long p99 = durations[(int) Math.ceil(frames * 0.99) - 1];
+
+        results.append(',').append(format(sum / (double) frames / NANOS_PER_MILLI))
+                .append(',').append(format(p99 / (double) NANOS_PER_MILLI))
+                .append(',').append(format(allocBytes / (double) frames));
+    }
+
+    private void drawFrame(OffscreenFace face, boolean rebuild) {
+        epochMillis += FRAME_MILLIS;
+        elapsedNanos += FRAME_MILLIS * NANOS_PER_MILLI;
+        face.drawFrame(epochMillis, elapsedNanos, rebuild);
+    }
+
+    private static int[] parseSizes(String value) {
+        String[] parts = value.split(",");
+        int[] sizes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) sizes[i] = Integer.parseInt(parts[i].trim());
+        return sizes;
+    }
+
+    private static void write(String csv) throws IOException {
+        File dir = REPORT.getParentFile();
+        if (!dir.exists() && !dir.mkdirs()) throw new IOException("Cannot create " + dir);
+        FileWriter out = new FileWriter(REPORT);
+        try {
+            out.write(csv);
+        } finally {
+            out.close();
+        }
+    }
+
+    private static String format(double value) {
+        //not the default locale, a decimal comma would break the columns
+        return String.format(Locale.US, "%.3f", value);
+    }
+}
@@ -0,0 +1,158 @@
+package com.marcouberti.f35watchface.utils.location;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * When the sync asks the phone, on the main looper of Robolectric: its clock only moves when the
+ * looper is idled.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+public class LocationSyncTest {
+
+    private static final long TTL_MS = 5 * 60000;
+    private static final long PUSH_TTL_MS = 45 * 60000;
+    /**
+     * The phone pushes the location again this often while it stays put.
+     */
+    private static final long PUSH_REFRESH_MS = 30 * 60000;
+
+    private int requests;
+    private boolean sent;
+    private int changes;
+    private LocationSync sync;
+
+    @Before
+    public void setUp() {
+        sent = true;
+        sync = new LocationSync(new LocationSync.Transport() {
+            @Override
+            public boolean requestLocation() {
+                requests++;
+                return sent;
+            }
+        }, new LocationSync.Listener() {
+            @Override
+            public void onLocationChanged(double latitude, double longitude) {
+                changes++;
+            }
+        }, TTL_MS, PUSH_TTL_MS);
+    }
+
+    @Test
+    public void asksOnceUntilTheLocationIsStale() {
+        sync.setActive(true);
+        idle(0);
+        assertEquals(1, requests);
+
+        sync.onLocation(45.46, 9.19);
+        idle(TTL_MS - 1000);
+        assertEquals(1, requests);
+        idle(1000);
+        assertEquals(2, requests);
+    }
+
+    @Test
+    public void pushesPutTheRequestOff() {
+        sync.setActive(true);
+        idle(0);
+        sync.onPushedLocation(45.46, 9.19, 0);
+        idle(PUSH_TTL_MS - 1000);
+        sync.onPushedLocation(45.47, 9.19, 0);
+        idle(PUSH_TTL_MS - 1000);
+        assertEquals(1, requests);
+
+        //the phone stopped pushing, the request is the fallback
+        idle(1000);
+        assertEquals(2, requests);
+    }
+
+    @Test
+    public void stationaryHourSendsNoRequest() {
+        sync.onPushedLocation(45.46, 9.19, 0);
+        sync.setActive(true);
+        for (int i = 0; i < 2; i++) {
+            idle(PUSH_REFRESH_MS);
+            sync.onPushedLocation(45.46, 9.19, 0);
+        }
+        assertEquals(0, requests);
+        assertEquals(1, changes);
+    }
+
+    @Test
+    public void oldPushIsStale() {
+        //fetched on connect, pushed before the watch was listening
+        sync.onPushedLocation(45.46, 9.19, PUSH_TTL_MS - 1000);
+        sync.setActive(true);
+        idle(0);
+        assertEquals(0, requests);
+        idle(1000);
+        assertEquals(1, requests);
+    }
+
+    @Test
+    public void unansweredRequestsBackOff() {
+        sync.setActive(true);
+        idle(0);
+        //15 s timeout, then 30 s, 60 s and 120 s of backoff
+        idle(15000 + 30000);
+        assertEquals(2, requests);
+        idle(15000 + 60000 - 1);
+        assertEquals(2, requests);
+        idle(1);
+        assertEquals(3, requests);
+        idle(15000 + 120000);
+        assertEquals(4, requests);
+
+        //the phone is back, a stale location is asked for at once
+        sync.onLocation(45.46, 9.19);
+        idle(TTL_MS);
+        assertEquals(5, requests);
+        idle(15000);
+        sync.onPhoneReachable();
+        idle(0);
+        assertEquals(6, requests);
+    }
+
+    @Test
+    public void requestsThatCannotBeSentBackOff() {
+        sent = false;
+        sync.setActive(true);
+        idle(0);
+        idle(30000);
+        assertEquals(2, requests);
+        idle(60000 - 1);
+        assertEquals(2, requests);
+    }
+
+    @Test
+    public void inactiveSyncDoesNotAsk() {
+        sync.setActive(true);
+        idle(0);
+        sync.setActive(false);
+        idle(TimeUnit.HOURS.toMillis(1));
+        assertEquals(1, requests);
+    }
+
+    @Test
+    public void tinyMovesAreNotReported() {
+        sync.onLocation(45.46, 9.19);
+        sync.onLocation(45.46005, 9.19005);
+        assertEquals(1, changes);
+        sync.onLocation(45.4602, 9.19);
+        assertEquals(2, changes);
+    }
+
+    private static void idle(long millis) {
+        ShadowLooper.idleMainLooper(millis, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,179 @@
+package com.marcouberti.f35watchface.utils.stopwatch;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.annotation.Config;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * The log as a new engine reads it: each one is read back by another {@link StopWatchLog}, as
+ * after the engine was recreated, on the monotonic and wall clocks of the same boot.
+ */
+@RunWith(RobolectricTestRunner.class)
+@Config(sdk = 33, manifest = Config.NONE)
+public class StopWatchLogTest {
+
+    private static final long SECOND = 1000000000L;
+    private static final long BOOT = 1000 * SECOND;
+    private static final long WALL = 1458036601000L;
+    private static final int RECORD_BYTES = 17;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File file;
+    private StopWatchLog log;
+    private final StopWatch watch = new StopWatch();
+    private final LapBuffer laps = new LapBuffer();
+    private int restored;
+
+    @Before
+    public void setUp() throws IOException {
+        file = new File(folder.getRoot(), "stopwatch.log");
+        log = new StopWatchLog(file);
+    }
+
+    @After
+    public void tearDown() {
+        log.release();
+    }
+
+    @Test
+    public void recordsRoundTrip() throws Exception {
+        log.logStart(BOOT, WALL);
+        log.logLap(5 * SECOND, wall(5));
+        log.logPause(BOOT + 8 * SECOND, wall(8));
+        StopWatchLog.awaitPending();
+
+        DataInputStream in = new DataInputStream(new FileInputStream(file));
+        try {
+            assertEquals(3 * RECORD_BYTES, file.length());
+            assertEquals(1, in.readByte());
+            assertEquals(BOOT, in.readLong());
+            assertEquals(WALL, in.readLong());
+            assertEquals(5, in.readByte());
+            assertEquals(5 * SECOND, in.readLong());
+            assertEquals(wall(5), in.readLong());
+        } finally {
+            in.close();
+        }
+
+        restore(60);
+        assertEquals(1, restored);
+        assertFalse(watch.running);
+        assertTrue(watch.paused);
+        assertEquals(8 * SECOND, watch.getElapsedNanos(BOOT + 90 * SECOND));
+        assertEquals(1, laps.size());
+        assertEquals(5 * SECOND, laps.getSplit(1));
+        //rewritten as the same run: start, lap and pause
+        assertEquals(3 * RECORD_BYTES, file.length());
+    }
+
+    @Test
+    public void truncatedTrailingRecordIsIgnored() throws Exception {
+        log.logStart(BOOT, WALL);
+        log.logLap(5 * SECOND, wall(5));
+        StopWatchLog.awaitPending();
+        //a pause cut by a crash
+        FileOutputStream out = new FileOutputStream(file, true);
+        try {
+            out.write(new byte[]{2, 0, 0, 0, 0, 0, 0, 0, 0, 0});
+        } finally {
+            out.close();
+        }
+
+        restore(10);
+        assertEquals(1, restored);
+        assertTrue(watch.running);
+        assertEquals(10 * SECOND, watch.getElapsedNanos(BOOT + 10 * SECOND));
+        assertEquals(1, laps.size());
+        assertEquals(0, file.length() % RECORD_BYTES);
+    }
+
+    @Test
+    public void startResetsTheRun() throws Exception {
+        log.logStart(BOOT, WALL);
+        log.logLap(5 * SECOND, wall(5));
+        log.logLap(7 * SECOND, wall(7));
+        log.logStop(BOOT + 9 * SECOND, wall(9));
+        log.logStart(BOOT + 20 * SECOND, wall(20));
+        StopWatchLog.awaitPending();
+        assertEquals(RECORD_BYTES, file.length());
+
+        restore(30);
+        assertTrue(watch.running);
+        assertEquals(10 * SECOND, watch.getElapsedNanos(BOOT + 30 * SECOND));
+        assertEquals(0, laps.size());
+    }
+
+    @Test
+    public void stoppedRunIsCleared() throws Exception {
+        log.logStart(BOOT, WALL);
+        log.logStop(BOOT + 9 * SECOND, wall(9));
+
+        restore(30);
+        assertEquals(0, restored);
+        assertFalse(watch.running || watch.paused);
+        assertFalse(file.exists());
+    }
+
+    @Test
+    public void startBeforeTheReadKeepsTheNewRun() throws Exception {
+        log.logStart(BOOT, WALL);
+        StopWatchLog.awaitPending();
+
+        StopWatchLog next = new StopWatchLog(file);
+        next.restore(watch, laps, BOOT + 30 * SECOND, wall(30), new StopWatchLog.Callback() {
+            @Override
+            public void onRestored() {
+                restored++;
+            }
+        });
+        //tapped before the result got to the main thread
+        watch.start(BOOT + 30 * SECOND);
+        next.logStart(BOOT + 30 * SECOND, wall(30));
+        StopWatchLog.awaitPending();
+        ShadowLooper.idleMainLooper();
+        next.release();
+
+        assertEquals(0, restored);
+        assertEquals(0, watch.getElapsedNanos(BOOT + 30 * SECOND));
+        assertEquals(RECORD_BYTES, file.length());
+    }
+
+    /**
+     * Reads the log with a new one {@code seconds} after {@link #BOOT}, as a new engine does.
+     */
+    private void restore(long seconds) throws Exception {
+        StopWatchLog.awaitPending();
+        log.release();
+        log = new StopWatchLog(file);
+        log.restore(watch, laps, BOOT + seconds * SECOND, wall(seconds), new StopWatchLog.Callback() {
+            @Override
+            public void onRestored() {
+                restored++;
+            }
+        });
+        StopWatchLog.awaitPending();
+        ShadowLooper.idleMainLooper();
+    }
+
+    private static long wall(long seconds) {
+        return WALL + seconds * 1000;
+    }
+}